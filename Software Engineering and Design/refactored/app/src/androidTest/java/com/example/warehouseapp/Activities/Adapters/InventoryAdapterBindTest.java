@@ -0,0 +1,132 @@
+package com.example.warehouseapp.Activities.Adapters;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.ContextThemeWrapper;
+import android.view.View;
+
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.warehouseapp.Database.InventoryRepository;
+import com.example.warehouseapp.Database.TestDatabase;
+import com.example.warehouseapp.Database.WarehouseDatabase;
+import com.example.warehouseapp.R;
+import com.example.warehouseapp.Types.InventoryItem;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Counts row binds for a single list change with a full notifyDataSetChanged (the old behaviour) and with the diff.
+ * The adapter saves to a scratch database, so no background work on the shared one can disturb the counts.
+ */
+@RunWith(AndroidJUnit4.class)
+public class InventoryAdapterBindTest {
+
+    private static final String databaseName = "bind_test.db";
+
+    private Instrumentation instrumentation;
+    private Context context;
+    private WarehouseDatabase database;
+    private List<InventoryItem> items;
+    private CountingAdapter adapter;
+    private RecyclerView recyclerView;
+
+    @Before
+    public void setUp() {
+        instrumentation = InstrumentationRegistry.getInstrumentation();
+        context = new ContextThemeWrapper(instrumentation.getTargetContext(), R.style.Theme_WarehouseApp);
+        database = TestDatabase.open(context, databaseName);
+        InventoryRepository repository = TestDatabase.repository(database);
+
+        items = new ArrayList<>();
+        for (int i = 0; i < 200; i++) items.add(new InventoryItem(String.format("SKU%04d", i), "Item " + i, i));
+
+        instrumentation.runOnMainSync(() -> {
+            adapter = new CountingAdapter(context, items, repository);
+            recyclerView = new RecyclerView(context);
+            recyclerView.setItemAnimator(null);
+            recyclerView.setLayoutManager(new LinearLayoutManager(context));
+            recyclerView.setAdapter(adapter);
+            layout();
+        });
+    }
+
+    @After
+    public void tearDown() {
+        instrumentation.runOnMainSync(() -> adapter.release());
+        database.close();
+        context.deleteDatabase(databaseName);
+    }
+
+    @Test
+    public void diffRebindsOnlyTheChangedRow() {
+        // the old path: one edit followed by notifyDataSetChanged rebinds every visible row
+        int fullRebind = bindsDuring(() -> adapter.notifyDataSetChanged());
+
+        // the diff path: one edit to a row on screen
+        InventoryItem shown = items.get(2);
+        int diffed = bindsDuring(() -> adapter.saveItem(shown, new InventoryItem(shown.getSku(), "Edited", shown.getQuantity() + 1)));
+
+        Log.i("Benchmark", "binds for one change: notifyDataSetChanged " + fullRebind + ", diff " + diffed);
+
+        assertTrue("every visible row should have been rebound", fullRebind > 1);
+        assertEquals("only the edited row should be rebound", 1, diffed);
+    }
+
+    /**
+     * Method to apply a change, wait for the background diff to land and lay the list out again
+     * @return The number of binds the change caused
+     */
+    private int bindsDuring(Runnable change) {
+        int[] before = new int[1];
+        instrumentation.runOnMainSync(() -> {
+            before[0] = adapter.binds;
+            change.run();
+        });
+
+        // the diff is computed off the main thread, give it time to dispatch
+        SystemClock.sleep(300);
+        instrumentation.waitForIdleSync();
+
+        int[] after = new int[1];
+        instrumentation.runOnMainSync(() -> {
+            layout();
+            after[0] = adapter.binds;
+        });
+        return after[0] - before[0];
+    }
+
+    // lays the list out offscreen at a phone sized viewport
+    private void layout() {
+        recyclerView.measure(View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(1920, View.MeasureSpec.EXACTLY));
+        recyclerView.layout(0, 0, 1080, 1920);
+    }
+
+    private static class CountingAdapter extends InventoryAdapter {
+        int binds = 0;
+
+        CountingAdapter(Context context, List<InventoryItem> items, InventoryRepository repository) {
+            super(context, items, repository);
+        }
+
+        @Override
+        public void onBindViewHolder(InventoryViewHolder holder, int position) {
+            binds++;
+            super.onBindViewHolder(holder, position);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.warehouseapp.Activities.Adapters;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.os.Debug;
+import android.util.Log;
+import android.view.ContextThemeWrapper;
+import android.view.View;
+import android.widget.Toast;
+
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.warehouseapp.Database.InventoryRepository;
+import com.example.warehouseapp.R;
+import com.example.warehouseapp.Types.InventoryItem;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Scrolls a 10k row list one frame at a time and measures bytes allocated per frame, with listeners owned by the
+ * view holder against the old pattern of a new listener on every bind. Also checks a tap acts on the row's
+ * current item after the rows above it change.
+ */
+@RunWith(AndroidJUnit4.class)
+public class InventoryScrollBenchmark {
+
+    private static final int rows = 10_000;
+    private static final int frames = 600;
+    private static final int pixelsPerFrame = 48;
+
+    private Instrumentation instrumentation;
+    private Context context;
+    private InventoryRepository repository;
+    private List<InventoryItem> items;
+    private final List<InventoryAdapter> adapters = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        instrumentation = InstrumentationRegistry.getInstrumentation();
+        context = new ContextThemeWrapper(instrumentation.getTargetContext(), R.style.Theme_WarehouseApp);
+        repository = new InventoryRepository(context);
+
+        items = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) items.add(new InventoryItem(String.format("SKU%05d", i), "Item " + i, i % 100));
+    }
+
+    @After
+    public void tearDown() {
+        instrumentation.runOnMainSync(() -> {
+            for (InventoryAdapter adapter : adapters) adapter.release();
+        });
+    }
+
+    @Test
+    public void bindingAllocatesLessPerFrame() {
+        // run each once to warm up inflation and the jit, then measure
+        scroll(new LegacyBindAdapter(context, items, repository));
+        scroll(new InventoryAdapter(context, items, repository));
+
+        double legacy = scroll(new LegacyBindAdapter(context, items, repository));
+        double owned = scroll(new InventoryAdapter(context, items, repository));
+
+        Log.i("Benchmark", String.format("bytes allocated per scroll frame over %d rows: listeners per bind %.0f, holder owned %.0f",
+                rows, legacy, owned));
+        assertTrue("holder owned listeners should allocate less while scrolling", owned < legacy);
+    }
+
+    @Test
+    public void rowsHaveStableIdsAndOneListenerEach() {
+        InventoryAdapter adapter = new InventoryAdapter(context, items, repository);
+        RecyclerView recyclerView = attach(adapter);
+
+        Set<View.OnClickListener> listeners = new HashSet<>();
+        instrumentation.runOnMainSync(() -> {
+            assertTrue(adapter.hasStableIds());
+            assertEquals(StableIds.forSku("SKU00000"), adapter.getItemId(0));
+            assertNotEquals(adapter.getItemId(0), adapter.getItemId(1));
+
+            // each holder keeps the listener it was created with however many items it binds
+            for (int frame = 0; frame < frames; frame++) {
+                recyclerView.scrollBy(0, pixelsPerFrame);
+                for (int i = 0; i < recyclerView.getChildCount(); i++) {
+                    InventoryViewHolder holder = (InventoryViewHolder) recyclerView.getChildViewHolder(recyclerView.getChildAt(i));
+                    listeners.add(holder.openListener);
+                }
+            }
+        });
+
+        int[] holders = new int[1];
+        instrumentation.runOnMainSync(() -> holders[0] = recyclerView.getChildCount());
+        assertTrue("listeners should only come from the few holders created", listeners.size() <= holders[0] + 10);
+    }
+
+    @Test
+    public void tapActsOnTheCurrentRow() {
+        DeleteOnTapAdapter adapter = new DeleteOnTapAdapter(context, items.subList(0, 50), repository);
+        RecyclerView recyclerView = attach(adapter);
+
+        // tap the top row twice through whichever holder sits at position 0, the second tap has to
+        // act on the row that moved up rather than the one its holder was first bound to
+        for (int i = 0; i < 2; i++) {
+            instrumentation.runOnMainSync(() -> recyclerView.findViewHolderForAdapterPosition(0).itemView.performClick());
+            waitForDiff(recyclerView);
+        }
+
+        instrumentation.runOnMainSync(() -> {
+            assertEquals("SKU00000", adapter.opened.get(0).getSku());
+            assertEquals("SKU00001", adapter.opened.get(1).getSku());
+            assertEquals(48, adapter.getItemCount());
+            assertEquals(StableIds.forSku("SKU00002"), adapter.getItemId(0));
+        });
+    }
+
+    /**
+     * Method to scroll a list frame by frame, laying it out each frame the way a vsync would
+     * @return Bytes allocated per frame
+     */
+    private double scroll(InventoryAdapter adapter) {
+        RecyclerView recyclerView = attach(adapter);
+
+        long[] allocated = new long[1];
+        instrumentation.runOnMainSync(() -> {
+            long before = allocatedBytes();
+            for (int frame = 0; frame < frames; frame++) recyclerView.scrollBy(0, pixelsPerFrame);
+            allocated[0] = allocatedBytes() - before;
+        });
+        return (double) allocated[0] / frames;
+    }
+
+    private RecyclerView attach(InventoryAdapter adapter) {
+        adapters.add(adapter);
+        RecyclerView[] view = new RecyclerView[1];
+        instrumentation.runOnMainSync(() -> {
+            RecyclerView recyclerView = new RecyclerView(context);
+            recyclerView.setItemAnimator(null);
+            recyclerView.setHasFixedSize(true);
+            recyclerView.setLayoutManager(new LinearLayoutManager(context));
+            recyclerView.setAdapter(adapter);
+            layout(recyclerView);
+            view[0] = recyclerView;
+        });
+        return view[0];
+    }
+
+    private void waitForDiff(RecyclerView recyclerView) {
+        // the diff is computed off the main thread, give it time to dispatch
+        android.os.SystemClock.sleep(300);
+        instrumentation.waitForIdleSync();
+        instrumentation.runOnMainSync(() -> layout(recyclerView));
+    }
+
+    // lays the list out offscreen at a phone sized viewport
+    private static void layout(RecyclerView recyclerView) {
+        recyclerView.measure(View.MeasureSpec.makeMeasureSpec(1080, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(1920, View.MeasureSpec.EXACTLY));
+        recyclerView.layout(0, 0, 1080, 1920);
+    }
+
+    // bytes the runtime has allocated so far, across all threads
+    private static long allocatedBytes() {
+        return Long.parseLong(Debug.getRuntimeStat("art.gc.bytes-allocated"));
+    }
+
+    // binds the way the adapter used to: a fresh listener per bind, capturing the bind-time position
+    private static class LegacyBindAdapter extends InventoryAdapter {
+        private final Context context;
+
+        LegacyBindAdapter(Context context, List<InventoryItem> items, InventoryRepository repository) {
+            super(context, items, repository);
+            this.context = context;
+        }
+
+        @Override
+        public void onBindViewHolder(InventoryViewHolder holder, int position) {
+            super.onBindViewHolder(holder, position);
+            holder.itemView.setOnClickListener(v -> Toast.makeText(context, "open " + position, Toast.LENGTH_SHORT).show());
+        }
+    }
+
+    // deletes the tapped row straight away instead of opening the editor, and remembers what was tapped
+    private static class DeleteOnTapAdapter extends InventoryAdapter {
+        final List<InventoryItem> opened = new ArrayList<>();
+
+        DeleteOnTapAdapter(Context context, List<InventoryItem> items, InventoryRepository repository) {
+            super(context, items, repository);
+        }
+
+        @Override
+        void openEditor(InventoryItem item) {
+            opened.add(item);
+            deleteItem(item);
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.warehouseapp.Activities.Adapters;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.util.Log;
+import android.view.ContextThemeWrapper;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.widget.EditText;
+import android.widget.FrameLayout;
+import android.widget.Toast;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.warehouseapp.R;
+import com.example.warehouseapp.Types.InventoryItem;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Measures the time to inflate and bind one inventory row, for the old editable card row (three EditTexts and
+ * two buttons, kept in the test resources) against the flat read-only row the list uses now.
+ */
+@RunWith(AndroidJUnit4.class)
+public class RowInflateBenchmark {
+
+    private static final int rows = 300;
+    private static final int widthPixels = 1080;
+
+    private Instrumentation instrumentation;
+    private Context appContext;
+    private Context testContext;
+    private List<InventoryItem> items;
+
+    @Before
+    public void setUp() {
+        instrumentation = InstrumentationRegistry.getInstrumentation();
+        appContext = new ContextThemeWrapper(instrumentation.getTargetContext(), R.style.Theme_WarehouseApp);
+        // the old layout lives in the test apk, so it has to be inflated with the test apk's resources
+        testContext = new ContextThemeWrapper(instrumentation.getContext(), android.R.style.Theme_DeviceDefault_Light);
+
+        items = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) items.add(new InventoryItem(String.format("SKU%05d", i), "Item " + i, i % 100));
+    }
+
+    @Test
+    public void readOnlyRowIsCheaperToInflateAndBind() {
+        // run each once to warm up the inflaters and the jit, then measure
+        long[] legacy = new long[2];
+        long[] flat = new long[2];
+        instrumentation.runOnMainSync(() -> {
+            measureLegacy();
+            measureFlat();
+            System.arraycopy(measureLegacy(), 0, legacy, 0, 2);
+            System.arraycopy(measureFlat(), 0, flat, 0, 2);
+        });
+
+        Log.i("Benchmark", String.format("per row over %d rows: editable card inflate %d us bind %d us, read-only inflate %d us bind %d us",
+                rows, legacy[0] / rows / 1000, legacy[1] / rows / 1000, flat[0] / rows / 1000, flat[1] / rows / 1000));
+        assertTrue("the read-only row should inflate faster", flat[0] < legacy[0]);
+        assertTrue("the read-only row should inflate and bind faster", flat[0] + flat[1] < legacy[0] + legacy[1]);
+    }
+
+    /**
+     * Method to inflate and bind rows of the old layout the way the adapter used to
+     * @return Total nanos spent inflating, then total nanos spent binding and laying out
+     */
+    private long[] measureLegacy() {
+        LayoutInflater inflater = LayoutInflater.from(testContext);
+        FrameLayout parent = new FrameLayout(testContext);
+        long inflate = 0;
+        long bind = 0;
+
+        for (int position = 0; position < rows; position++) {
+            long start = System.nanoTime();
+            View row = inflater.inflate(com.example.warehouseapp.test.R.layout.row_inventory_item_editable, parent, false);
+            EditText sku = row.findViewById(com.example.warehouseapp.test.R.id.tvSku);
+            EditText desc = row.findViewById(com.example.warehouseapp.test.R.id.tvDescription);
+            EditText quantity = row.findViewById(com.example.warehouseapp.test.R.id.tvQuantity);
+            View save = row.findViewById(com.example.warehouseapp.test.R.id.btnSave);
+            View delete = row.findViewById(com.example.warehouseapp.test.R.id.btnDelete);
+            long inflated = System.nanoTime();
+
+            InventoryItem item = items.get(position);
+            sku.setText(item.getSku());
+            desc.setText(item.getDesc());
+            quantity.setText(String.valueOf(item.getQuantity()));
+            int bound = position;
+            save.setOnClickListener(v -> Toast.makeText(testContext, "save " + bound, Toast.LENGTH_SHORT).show());
+            delete.setOnClickListener(v -> Toast.makeText(testContext, "delete " + bound, Toast.LENGTH_SHORT).show());
+            layout(row);
+
+            bind += System.nanoTime() - inflated;
+            inflate += inflated - start;
+        }
+
+        return new long[]{inflate, bind};
+    }
+
+    /**
+     * Method to inflate and bind rows of the read-only layout the way the adapter does now
+     * @return Total nanos spent inflating, then total nanos spent binding and laying out
+     */
+    private long[] measureFlat() {
+        LayoutInflater inflater = LayoutInflater.from(appContext);
+        FrameLayout parent = new FrameLayout(appContext);
+        long inflate = 0;
+        long bind = 0;
+
+        for (int position = 0; position < rows; position++) {
+            long start = System.nanoTime();
+            View row = inflater.inflate(R.layout.row_inventory_item, parent, false);
+            InventoryViewHolder holder = new InventoryViewHolder(row, (h, p) -> { });
+            long inflated = System.nanoTime();
+
+            // measuring waits for the precomputed text, so its cost is counted here too
+            holder.bind(items.get(position));
+            layout(row);
+
+            bind += System.nanoTime() - inflated;
+            inflate += inflated - start;
+        }
+
+        return new long[]{inflate, bind};
+    }
+
+    private static void layout(View row) {
+        row.measure(View.MeasureSpec.makeMeasureSpec(widthPixels, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+        row.layout(0, 0, row.getMeasuredWidth(), row.getMeasuredHeight());
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.warehouseapp.Database;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.warehouseapp.Types.InventoryItem;
+import com.example.warehouseapp.Types.StockAdjustment;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that quantity deltas from many threads at once are never lost.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AdjustQuantityTest {
+
+    private static final int threads = 8;
+    private static final int picksPerThread = 500;
+
+    private Context context;
+    private InventoryHelper helper;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        helper = new InventoryHelper(context);
+        TestDatabase.reset(WarehouseDatabase.getInstance(context));
+    }
+
+    @After
+    public void tearDown() {
+        TestDatabase.reset(WarehouseDatabase.getInstance(context));
+    }
+
+    @Test
+    public void concurrentPicksOnOneSkuAreNeverLost() throws InterruptedException {
+        int stock = threads * picksPerThread;
+        helper.insertOrUpdateItem(new InventoryItem("HOT", "Popular item", stock, 10));
+
+        // every pick sees a distinct quantity, so no two picks read-modify-wrote the same value
+        Set<Integer> seen = Collections.synchronizedSet(new HashSet<>());
+        List<Thread> pickers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread picker = new Thread(() -> {
+                for (int i = 0; i < picksPerThread; i++) seen.add(helper.adjustQuantity("HOT", -1));
+            });
+            pickers.add(picker);
+            picker.start();
+        }
+        for (Thread picker : pickers) picker.join();
+
+        assertEquals(stock, seen.size());
+        assertTrue(seen.contains(0));
+
+        InventoryItem item = helper.getItemsAfter(null, 1).get(0);
+        assertEquals(0, item.getQuantity());
+
+        // only the quantity was written, the rest of the row is untouched
+        assertEquals("Popular item", item.getDesc());
+        assertEquals(10, item.getReorderThreshold());
+    }
+
+    @Test
+    public void batchReturnsEachNewQuantity() {
+        helper.insertOrUpdateItems(Arrays.asList(new InventoryItem("A", "a", 5), new InventoryItem("B", "b", 1)));
+
+        List<Integer> quantities = helper.adjustQuantities(Arrays.asList(
+                new StockAdjustment("A", -2),
+                new StockAdjustment("MISSING", 4),
+                new StockAdjustment("B", 10),
+                new StockAdjustment("A", -3)));
+
+        assertEquals(Arrays.asList(3, null, 11, 0), quantities);
+    }
+
+    @Test
+    public void quantityChangesLeaveSearchIndexAlone() {
+        helper.insertOrUpdateItem(new InventoryItem("SKU1", "Box Brown", 3));
+        helper.adjustQuantity("SKU1", 5);
+
+        List<InventoryItem> found = helper.searchItems("box", 10);
+        assertEquals(1, found.size());
+        assertEquals(8, found.get(0).getQuantity());
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.warehouseapp.Database;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.warehouseapp.Types.InventoryItem;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares a pallet-sized bulk upsert against the per-item autocommit loop.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BulkUpsertBenchmark {
+
+    private static final int palletSize = 2000;
+
+    private Context context;
+    private InventoryHelper helper;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        helper = new InventoryHelper(context);
+        TestDatabase.reset(WarehouseDatabase.getInstance(context));
+    }
+
+    @After
+    public void tearDown() {
+        TestDatabase.reset(WarehouseDatabase.getInstance(context));
+    }
+
+    @Test
+    public void bulkUpsertReportsPerRowResults() {
+        List<InventoryItem> items = Arrays.asList(
+                new InventoryItem("A1", "first", 1),
+                new InventoryItem(null, "no sku", 2),
+                new InventoryItem("A1", "replaced", 3));
+
+        boolean[] results = helper.insertOrUpdateItems(items);
+
+        assertTrue(results[0]);
+        assertFalse(results[1]);
+        assertTrue(results[2]);
+
+        // the second write for A1 replaced the first
+        List<InventoryItem> stored = helper.getAllItems();
+        assertEquals(1, stored.size());
+        assertEquals("replaced", stored.get(0).getDesc());
+    }
+
+    @Test
+    public void bulkUpsertBeatsPerItemLoop() {
+        List<InventoryItem> loopItems = pallet("LOOP");
+        List<InventoryItem> bulkItems = pallet("BULK");
+
+        // one autocommit per item
+        long start = System.nanoTime();
+        for (InventoryItem item : loopItems) {
+            helper.insertOrUpdateItem(item);
+        }
+        long loopNanos = System.nanoTime() - start;
+
+        // one transaction for the whole pallet
+        start = System.nanoTime();
+        boolean[] results = helper.insertOrUpdateItems(bulkItems);
+        long bulkNanos = System.nanoTime() - start;
+
+        for (boolean result : results) assertTrue(result);
+        assertEquals(palletSize * 2, helper.getAllItems().size());
+
+        Log.i("Benchmark", String.format("%d items: per-item loop %d ms, bulk %d ms",
+                palletSize, loopNanos / 1_000_000, bulkNanos / 1_000_000));
+
+        assertTrue("bulk upsert should beat the per-item loop", bulkNanos < loopNanos);
+    }
+
+    private static List<InventoryItem> pallet(String prefix) {
+        List<InventoryItem> items = new ArrayList<>(palletSize);
+        for (int i = 0; i < palletSize; i++) {
+            items.add(new InventoryItem(prefix + i, "Pallet item " + i, i % 50));
+        }
+        return items;
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.warehouseapp.Database;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.warehouseapp.Types.InventoryItem;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs writer threads saving quantities alongside reader threads paging the list, first with the old rollback
+ * journal and then in WAL mode, and reports p50/p99 latency for each side.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ConcurrencyBenchmark {
+
+    private static final String rollbackName = "concurrency_rollback.db";
+    private static final String walName = "concurrency_wal.db";
+
+    private static final int rows = 5_000;
+    private static final int writers = 2;
+    private static final int readers = WarehouseDatabase.readerConnections;
+    private static final long runMillis = 3_000;
+
+    private Context context;
+    private final List<WarehouseDatabase> opened = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(rollbackName);
+        context.deleteDatabase(walName);
+    }
+
+    @After
+    public void tearDown() {
+        for (WarehouseDatabase database : opened) database.close();
+        context.deleteDatabase(rollbackName);
+        context.deleteDatabase(walName);
+    }
+
+    @Test
+    public void walKeepsReadsFastUnderWrites() throws InterruptedException {
+        WarehouseDatabase rollback = new WarehouseDatabase(context, rollbackName);
+        rollback.setWriteAheadLoggingEnabled(false);
+        Latencies before = run(rollback);
+
+        Latencies after = run(new WarehouseDatabase(context, walName));
+
+        Log.i("Benchmark", String.format("%d writers, %d readers. rollback journal: %s. WAL: %s", writers, readers, before, after));
+
+        assertTrue("WAL should cut the slowest reads", after.readP99 < before.readP99);
+    }
+
+    /**
+     * Method to seed a database and hammer it from both sides for a few seconds
+     */
+    private Latencies run(WarehouseDatabase database) throws InterruptedException {
+        opened.add(database);
+        InventoryHelper helper = new InventoryHelper(database);
+
+        List<InventoryItem> seed = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) seed.add(new InventoryItem(sku(i), "Item " + i, i % 40));
+        helper.insertOrUpdateItems(seed);
+
+        long deadline = System.nanoTime() + runMillis * 1_000_000;
+        List<long[]> writeTimes = new ArrayList<>();
+        List<long[]> readTimes = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(writers + readers);
+
+        for (int t = 0; t < writers + readers; t++) {
+            boolean writer = t < writers;
+            long[] samples = new long[200_000];
+            (writer ? writeTimes : readTimes).add(samples);
+
+            int seedValue = t;
+            new Thread(() -> {
+                Random random = new Random(seedValue);
+                int count = 0;
+                while (System.nanoTime() < deadline && count < samples.length - 1) {
+                    long start = System.nanoTime();
+                    if (writer) {
+                        // a scanner adjusting one item's quantity
+                        helper.insertOrUpdateItem(new InventoryItem(sku(random.nextInt(rows)), "Scanned", random.nextInt(100)));
+                    } else {
+                        // the list paging in rows as the user scrolls
+                        helper.getItemsAfter(sku(random.nextInt(rows)), 50);
+                    }
+                    samples[++count] = System.nanoTime() - start;
+                }
+                samples[0] = count;
+                done.countDown();
+            }).start();
+        }
+
+        done.await();
+        return new Latencies(writeTimes, readTimes);
+    }
+
+    private static String sku(int i) {
+        return String.format("SKU%05d", i);
+    }
+
+    /**
+     * p50/p99 of each side, slot 0 of every sample array holds how many samples follow it
+     */
+    private static final class Latencies {
+        final double writeP50, writeP99, readP50, readP99;
+        final int writeCount, readCount;
+
+        Latencies(List<long[]> writes, List<long[]> reads) {
+            long[] w = merge(writes), r = merge(reads);
+            writeCount = w.length;
+            readCount = r.length;
+            writeP50 = percentile(w, 50);
+            writeP99 = percentile(w, 99);
+            readP50 = percentile(r, 50);
+            readP99 = percentile(r, 99);
+        }
+
+        private static long[] merge(List<long[]> samples) {
+            int total = 0;
+            for (long[] s : samples) total += (int) s[0];
+
+            long[] merged = new long[total];
+            int at = 0;
+            for (long[] s : samples) {
+                System.arraycopy(s, 1, merged, at, (int) s[0]);
+                at += (int) s[0];
+            }
+            Arrays.sort(merged);
+            return merged;
+        }
+
+        private static double percentile(long[] sorted, int p) {
+            if (sorted.length == 0) return 0;
+            return sorted[Math.min(sorted.length - 1, sorted.length * p / 100)] / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("writes %,d p50 %.2f ms p99 %.2f ms, reads %,d p50 %.2f ms p99 %.2f ms",
+                    writeCount, writeP50, writeP99, readCount, readP50, readP99);
+        }
+    }
+}
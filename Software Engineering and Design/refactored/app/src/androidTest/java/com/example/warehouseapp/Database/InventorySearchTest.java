@@ -0,0 +1,82 @@
+package com.example.warehouseapp.Database;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.warehouseapp.Types.InventoryItem;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the full-text index follows every write to the inventory table.
+ */
+@RunWith(AndroidJUnit4.class)
+public class InventorySearchTest {
+
+    private Context context;
+    private InventoryHelper helper;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        helper = new InventoryHelper(context);
+        TestDatabase.reset(WarehouseDatabase.getInstance(context));
+    }
+
+    @After
+    public void tearDown() {
+        TestDatabase.reset(WarehouseDatabase.getInstance(context));
+    }
+
+    @Test
+    public void matchExpressionKeepsOnlyWords() {
+        assertEquals("box* 12x12*", InventoryHelper.toMatchExpression("Box 12x12"));
+        assertEquals("a* b*", InventoryHelper.toMatchExpression("\"a\" OR -b*"));
+        assertEquals("", InventoryHelper.toMatchExpression("  !!  "));
+    }
+
+    @Test
+    public void searchFollowsInsertReplaceAndDelete() {
+        helper.insertOrUpdateItems(Arrays.asList(
+                new InventoryItem("SKU100", "Box 12x12 Brown", 4),
+                new InventoryItem("SKU200", "Tape Clear", 9),
+                new InventoryItem("BOX1", "Carton", 1)));
+
+        assertEquals(2, helper.searchItems("box", 10).size());
+
+        // a replace must drop the old description from the index
+        helper.insertOrUpdateItem(new InventoryItem("SKU100", "Pallet Wrap", 4));
+        List<InventoryItem> boxes = helper.searchItems("box", 10);
+        assertEquals(1, boxes.size());
+        assertEquals("BOX1", boxes.get(0).getSku());
+        assertEquals(1, helper.searchItems("wrap", 10).size());
+
+        helper.deleteItem("SKU200");
+        assertTrue(helper.searchItems("tape", 10).isEmpty());
+    }
+
+    @Test
+    public void skuMatchesRankFirstAndLimitApplies() {
+        helper.insertOrUpdateItems(Arrays.asList(
+                new InventoryItem("A1", "for tape guns", 1),
+                new InventoryItem("TAPE2", "Clear", 1),
+                new InventoryItem("TAPE", "Brown", 1)));
+
+        List<InventoryItem> results = helper.searchItems("tape", 10);
+        assertEquals("TAPE", results.get(0).getSku());
+        assertEquals("TAPE2", results.get(1).getSku());
+        assertEquals("A1", results.get(2).getSku());
+
+        assertEquals(1, helper.searchItems("tape", 1).size());
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.warehouseapp.Database;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.warehouseapp.Types.InventoryItem;
+import com.example.warehouseapp.Types.InventoryTotals;
+import com.example.warehouseapp.Types.StockAdjustment;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the trigger-maintained totals against a full scan under concurrent writes, and times reading them.
+ */
+@RunWith(AndroidJUnit4.class)
+public class InventoryTotalsTest {
+
+    private static final int writers = 6;
+    private static final int writesPerThread = 1_000;
+    private static final int skus = 200;
+    private static final int benchmarkRows = 100_000;
+
+    private Context context;
+    private InventoryHelper helper;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        helper = new InventoryHelper(context);
+        TestDatabase.reset(WarehouseDatabase.getInstance(context));
+    }
+
+    @After
+    public void tearDown() {
+        TestDatabase.reset(WarehouseDatabase.getInstance(context));
+    }
+
+    @Test
+    public void totalsMatchFullScanAfterConcurrentWrites() throws InterruptedException {
+        assertEquals(new InventoryTotals(0, 0, 0), helper.getTotals());
+
+        // saves, deltas, bulk upserts and deletes from several threads, all against a small set of skus so they collide
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < writers; t++) {
+            int seed = t;
+            Thread writer = new Thread(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < writesPerThread; i++) {
+                    String sku = "TOT" + random.nextInt(skus);
+                    int action = random.nextInt(10);
+                    if (action < 3) {
+                        helper.insertOrUpdateItem(new InventoryItem(sku, "Totals", random.nextInt(6) - 1));
+                    } else if (action < 7) {
+                        helper.adjustQuantities(Collections.singletonList(new StockAdjustment(sku, random.nextInt(5) - 2)));
+                    } else if (action < 9) {
+                        helper.insertOrUpdateItems(Collections.singletonList(new InventoryItem(sku, "Totals bulk", random.nextInt(4))));
+                    } else {
+                        helper.deleteItem(sku);
+                    }
+                }
+            });
+            threads.add(writer);
+            writer.start();
+        }
+        for (Thread writer : threads) writer.join();
+
+        assertEquals(scan(), helper.getTotals());
+        assertEquals(helper.getAllItems().size(), helper.getItemCount());
+    }
+
+    @Test
+    public void totalsReadFasterThanScanning() {
+        List<InventoryItem> items = new ArrayList<>(benchmarkRows);
+        for (int i = 0; i < benchmarkRows; i++) items.add(new InventoryItem(String.format("TOT%06d", i), "Totals " + i, i % 50));
+        helper.insertOrUpdateItems(items);
+
+        // what a dashboard had to do before: load everything and add it up
+        long start = System.nanoTime();
+        InventoryTotals scanned = scan();
+        long scanNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        InventoryTotals totals = helper.getTotals();
+        long readNanos = System.nanoTime() - start;
+
+        Log.i("Benchmark", String.format("totals over %d rows: full scan %.2f ms, totals row %.1f us",
+                benchmarkRows, scanNanos / 1e6, readNanos / 1e3));
+
+        assertEquals(scanned, totals);
+        assertTrue("reading the totals row should beat scanning the table", readNanos < scanNanos);
+    }
+
+    // the totals worked out from every row
+    private InventoryTotals scan() {
+        long units = 0;
+        int outOfStock = 0;
+        List<InventoryItem> items = helper.getAllItems();
+        for (InventoryItem item : items) {
+            units += item.getQuantity();
+            if (item.getQuantity() <= 0) outOfStock++;
+        }
+        return new InventoryTotals(units, items.size(), outOfStock);
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.warehouseapp.Database;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.warehouseapp.Types.InventoryItem;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that getItem's cache counts hits and misses, is invalidated by every write path, and never
+ * serves an item older than one already read while writers and readers run at the same time.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ItemCacheTest {
+
+    private static final int hotSkus = 8;
+    private static final int writers = 4;
+    private static final int readers = 4;
+    private static final int picksPerWriter = 500;
+
+    private Context context;
+    private WarehouseDatabase database;
+    private InventoryHelper helper;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        database = WarehouseDatabase.getInstance(context);
+        helper = new InventoryHelper(context);
+        clear();
+    }
+
+    @After
+    public void tearDown() {
+        clear();
+    }
+
+    @Test
+    public void repeatedLookupsHitTheCache() {
+        helper.insertOrUpdateItem(new InventoryItem("A", "a", 5));
+        ItemCache cache = helper.getItemCache();
+        int hits = cache.hitCount();
+        int misses = cache.missCount();
+
+        assertEquals(5, helper.getItem("A").getQuantity());
+        for (int i = 0; i < 10; i++) assertEquals(5, helper.getItem("A").getQuantity());
+
+        assertEquals(misses + 1, cache.missCount());
+        assertEquals(hits + 10, cache.hitCount());
+
+        // unknown skus aren't cached, but still count as misses
+        assertNull(helper.getItem("MISSING"));
+        assertEquals(misses + 2, cache.missCount());
+    }
+
+    @Test
+    public void everyWritePathInvalidates() {
+        helper.insertOrUpdateItem(new InventoryItem("A", "a", 5));
+        assertEquals(5, helper.getItem("A").getQuantity());
+
+        helper.insertOrUpdateItem(new InventoryItem("A", "renamed", 5));
+        assertEquals("renamed", helper.getItem("A").getDesc());
+
+        helper.adjustQuantity("A", -2);
+        assertEquals(3, helper.getItem("A").getQuantity());
+
+        helper.insertOrUpdateItems(Arrays.asList(new InventoryItem("A", "batch", 7), new InventoryItem("B", "b", 1)));
+        assertEquals(7, helper.getItem("A").getQuantity());
+
+        new ImportHelper(database).writeChunk("test", Collections.singletonList(new InventoryItem("A", "imported", 9)), 0, 0);
+        assertEquals("imported", helper.getItem("A").getDesc());
+
+        // a second helper on the same file shares the cache, its write is seen through the first
+        new InventoryHelper(context).deleteItem("A");
+        assertNull(helper.getItem("A"));
+        new ImportHelper(database).clearCheckpoint("test");
+    }
+
+    @Test
+    public void concurrentReadsNeverGoBackInTime() throws InterruptedException {
+        List<InventoryItem> items = new ArrayList<>();
+        for (int i = 0; i < hotSkus; i++) items.add(new InventoryItem("HOT" + i, "Hot item " + i, 0));
+        helper.insertOrUpdateItems(items);
+
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicReference<String> failure = new AtomicReference<>();
+
+        // quantities only go up, so a reader seeing one lower than it saw before got a stale cached item
+        List<Thread> readerThreads = new ArrayList<>();
+        for (int r = 0; r < readers; r++) {
+            Thread reader = new Thread(() -> {
+                Random random = new Random();
+                int[] seen = new int[hotSkus];
+                while (writing.get()) {
+                    int i = random.nextInt(hotSkus);
+                    int quantity = helper.getItem("HOT" + i).getQuantity();
+                    if (quantity < seen[i]) failure.compareAndSet(null, "HOT" + i + " went from " + seen[i] + " to " + quantity);
+                    seen[i] = quantity;
+                }
+            });
+            readerThreads.add(reader);
+            reader.start();
+        }
+
+        List<Thread> writerThreads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            int offset = w;
+            Thread writer = new Thread(() -> {
+                for (int i = 0; i < picksPerWriter; i++) helper.adjustQuantity("HOT" + ((i + offset) % hotSkus), 1);
+            });
+            writerThreads.add(writer);
+            writer.start();
+        }
+        for (Thread writer : writerThreads) writer.join();
+        writing.set(false);
+        for (Thread reader : readerThreads) reader.join();
+
+        assertNull(failure.get(), failure.get());
+
+        // once the writers are done the cache agrees with the table
+        Map<String, InventoryItem> stored = new HashMap<>();
+        for (InventoryItem item : helper.getAllItems()) stored.put(item.getSku(), item);
+        for (int i = 0; i < hotSkus; i++) {
+            assertEquals(writers * picksPerWriter / hotSkus, stored.get("HOT" + i).getQuantity());
+            assertEquals(stored.get("HOT" + i), helper.getItem("HOT" + i));
+        }
+    }
+
+    private void clear() {
+        // every lookup here should reach the cache, not be turned away by a sku filter another test built
+        TestDatabase.reset(database);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.warehouseapp.Database;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.warehouseapp.Types.InventoryItem;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that streaming the table visits every row once, in sku order, across chunk boundaries.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ItemStreamTest {
+
+    // a few chunks plus a partial one
+    private static final int rows = 2_500;
+
+    private Context context;
+    private InventoryHelper helper;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        helper = new InventoryHelper(context);
+        TestDatabase.reset(WarehouseDatabase.getInstance(context));
+
+        // inserted out of order so sku order differs from rowid order
+        List<InventoryItem> items = new ArrayList<>();
+        for (int i = rows - 1; i >= 0; i--) items.add(new InventoryItem(String.format("SKU%05d", i), "Item " + i, i % 40, i % 7));
+        helper.insertOrUpdateItems(items);
+    }
+
+    @After
+    public void tearDown() {
+        TestDatabase.reset(WarehouseDatabase.getInstance(context));
+    }
+
+    @Test
+    public void forEachItemMatchesGetAllItems() {
+        List<InventoryItem> streamed = new ArrayList<>();
+        helper.forEachItem(streamed::add);
+
+        List<InventoryItem> all = helper.getAllItems();
+        all.sort(Comparator.comparing(InventoryItem::getSku));
+
+        assertEquals(all, streamed);
+    }
+
+    @Test
+    public void forEachRowReusesOneRow() {
+        Set<InventoryRow> instances = new HashSet<>();
+        List<String> skus = new ArrayList<>();
+
+        helper.forEachRow(row -> {
+            instances.add(row);
+            skus.add(row.getSku());
+        });
+
+        assertEquals(1, instances.size());
+        assertEquals(rows, skus.size());
+        for (int i = 0; i < rows; i++) assertEquals(String.format("SKU%05d", i), skus.get(i));
+    }
+
+    @Test
+    public void emptyTableVisitsNothing() {
+        TestDatabase.reset(WarehouseDatabase.getInstance(context));
+
+        int[] visited = {0};
+        helper.forEachRow(row -> visited[0]++);
+        assertEquals(0, visited[0]);
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.warehouseapp.Database;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.warehouseapp.Types.InventoryItem;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the low and out of stock queries, and times them against a full table scan at a million rows.
+ */
+@RunWith(AndroidJUnit4.class)
+public class LowStockQueryBenchmark {
+
+    private static final int rows = 1_000_000;
+    private static final int batchSize = 10_000;
+
+    private Context context;
+    private InventoryHelper helper;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        helper = new InventoryHelper(context);
+        TestDatabase.reset(WarehouseDatabase.getInstance(context));
+    }
+
+    @After
+    public void tearDown() {
+        TestDatabase.reset(WarehouseDatabase.getInstance(context));
+    }
+
+    @Test
+    public void queriesFollowThresholds() {
+        List<InventoryItem> items = new ArrayList<>();
+        items.add(new InventoryItem("EMPTY", "none left", 0, 5));
+        items.add(new InventoryItem("LOW", "under threshold", 3, 5));
+        items.add(new InventoryItem("EDGE", "at threshold", 5, 5));
+        items.add(new InventoryItem("FINE", "plenty", 50, 5));
+        items.add(new InventoryItem("NONE", "no threshold", 1));
+        helper.insertOrUpdateItems(items);
+
+        // lowest stock relative to its threshold first
+        assertEquals(List.of("EMPTY", "LOW", "EDGE"), skus(helper.getLowStockItems()));
+        assertEquals(List.of("EMPTY"), skus(helper.getOutOfStockItems()));
+
+        // the threshold survives a save
+        helper.insertOrUpdateItem(new InventoryItem("FINE", "plenty", 4, 5));
+        assertEquals(4, skus(helper.getLowStockItems()).size());
+    }
+
+    @Test
+    public void indexedQueryBeatsFullScan() {
+        // roughly one row in 170 is at or below its threshold
+        List<InventoryItem> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < rows; i++) {
+            batch.add(new InventoryItem(String.format("SKU%07d", i), "Item " + i, i % 1000, 5));
+            if (batch.size() == batchSize) {
+                helper.insertOrUpdateItems(batch);
+                batch.clear();
+            }
+        }
+
+        SQLiteDatabase db = WarehouseDatabase.getInstance(context).getDatabase();
+
+        // what callers had to do before: read every row and check it
+        long start = System.nanoTime();
+        int scanned = 0;
+        try (ItemCursor cursor = new ItemCursor(db.rawQuery("SELECT * FROM " + InventoryHelper.table + " NOT INDEXED", null))) {
+            while (cursor.moveToNext()) {
+                if (cursor.getQuantity() <= cursor.getReorderThreshold()) scanned++;
+            }
+        }
+        long scanNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int indexed = 0;
+        try (ItemCursor cursor = helper.getLowStockItems()) {
+            while (cursor.moveToNext()) indexed++;
+        }
+        long indexNanos = System.nanoTime() - start;
+
+        assertEquals(scanned, indexed);
+        Log.i("Benchmark", String.format("%,d rows, %,d low: full scan %.1f ms, index %.1f ms",
+                rows, indexed, scanNanos / 1e6, indexNanos / 1e6));
+
+        // the plan must actually use the expression index
+        try (Cursor plan = db.rawQuery("EXPLAIN QUERY PLAN SELECT * FROM " + InventoryHelper.table +
+                " WHERE quantity - reorder_threshold <= 0 ORDER BY quantity - reorder_threshold ASC", null)) {
+            assertTrue(plan.moveToFirst());
+            assertTrue(plan.getString(plan.getColumnIndexOrThrow("detail")).contains("inventory_stock_level"));
+        }
+
+        assertTrue("the index should beat scanning the table", indexNanos < scanNanos);
+    }
+
+    private static List<String> skus(ItemCursor cursor) {
+        List<String> skus = new ArrayList<>();
+        try (cursor) {
+            while (cursor.moveToNext()) skus.add(cursor.getSku());
+        }
+        return skus;
+    }
+}
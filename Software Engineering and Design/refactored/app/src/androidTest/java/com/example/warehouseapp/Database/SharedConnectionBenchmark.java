@@ -0,0 +1,83 @@
+package com.example.warehouseapp.Database;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.warehouseapp.Types.InventoryItem;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares save latency of the old open/save/close pattern against the shared connection.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SharedConnectionBenchmark {
+
+    private static final int saves = 500;
+
+    private Context context;
+    private InventoryHelper helper;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        helper = new InventoryHelper(context);
+        TestDatabase.reset(WarehouseDatabase.getInstance(context));
+    }
+
+    @After
+    public void tearDown() {
+        TestDatabase.reset(WarehouseDatabase.getInstance(context));
+    }
+
+    @Test
+    public void sharedConnectionSavesFasterThanReopening() {
+        String path = context.getDatabasePath("warehouse_inventory.db").getPath();
+
+        // warm up both paths so the first open does not skew the numbers
+        helper.insertOrUpdateItem(new InventoryItem("WARM", "warm up", 1));
+        reopenAndSave(path, new InventoryItem("WARM", "warm up", 1));
+
+        // old behaviour: open the file, write one row, close it again
+        long start = System.nanoTime();
+        for (int i = 0; i < saves; i++) {
+            reopenAndSave(path, new InventoryItem("OLD" + i, "reopen", i));
+        }
+        long reopenNanos = System.nanoTime() - start;
+
+        // new behaviour: every save goes through the one open connection
+        start = System.nanoTime();
+        for (int i = 0; i < saves; i++) {
+            assertTrue(helper.insertOrUpdateItem(new InventoryItem("NEW" + i, "shared", i)));
+        }
+        long sharedNanos = System.nanoTime() - start;
+
+        Log.i("Benchmark", String.format("per save: reopen %.1f us, shared %.1f us",
+                reopenNanos / 1000.0 / saves, sharedNanos / 1000.0 / saves));
+
+        assertTrue("shared connection should beat reopening per save", sharedNanos < reopenNanos);
+    }
+
+    // mirrors what insertOrUpdateItem used to do before the connection was shared
+    private static void reopenAndSave(String path, InventoryItem item) {
+        SQLiteDatabase db = SQLiteDatabase.openDatabase(path, null, SQLiteDatabase.OPEN_READWRITE);
+
+        ContentValues values = new ContentValues();
+        values.put(InventoryHelper.skuColumn, item.getSku());
+        values.put(InventoryHelper.descColumn, item.getDesc());
+        values.put(InventoryHelper.quantColumn, item.getQuantity());
+        db.insertWithOnConflict(InventoryHelper.table, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+
+        db.close();
+    }
+}
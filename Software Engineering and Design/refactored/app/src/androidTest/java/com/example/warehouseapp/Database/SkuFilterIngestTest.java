@@ -0,0 +1,117 @@
+package com.example.warehouseapp.Database;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.warehouseapp.Types.InventoryItem;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Scan ingest against the sku filter: stocked skus are always found, including ones saved after the filter
+ * was built, and unknown skus are turned away without a query.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SkuFilterIngestTest {
+
+    private static final int stocked = 20_000;
+    private static final int foreignScans = 20_000;
+
+    private WarehouseDatabase database;
+    private InventoryHelper helper;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        database = WarehouseDatabase.getInstance(context);
+        helper = new InventoryHelper(context);
+        clear();
+
+        List<InventoryItem> items = new ArrayList<>(stocked);
+        for (int i = 0; i < stocked; i++) items.add(new InventoryItem(String.format("SKU%06d", i), "Item " + i, 1));
+        helper.insertOrUpdateItems(items);
+        helper.buildSkuFilter();
+    }
+
+    @After
+    public void tearDown() {
+        clear();
+    }
+
+    @Test
+    public void unknownSkusSkipTheDatabase() {
+        int misses = helper.getItemCache().missCount();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < foreignScans; i++) {
+            if (helper.hasItem(String.format("EXT%06d", i))) fail("EXT" + i + " isn't stocked");
+        }
+        long filtered = System.nanoTime() - start;
+
+        // every scan that got past the filter went on to the cache and missed, the rest never got that far
+        int passed = helper.getItemCache().missCount() - misses;
+        double rate = (double) passed / foreignScans;
+        Log.i("Benchmark", String.format("%d foreign scans: %.1f us each, %.4f reached sqlite", foreignScans,
+                filtered / 1000.0 / foreignScans, rate));
+        assertTrue("false positive rate " + rate, rate < WarehouseDatabase.skuFilterFalsePositiveRate * 2);
+
+        for (int i = 0; i < stocked; i += 97) assertTrue(helper.hasItem(String.format("SKU%06d", i)));
+    }
+
+    @Test
+    public void savesAfterTheBuildAreFound() {
+        helper.insertOrUpdateItem(new InventoryItem("NEW1", "New item", 3));
+        assertTrue(helper.hasItem("NEW1"));
+
+        helper.deleteItem("NEW1");
+        assertFalse(helper.hasItem("NEW1"));
+    }
+
+    @Test
+    public void enoughDeletesTriggerARebuild() {
+        SkuFilter built = database.getSkuFilter();
+        assertFalse(helper.buildSkuFilterIfNeeded());
+
+        // a tenth of the filter's room deleted makes it stale
+        for (int i = 0; i <= built.getExpectedSkus() / 10; i++) helper.deleteItem(String.format("SKU%06d", i));
+        assertTrue(built.isStale());
+
+        assertTrue(helper.buildSkuFilterIfNeeded());
+        assertNotSame(built, database.getSkuFilter());
+        assertFalse(helper.hasItem("SKU000000"));
+        assertTrue(helper.hasItem(String.format("SKU%06d", stocked - 1)));
+    }
+
+    @Test
+    public void savesDuringARebuildAreFound() throws Exception {
+        // the rebuild scans on its own thread while saves keep landing, some before the pass reaches them and some after
+        Thread rebuild = new Thread(helper::buildSkuFilter);
+        rebuild.start();
+        List<String> saved = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            String sku = String.format("SKU%06d", i * 40 + 1) + "B";
+            helper.insertOrUpdateItem(new InventoryItem(sku, "During rebuild", 1));
+            saved.add(sku);
+        }
+        rebuild.join();
+
+        assertNull(database.getBuildingSkuFilter());
+        SkuFilter filter = database.getSkuFilter();
+        for (String sku : saved) assertTrue(sku, filter.mightContain(sku));
+    }
+
+    private void clear() {
+        TestDatabase.reset(database);
+    }
+}
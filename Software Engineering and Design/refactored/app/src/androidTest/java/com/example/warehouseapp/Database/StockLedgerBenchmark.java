@@ -0,0 +1,168 @@
+package com.example.warehouseapp.Database;
+
+import android.content.Context;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.warehouseapp.Types.InventoryItem;
+import com.example.warehouseapp.Types.StockAdjustment;
+import com.example.warehouseapp.Types.StockMovement;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Measures stock ledger appends, and point-in-time quantities read from snapshots against summing the whole ledger.
+ */
+@RunWith(AndroidJUnit4.class)
+public class StockLedgerBenchmark {
+
+    private static final int skus = 10;
+    private static final int singleAppends = 2_000;
+    private static final int batches = 100;
+    private static final int batchSize = 1_000;
+
+    private Context context;
+    private InventoryHelper helper;
+    private StockLedgerHelper ledger;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        helper = new InventoryHelper(context);
+        ledger = new StockLedgerHelper(context);
+        clear();
+    }
+
+    @After
+    public void tearDown() {
+        clear();
+    }
+
+    @Test
+    public void appendsAndPointInTimeQueries() throws InterruptedException {
+        int[] quantities = new int[skus];
+        for (int s = 0; s < skus; s++) {
+            quantities[s] = 100;
+            helper.insertOrUpdateItem(new InventoryItem(sku(s), "Ledger item " + s, quantities[s]));
+        }
+        Random random = new Random(17);
+
+        // one transaction per movement, the way a scanner logs a single pick
+        long start = System.nanoTime();
+        for (int i = 0; i < singleAppends; i++) {
+            int s = random.nextInt(skus);
+            int delta = random.nextInt(11) - 5;
+            helper.adjustQuantities(Collections.singletonList(new StockAdjustment(sku(s), delta, "pick", "bench")));
+            quantities[s] += delta;
+        }
+        long singleNanos = System.nanoTime() - start;
+
+        // a pick list per transaction, remembering the true quantities after each one
+        long[] marks = new long[batches];
+        int[][] expected = new int[batches][];
+        long batchNanos = 0;
+        for (int b = 0; b < batches; b++) {
+            List<StockAdjustment> batch = new ArrayList<>(batchSize);
+            for (int i = 0; i < batchSize; i++) {
+                int s = random.nextInt(skus);
+                int delta = random.nextInt(11) - 5;
+                batch.add(new StockAdjustment(sku(s), delta, "pick", "bench"));
+                quantities[s] += delta;
+            }
+
+            start = System.nanoTime();
+            helper.adjustQuantities(batch);
+            ledger.compactIfDue();
+            batchNanos += System.nanoTime() - start;
+
+            // movements are stamped in millis, keep the marks apart from the next batch
+            Thread.sleep(2);
+            marks[b] = System.currentTimeMillis();
+            expected[b] = quantities.clone();
+            Thread.sleep(2);
+        }
+
+        Log.i("Benchmark", String.format("ledger append: single %.1f us, batched %.2f us per movement",
+                singleNanos / 1000.0 / singleAppends, batchNanos / 1000.0 / (batches * batchSize)));
+
+        // the stored quantity is the running total of the ledger
+        for (InventoryItem item : helper.getAllItems()) {
+            assertEquals(quantities[Integer.parseInt(item.getSku().substring(6))], item.getQuantity());
+        }
+
+        // the point-in-time answer matches what was stored at each mark, from snapshots or from the whole ledger
+        SQLiteDatabase db = WarehouseDatabase.getInstance(context).getDatabase();
+        long snapshotNanos = 0;
+        long fullNanos = 0;
+        for (int b = 0; b < batches; b++) {
+            for (int s = 0; s < skus; s++) {
+                start = System.nanoTime();
+                int fromSnapshot = ledger.getQuantityAt(sku(s), marks[b]);
+                snapshotNanos += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                long fromLedger = DatabaseUtils.longForQuery(db, "SELECT coalesce(sum(delta), 0) FROM " + StockLedgerHelper.movementsTable
+                        + " WHERE sku = ? AND created_at <= ?", new String[]{sku(s), String.valueOf(marks[b])});
+                fullNanos += System.nanoTime() - start;
+
+                assertEquals(expected[b][s], fromSnapshot);
+                assertEquals(expected[b][s], fromLedger);
+            }
+        }
+
+        int queries = batches * skus;
+        Log.i("Benchmark", String.format("quantity at time: snapshot + tail %.1f us, whole ledger %.1f us",
+                snapshotNanos / 1000.0 / queries, fullNanos / 1000.0 / queries));
+        assertTrue("snapshots should beat summing the whole history", snapshotNanos < fullNanos);
+
+        // history reads back in order with who and why
+        List<StockMovement> movements = ledger.getMovements(sku(0), 0, Long.MAX_VALUE);
+        assertEquals("set", movements.get(0).getReason());
+        assertEquals("bench", movements.get(movements.size() - 1).getUser());
+    }
+
+    @Test
+    public void failedUpsertLeavesNoLedgerRow() {
+        SQLiteDatabase db = WarehouseDatabase.getInstance(context).getDatabase();
+        helper.insertOrUpdateItem(new InventoryItem(sku(0), "Ledger item", 10));
+
+        // the ledger append runs before the upsert, which this trigger then rejects
+        db.execSQL(String.format("CREATE TEMP TRIGGER reject_upsert BEFORE INSERT ON %s WHEN new.sku = '%s' "
+                + "BEGIN SELECT RAISE(ABORT, 'rejected'); END", InventoryHelper.table, sku(1)));
+        boolean[] results;
+        try {
+            results = helper.insertOrUpdateItems(Arrays.asList(new InventoryItem(sku(0), "Ledger item", 12), new InventoryItem(sku(1), "Rejected", 5)));
+        } finally {
+            db.execSQL("DROP TRIGGER IF EXISTS reject_upsert");
+        }
+
+        assertTrue(results[0]);
+        assertFalse(results[1]);
+        assertTrue(ledger.getMovements(sku(1), 0, Long.MAX_VALUE).isEmpty());
+        assertEquals(12, ledger.getQuantityAt(sku(0), Long.MAX_VALUE));
+        assertEquals(12, helper.getItem(sku(0)).getQuantity());
+    }
+
+    private void clear() {
+        TestDatabase.reset(WarehouseDatabase.getInstance(context));
+    }
+
+    private static String sku(int i) {
+        return String.format("LEDGER%02d", i);
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.warehouseapp.Database;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.warehouseapp.Types.InventoryItem;
+import com.example.warehouseapp.Types.StockAdjustment;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the in-memory stock levels follow every write path, and agree with the table afterwards.
+ */
+@RunWith(AndroidJUnit4.class)
+public class StockLevelsSyncTest {
+
+    private WarehouseDatabase database;
+    private InventoryHelper helper;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        database = WarehouseDatabase.getInstance(context);
+        helper = new InventoryHelper(context);
+        clear();
+
+        helper.insertOrUpdateItems(Arrays.asList(new InventoryItem("A", "a", 5), new InventoryItem("B", "b", 2)));
+        assertTrue(helper.loadStockLevelsIfNeeded());
+        assertFalse(helper.loadStockLevelsIfNeeded());
+    }
+
+    @After
+    public void tearDown() {
+        clear();
+    }
+
+    @Test
+    public void everyWritePathIsApplied() {
+        assertEquals(5, helper.getQuantity("A", -1));
+        assertEquals(-1, helper.getQuantity("NOPE", -1));
+
+        helper.insertOrUpdateItem(new InventoryItem("C", "c", 9));
+        assertEquals(9, helper.getQuantity("C", -1));
+
+        helper.adjustQuantities(Arrays.asList(new StockAdjustment("A", -1), new StockAdjustment("A", -1), new StockAdjustment("NOPE", 4)));
+        assertEquals(3, helper.getQuantity("A", -1));
+        assertEquals(-1, helper.getQuantity("NOPE", -1));
+
+        helper.insertOrUpdateItems(Arrays.asList(new InventoryItem("B", "b", 12), null));
+        assertEquals(12, helper.getQuantity("B", -1));
+
+        new ImportHelper(database).writeChunk("test", Collections.singletonList(new InventoryItem("D", "d", 1)), 0, 0);
+        assertEquals(1, helper.getQuantity("D", -1));
+        new ImportHelper(database).clearCheckpoint("test");
+
+        helper.deleteItem("C");
+        assertEquals(-1, helper.getQuantity("C", -1));
+
+        assertAgreesWithTable();
+    }
+
+    @Test
+    public void concurrentPicksEndAtTheStoredQuantity() throws InterruptedException {
+        Thread[] pickers = new Thread[4];
+        for (int t = 0; t < pickers.length; t++) {
+            pickers[t] = new Thread(() -> {
+                for (int i = 0; i < 250; i++) helper.adjustQuantity(i % 2 == 0 ? "A" : "B", 1);
+            });
+            pickers[t].start();
+        }
+        for (Thread picker : pickers) picker.join();
+
+        assertEquals(505, helper.getQuantity("A", -1));
+        assertEquals(502, helper.getQuantity("B", -1));
+        assertAgreesWithTable();
+    }
+
+    @Test
+    public void writesDuringALoadAreKept() throws InterruptedException {
+        List<InventoryItem> items = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) items.add(new InventoryItem(String.format("SKU%05d", i), "Item " + i, 1));
+        helper.insertOrUpdateItems(items);
+
+        // the load reads the table on its own thread while picks, saves and deletes keep committing
+        database.dropStockLevels();
+        Thread load = new Thread(helper::loadStockLevelsIfNeeded);
+        load.start();
+        for (int i = 0; i < 5_000; i += 10) {
+            String sku = String.format("SKU%05d", i);
+            helper.adjustQuantity(sku, 4);
+            if (i % 100 == 0) helper.deleteItem(sku);
+        }
+        helper.insertOrUpdateItem(new InventoryItem("LATE", "late", 7));
+        load.join();
+
+        assertNull(database.getStockLevelsLoad());
+        assertAgreesWithTable();
+    }
+
+    private void assertAgreesWithTable() {
+        Map<String, Integer> stored = new HashMap<>();
+        for (InventoryItem item : helper.getAllItems()) stored.put(item.getSku(), item.getQuantity());
+
+        assertEquals(stored.size(), database.getStockLevels().size());
+        for (Map.Entry<String, Integer> entry : stored.entrySet()) {
+            assertEquals(entry.getKey(), entry.getValue().intValue(), helper.getQuantity(entry.getKey(), -1));
+        }
+    }
+
+    private void clear() {
+        TestDatabase.reset(database);
+    }
+}
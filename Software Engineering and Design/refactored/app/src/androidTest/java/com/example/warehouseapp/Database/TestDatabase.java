@@ -0,0 +1,64 @@
+package com.example.warehouseapp.Database;
+
+import android.content.Context;
+import android.database.sqlite.SQLiteDatabase;
+
+/**
+ * Fixture shared by the device tests. They all run against the one process-wide database, so each starts and ends
+ * by resetting it here rather than deleting rows by hand and forgetting one of the in-memory copies. Tests that need
+ * a database nothing else touches open a scratch one here instead.
+ * Lives in the database package so it can reach the package-private state, and in androidTest so the app has no way to call it.
+ */
+public final class TestDatabase {
+
+    private TestDatabase() {
+    }
+
+    /**
+     * Method to open a scratch database of its own, for tests whose counts mustn't be disturbed by other work on the shared one.
+     * Close it and delete the file when done
+     * @param context Any context
+     * @param name File name of the scratch database
+     * @return The scratch database
+     */
+    public static WarehouseDatabase open(Context context, String name) {
+        context.deleteDatabase(name);
+        return new WarehouseDatabase(context.getApplicationContext(), name);
+    }
+
+    /**
+     * Method to make a repository over a scratch database. Unlike the app's repositories it starts no backfill,
+     * sku filter or stock level pass of its own
+     * @param database The scratch database
+     * @return The repository
+     */
+    public static InventoryRepository repository(WarehouseDatabase database) {
+        return new InventoryRepository(new InventoryHelper(database), new StockLedgerHelper(database), DatabaseExecutor.getInstance());
+    }
+
+    /**
+     * Method to empty the inventory, its ledger, import checkpoints and outbox, and forget everything held in memory
+     * about them: cached items, the sku filter and the stock levels, including a rebuild or load in progress
+     * @param database The shared database
+     */
+    public static void reset(WarehouseDatabase database) {
+        SQLiteDatabase db = database.getDatabase();
+        db.beginTransaction();
+        try {
+            for (String table : new String[]{InventoryHelper.table, StockLedgerHelper.movementsTable, StockLedgerHelper.snapshotsTable,
+                    StockLedgerHelper.compactionsTable, ImportHelper.table, NotificationOutboxHelper.table}) {
+                db.delete(table, null, null);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        // the rows went without going through a helper, so nothing in memory heard about it
+        database.getItemCache().invalidateAll();
+        database.finishSkuFilter(null);
+        database.setSkuFilter(null);
+        database.dropStockLevels();
+        database.finishStockLevels(null);
+    }
+}
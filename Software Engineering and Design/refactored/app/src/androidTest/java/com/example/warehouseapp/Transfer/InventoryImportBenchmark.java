@@ -0,0 +1,168 @@
+package com.example.warehouseapp.Transfer;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.warehouseapp.Database.DatabaseExecutor;
+import com.example.warehouseapp.Database.ImportHelper;
+import com.example.warehouseapp.Database.InventoryHelper;
+import com.example.warehouseapp.Database.TestDatabase;
+import com.example.warehouseapp.Database.WarehouseDatabase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Imports generated supplier files, checks cancel and resume, and reports import throughput in rows per second.
+ */
+@RunWith(AndroidJUnit4.class)
+public class InventoryImportBenchmark {
+
+    private Context context;
+    private InventoryHelper inventory;
+    private ImportHelper imports;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        inventory = new InventoryHelper(context);
+        imports = new ImportHelper(context);
+        clear();
+    }
+
+    @After
+    public void tearDown() {
+        clear();
+    }
+
+    @Test
+    public void skipsRowsThatDoNotParse() throws Exception {
+        byte[] csv = ("qty,sku,desc\n" +
+                "4,A1,\"Box, brown\"\n" +
+                "lots,A2,bad quantity\n" +
+                "3,,no sku\n" +
+                "0,A3,\n").getBytes(StandardCharsets.UTF_8);
+
+        InventoryImporter.Result result = runImport(importer(1000), "small.csv", csv, false);
+
+        assertFalse(result.cancelled);
+        assertEquals(2, result.rowsWritten);
+        assertEquals(2, result.rowsSkipped);
+        assertEquals("Box, brown", inventory.getAllItems().stream().filter(item -> item.getSku().equals("A1")).findFirst().get().getDesc());
+        assertNull(imports.getCheckpoint("small.csv"));
+    }
+
+    @Test
+    public void cancelledImportResumesFromCheckpoint() throws Exception {
+        int rows = 20_000;
+        byte[] csv = generate(rows);
+        InventoryImporter importer = importer(1000);
+
+        // stop as soon as the first chunk is stored, as if the app had been killed
+        InventoryImporter.Result first = runImport(importer, "supplier.csv", csv, true);
+        assertTrue(first.cancelled);
+        assertTrue(first.rowsWritten < rows);
+
+        ImportHelper.Checkpoint checkpoint = imports.getCheckpoint("supplier.csv");
+        assertNotNull(checkpoint);
+        assertEquals(first.rowsWritten, checkpoint.rowsWritten);
+
+        InventoryImporter.Result second = runImport(importer, "supplier.csv", csv, false);
+        assertFalse(second.cancelled);
+        assertEquals(rows, second.rowsWritten);
+        assertEquals(rows, inventory.getItemCount());
+        assertNull(imports.getCheckpoint("supplier.csv"));
+    }
+
+    @Test
+    public void importThroughput() throws Exception {
+        int rows = 500_000;
+        byte[] csv = generate(rows);
+
+        long start = System.nanoTime();
+        InventoryImporter.Result result = runImport(importer(InventoryImporter.defaultChunkSize), "large.csv", csv, false);
+        long nanos = System.nanoTime() - start;
+
+        assertEquals(rows, result.rowsWritten);
+        assertEquals(rows, inventory.getItemCount());
+        Log.i("Benchmark", String.format("imported %,d rows in %.1f s, %,.0f rows/s", rows, nanos / 1e9, rows / (nanos / 1e9)));
+    }
+
+    private InventoryImporter importer(int chunkSize) {
+        return new InventoryImporter(imports, DatabaseExecutor.getInstance(), Runnable::run, chunkSize);
+    }
+
+    /**
+     * Method to run an import and wait for it
+     * @param cancelEarly Cancel the import once its first chunk is stored
+     */
+    private static InventoryImporter.Result runImport(InventoryImporter importer, String source, byte[] csv,
+                                                      boolean cancelEarly) throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<TransferJob> started = new AtomicReference<>();
+        InventoryImporter.Result[] result = new InventoryImporter.Result[1];
+        Exception[] error = new Exception[1];
+
+        TransferJob job = importer.start(source, () -> new ByteArrayInputStream(csv), new InventoryImporter.Listener() {
+            @Override
+            public void onProgress(long rowsWritten, long bytesRead) {
+                if (!cancelEarly) return;
+
+                // the first chunk can land before start() has returned the job
+                while (started.get() == null) Thread.yield();
+                started.get().cancel();
+            }
+
+            @Override
+            public void onFinished(InventoryImporter.Result finished) {
+                result[0] = finished;
+                done.countDown();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                error[0] = e;
+                done.countDown();
+            }
+        });
+        started.set(job);
+
+        assertTrue(done.await(5, TimeUnit.MINUTES));
+        if (error[0] != null) throw error[0];
+        return result[0];
+    }
+
+    private static byte[] generate(int rows) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        StringBuilder line = new StringBuilder();
+        line.append("sku,description,quantity,reorder_threshold\n");
+        for (int i = 0; i < rows; i++) {
+            line.append(String.format("SKU%07d,\"Box %d, brown\",%d,5\n", i, i, i % 40));
+            if (line.length() > 64 * 1024) {
+                out.write(line.toString().getBytes(StandardCharsets.UTF_8), 0, line.length());
+                line.setLength(0);
+            }
+        }
+        byte[] tail = line.toString().getBytes(StandardCharsets.UTF_8);
+        out.write(tail, 0, tail.length);
+        return out.toByteArray();
+    }
+
+    private void clear() {
+        TestDatabase.reset(WarehouseDatabase.getInstance(context));
+    }
+}
@@ -3,7 +3,8 @@ package com.example.warehouseapp.Activities.Adapters;
 import android.Manifest;
 import android.content.Context;
 import android.content.pm.PackageManager;
-import android.telephony.SmsManager;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -11,64 +12,129 @@ import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.example.warehouseapp.Database.InventoryHelper;
+import com.example.warehouseapp.Database.InventoryRepository;
+import com.example.warehouseapp.Notifications.LowStockNotifier;
 import com.example.warehouseapp.R;
+import com.example.warehouseapp.Search.FilterEngine;
 import com.example.warehouseapp.Types.InventoryItem;
+import com.example.warehouseapp.Types.InventorySnapshot;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
-public class InventoryAdapter extends RecyclerView.Adapter<InventoryViewHolder> {
+public class InventoryAdapter extends RecyclerView.Adapter<InventoryViewHolder> implements InventoryListAdapter, InventoryViewHolder.RowActions {
+
+    // how long typing has to pause before a search runs
+    private static final long searchDebounceMillis = 150;
+
+    // list diffs for every adapter run here, off the main thread
+    private static final Executor diffExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "inventory-diff");
+        thread.setDaemon(true);
+        return thread;
+    });
 
     // necessary local variables
-    private List<InventoryItem> itemList;
-    private InventoryHelper dbHelper;
+    private InventorySnapshot.Rows shownItems; // the rows on screen, bound column by column
+    private InventorySnapshot.Rows itemList; // the latest visible rows, ahead of shownItems while their diff runs
+    private int diffGeneration; // bumped by every submit, a diff that finishes after a newer submit is dropped
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private InventoryRepository repository;
     private Context context;
 
-    private List<InventoryItem> fullItemList; // store a full list for search functionality
-    public InventoryAdapter(Context context, List<InventoryItem> items, InventoryHelper dbHelper) {
+    private InventorySnapshot fullItems; // every item, column by column. Edits swap in a new snapshot
+    private FilterEngine filterEngine; // background search over fullItems, handed every new snapshot
+    private String query = ""; // the search box text
+    private boolean filtered; // whether itemList is search results rather than all of fullItems
+
+    public InventoryAdapter(Context context, List<InventoryItem> items, InventoryRepository repository) {
+        this(context, InventorySnapshot.of(items), repository);
+    }
+
+    public InventoryAdapter(Context context, InventorySnapshot items, InventoryRepository repository) {
         this.context = context;
-        this.itemList = new ArrayList<>(items);
-        this.fullItemList = new ArrayList<>(items); // as we're using the same list, use a deep copy to prevent reference problems
-        this.dbHelper = dbHelper;
+        this.fullItems = items;
+        this.shownItems = this.itemList = items.asList();
+        this.filterEngine = new FilterEngine(items, searchDebounceMillis, mainHandler::post);
+        this.repository = repository;
+
+        // rows are keyed by sku, so RecyclerView can match views to items across list changes
+        setHasStableIds(true);
     }
 
     /**
-     * Method to filter the displayted inventory list based on a query
+     * Method to filter the displayted inventory list based on a query.
+     * The search itself runs in the background once typing pauses, and the list updates when it reports.
      * @param query The search query
      */
+    @Override
     public void filter(String query) {
+        this.query = query;
 
-        // clear the list of visible items
-        itemList.clear();
-
-        // if the query is empty, restore the full list
+        // if the query is empty, restore the full list straight away
         if (query.isEmpty()) {
-            itemList.addAll(fullItemList);
-        } else {
+            filterEngine.cancel();
+            filtered = false;
+            submit(fullItems.asList());
+            return;
+        }
 
-            // force to lowercase for comparison
-            String lcQuery = query.toLowerCase();
+        // only the newest query reports back, older ones are cancelled
+        filterEngine.filter(query, (matchedQuery, results) -> showItems(results));
 
-            // iterate over all items
-            for(InventoryItem item : fullItemList) {
+    }
 
-                // check if the sku or desc matches search query
-                if(item.getSku().toLowerCase().contains(lcQuery) || item.getDesc().toLowerCase().contains(lcQuery)) {
-                    // add to the visible list
-                    itemList.add(item);
-                }
-            }
+    /**
+     * Method to swap the visible items. The change is diffed in the background and only the rows
+     * that were added, removed or edited are rebound.
+     * @param results The search results to show
+     */
+    private void showItems(InventorySnapshot.Rows results) {
 
+        // results point at rows by position, and an edit since the search began may have moved them, so search again
+        if (results.getSnapshot() != fullItems) {
+            filter(query);
+            return;
         }
 
-        // signal to the adapter that the data set changed
-        notifyDataSetChanged();
+        filtered = true;
+        submit(results);
 
     }
 
+    /**
+     * Method to diff a new list against the shown one in the background, then show it
+     * @param items Rows of a snapshot, neither ever changes
+     */
+    private void submit(InventorySnapshot.Rows items) {
+        itemList = items;
+        int generation = ++diffGeneration;
+        InventorySnapshot.Rows old = shownItems;
+
+        diffExecutor.execute(() -> {
+            DiffUtil.DiffResult result = DiffUtil.calculateDiff(new InventoryItemDiff(old, items));
+            mainHandler.post(() -> {
+                // a newer list was submitted meanwhile, its own diff will run against whatever is shown then
+                if (generation != diffGeneration) return;
+
+                shownItems = items;
+                result.dispatchUpdatesTo(this);
+            });
+        });
+    }
+
+    /**
+     * Method to stop the background search thread once the list is gone
+     */
+    @Override
+    public void release() {
+        filterEngine.shutdown();
+    }
+
     /**
      * Called when the RV needs a new VH of the type
      * @param parent The ViewGroup into which the new View will be added after it is bound to
@@ -81,67 +147,89 @@ public class InventoryAdapter extends RecyclerView.Adapter<InventoryViewHolder>
     @Override
     public InventoryViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(context).inflate(R.layout.row_inventory_item, parent, false);
-        return new InventoryViewHolder(view);
+
+        // the holder's listeners call back into the adapter, they're made once here rather than on every bind
+        return new InventoryViewHolder(view, this);
     }
 
     /**
-     * Binds data to the views in each row of the RecyclerView.
+     * Binds data to the views in each row of the RecyclerView. The row's columns are read directly,
+     * so binding allocates no item and no listeners.
      */
     @Override
     public void onBindViewHolder(InventoryViewHolder holder, int position) {
-        InventoryItem item = itemList.get(position);
-
-        // Populate fields with current item values
-        holder.etSku.setText(item.getSku());
-        holder.etDesc.setText(item.getDesc());
-        holder.etQuantity.setText(String.valueOf(item.getQuantity()));
-
-        // Save button listener to update or insert item
-        holder.btnSave.setOnClickListener(v -> {
-            String newSku = holder.etSku.getText().toString().trim();
-            String newDesc = holder.etDesc.getText().toString().trim();
-            int newQty;
-
-            // Validate that quantity is a number
-            try {
-                newQty = Integer.parseInt(holder.etQuantity.getText().toString().trim());
-            } catch (NumberFormatException e) {
-                Toast.makeText(context, "Invalid quantity", Toast.LENGTH_SHORT).show();
-                return;
-            }
+        holder.bind(shownItems.skuAt(position), shownItems.descAt(position), shownItems.quantityAt(position));
+    }
 
-            // Update item in database
-            InventoryItem updatedItem = new InventoryItem(newSku, newDesc, newQty);
-            dbHelper.insertOrUpdateItem(updatedItem);
+    /**
+     * Stable id of a row, derived from its sku
+     * @param position The adapter position
+     * @return The row's id
+     */
+    @Override
+    public long getItemId(int position) {
+        return StableIds.forSku(shownItems.skuAt(position));
+    }
 
-            // Update both lists
-            itemList.set(position, updatedItem);
-            int fullIndex = fullItemList.indexOf(item);
+    /**
+     * A row was tapped, open the editor for its item
+     * @param holder The row that was tapped
+     * @param position The row's current position
+     */
+    @Override
+    public void onOpen(InventoryViewHolder holder, int position) {
+        openEditor(shownItems.get(position));
+    }
 
-            if (fullIndex != -1) {
-                fullItemList.set(fullIndex, updatedItem);
-            } else {
-                fullItemList.add(updatedItem);
+    /**
+     * Method to show the editor for one item
+     * @param item The item to edit
+     */
+    void openEditor(InventoryItem item) {
+        ItemEditorSheet.show(context, item, new ItemEditorSheet.Listener() {
+            @Override
+            public void onSave(InventoryItem original, InventoryItem updated) {
+                saveItem(original, updated);
             }
-            // notify the adapter
-            notifyItemChanged(position);
-            Toast.makeText(context, "Item saved", Toast.LENGTH_SHORT).show();
 
-            // check if the quantity is 0 or less, and notify the user
-            if(newQty <= 0 && ContextCompat.checkSelfPermission(context, Manifest.permission.SEND_SMS) == PackageManager.PERMISSION_GRANTED) {
-                sendLowStockNotification(newSku, newDesc);
+            @Override
+            public void onDelete(InventoryItem original) {
+                deleteItem(original);
             }
         });
+    }
 
-        // Delete button listener to remove item from list and database
-        holder.btnDelete.setOnClickListener(v -> {
-            dbHelper.deleteItem(item.getSku());
-            itemList.remove(item);
-            fullItemList.remove(item);
-            notifyItemRemoved(position);
-            notifyItemRangeChanged(position, itemList.size());
-            Toast.makeText(context, "Item deleted", Toast.LENGTH_SHORT).show();
+    /**
+     * Method to save an edited item, to the database and both lists
+     * @param item The item as it was shown
+     * @param updatedItem The edited item
+     */
+    void saveItem(InventoryItem item, InventoryItem updatedItem) {
+        // Update item in database, the write happens in the background.
+        repository.saveItem(updatedItem, saved -> {
+            if (saved) Toast.makeText(context, "Item saved", Toast.LENGTH_SHORT).show();
         });
+
+        // Update both lists. The row keeps its place, and a changed sku that matches another item replaces that item
+        boolean renamed = !item.getSku().equals(updatedItem.getSku()) && fullItems.contains(item.getSku());
+        int displaced = renamed ? fullItems.positionOf(updatedItem.getSku()) : -1;
+        setFullItems(fullItems.replace(item.getSku(), updatedItem), displaced, -1);
+
+        // check if the quantity is 0 or less, and notify the user
+        if(updatedItem.getQuantity() <= 0 && ContextCompat.checkSelfPermission(context, Manifest.permission.SEND_SMS) == PackageManager.PERMISSION_GRANTED) {
+            LowStockNotifier.getInstance(context).notifyLowStock(updatedItem.getSku(), updatedItem.getDesc());
+        }
+    }
+
+    /**
+     * Method to remove an item from the list and database
+     * @param item The item to delete
+     */
+    void deleteItem(InventoryItem item) {
+        repository.deleteItem(item.getSku(), null);
+        int position = fullItems.positionOf(item.getSku());
+        setFullItems(fullItems.remove(item.getSku()), position, -1);
+        Toast.makeText(context, "Item deleted", Toast.LENGTH_SHORT).show();
     }
 
     /**
@@ -150,36 +238,47 @@ public class InventoryAdapter extends RecyclerView.Adapter<InventoryViewHolder>
      */
     @Override
     public int getItemCount() {
-        return itemList.size();
+        return shownItems.size();
     }
 
     /**
-     * Adds a new item to the list and notifies the dapater
+     * Adds a new item to the end of the list
      * @param item The item to add
      */
+    @Override
     public void addItem(InventoryItem item) {
-        itemList.add(item);
-        fullItemList.add(item);
-        notifyItemInserted(itemList.size() - 1);
+        // a sku already in the list is edited in place rather than shown twice
+        boolean existing = fullItems.contains(item.getSku());
+        InventorySnapshot edited = fullItems.put(item);
+        setFullItems(edited, -1, existing ? -1 : edited.size() - 1);
     }
 
     /**
-     * Method to send a low stock notification to the emulator's number
-     * @param sku The sku of the item
-     * @param desc The desc of the item
+     * Method to swap in an edited catalog and show the edit. Every edit keeps the other rows in order,
+     * so search results are carried over by adjusting their positions rather than searching again
+     * @param items The catalog after the edit
+     * @param removed Position of a row the edit deleted, in the catalog before the edit, or -1
+     * @param added Position of a row the edit appended, or -1
      */
-    private void sendLowStockNotification(String sku, String desc) {
-        String number = "15551234567"; // the emulated number for my android phone.
-        String message = String.format("Alert!!! SKU %s - %s has reached zero items.", sku, desc);
-
-        // get the sms manager
-        SmsManager manager = SmsManager.getDefault();
+    private void setFullItems(InventorySnapshot items, int removed, int added) {
+        fullItems = items;
+        filterEngine.update(items);
 
-        // send the text
-        manager.sendTextMessage(number, null, message, null, null);
+        if (!filtered) {
+            submit(items.asList());
+            return;
+        }
 
+        // rows after the removed one move up a place
+        int[] positions = new int[itemList.size() + 1];
+        int count = 0;
+        for (int i = 0; i < itemList.size(); i++) {
+            int position = itemList.positionAt(i);
+            if (position == removed) continue;
+            positions[count++] = removed != -1 && position > removed ? position - 1 : position;
+        }
+        if (added != -1) positions[count++] = added;
+        submit(items.rows(positions, count));
     }
 
-
-
 }
@@ -0,0 +1,45 @@
+package com.example.warehouseapp.Activities.Adapters;
+
+import androidx.recyclerview.widget.DiffUtil;
+
+import com.example.warehouseapp.Types.InventorySnapshot;
+
+import java.util.Objects;
+
+/**
+ * Tells DiffUtil how inventory rows line up between two lists: a row is the same item if the sku matches,
+ * and it only needs rebinding if its description or quantity changed. Rows are compared column by column,
+ * so diffing a large list creates no items.
+ */
+public class InventoryItemDiff extends DiffUtil.Callback {
+
+    private final InventorySnapshot.Rows oldRows;
+    private final InventorySnapshot.Rows newRows;
+
+    public InventoryItemDiff(InventorySnapshot.Rows oldRows, InventorySnapshot.Rows newRows) {
+        this.oldRows = oldRows;
+        this.newRows = newRows;
+    }
+
+    @Override
+    public int getOldListSize() {
+        return oldRows.size();
+    }
+
+    @Override
+    public int getNewListSize() {
+        return newRows.size();
+    }
+
+    @Override
+    public boolean areItemsTheSame(int oldPosition, int newPosition) {
+        return Objects.equals(oldRows.skuAt(oldPosition), newRows.skuAt(newPosition));
+    }
+
+    @Override
+    public boolean areContentsTheSame(int oldPosition, int newPosition) {
+        // rows sharing a dictionary entry usually hold the very same string, so this rarely compares characters
+        return Objects.equals(oldRows.descAt(oldPosition), newRows.descAt(newPosition))
+                && oldRows.quantityAt(oldPosition) == newRows.quantityAt(newPosition);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.warehouseapp.Activities.Adapters;
+
+import com.example.warehouseapp.Types.InventoryItem;
+
+/**
+ * Operations InventoryActivity needs from whichever inventory adapter backs the list
+ */
+public interface InventoryListAdapter {
+
+    /**
+     * Method to filter the displayed inventory list based on a query
+     * @param query The search query
+     */
+    void filter(String query);
+
+    /**
+     * Adds a new item to the list
+     * @param item The item to add
+     */
+    void addItem(InventoryItem item);
+
+    /**
+     * Called when the list is destroyed, to stop any background work the adapter owns
+     */
+    default void release() {
+    }
+}
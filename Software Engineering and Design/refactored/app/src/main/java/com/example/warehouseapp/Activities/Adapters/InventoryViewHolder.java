@@ -1,28 +1,102 @@
 package com.example.warehouseapp.Activities.Adapters;
 
 import android.view.View;
-import android.widget.Button;
-import android.widget.EditText;
 
+import androidx.appcompat.widget.AppCompatTextView;
+import androidx.core.text.PrecomputedTextCompat;
+import androidx.core.widget.TextViewCompat;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.warehouseapp.R;
+import com.example.warehouseapp.Types.InventoryItem;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * A read-only inventory row. Its text is laid out on a background thread while RecyclerView prefetches the row,
+ * so the frame that shows it only has to draw. Tapping the row asks the adapter to open the editor.
+ */
 public class InventoryViewHolder extends RecyclerView.ViewHolder {
 
+    /**
+     * What tapping the row does, implemented by the adapter. The position is read when the row is
+     * tapped, so it is the row's current position even if rows were added or removed since it was bound.
+     */
+    public interface RowActions {
+        void onOpen(InventoryViewHolder holder, int position);
+    }
+
+    // row text is measured here, off the main thread
+    private static final Executor textExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "inventory-row-text");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     // necessary components to bind from the viewholder
-    public EditText etSku, etDesc, etQuantity;
-    public Button btnSave, btnDelete;
+    public AppCompatTextView tvSku, tvDesc, tvQuantity;
 
-    public InventoryViewHolder(View itemView) {
+    // how each text view lays out text, read once since it only depends on the view's style
+    private final PrecomputedTextCompat.Params skuParams, descParams, quantityParams;
+
+    // created once per row view, binding a new item never allocates a listener
+    final View.OnClickListener openListener;
+
+    public InventoryViewHolder(View itemView, RowActions actions) {
         super(itemView);
 
-        etSku = itemView.findViewById(R.id.tvSku);
-        etDesc = itemView.findViewById(R.id.tvDescription);
-        etQuantity = itemView.findViewById(R.id.tvQuantity);
-        btnSave = itemView.findViewById(R.id.btnSave);
-        btnDelete = itemView.findViewById(R.id.btnDelete);
+        tvSku = itemView.findViewById(R.id.tvSku);
+        tvDesc = itemView.findViewById(R.id.tvDescription);
+        tvQuantity = itemView.findViewById(R.id.tvQuantity);
+
+        skuParams = TextViewCompat.getTextMetricsParams(tvSku);
+        descParams = TextViewCompat.getTextMetricsParams(tvDesc);
+        quantityParams = TextViewCompat.getTextMetricsParams(tvQuantity);
+
+        openListener = v -> {
+            int position = getBindingAdapterPosition();
+            // the row is being removed or the adapter is mid update, nothing to act on
+            if (position != RecyclerView.NO_POSITION) actions.onOpen(this, position);
+        };
+        itemView.setOnClickListener(openListener);
+    }
+
+    /**
+     * Method to show an item in the row. The text is handed over as futures, and the views wait on them
+     * only when they are measured
+     * @param item The item to show
+     */
+    public void bind(InventoryItem item) {
+        bind(item.getSku(), item.getDesc(), item.getQuantity());
+    }
+
+    /**
+     * Method to show a row's values, for adapters that read them straight from columns
+     * @param sku The item's sku
+     * @param description The item's description, may be null
+     * @param quantity The quantity on hand
+     */
+    public void bind(String sku, String description, int quantity) {
+        String desc = description == null ? "" : description;
+        String quantityText = itemView.getResources().getString(R.string.row_quantity, quantity);
+
+        tvSku.setTextFuture(PrecomputedTextCompat.getTextFuture(sku, skuParams, textExecutor));
+        tvDesc.setTextFuture(PrecomputedTextCompat.getTextFuture(desc, descParams, textExecutor));
+        tvQuantity.setTextFuture(PrecomputedTextCompat.getTextFuture(quantityText, quantityParams, textExecutor));
+    }
 
+    /**
+     * Method to blank the row while its item is still loading
+     */
+    public void clear() {
+        // drop text still being measured for the item this row showed before, or it would land after the blank
+        tvSku.setTextFuture(null);
+        tvDesc.setTextFuture(null);
+        tvQuantity.setTextFuture(null);
 
+        tvSku.setText("");
+        tvDesc.setText("");
+        tvQuantity.setText("");
     }
 }
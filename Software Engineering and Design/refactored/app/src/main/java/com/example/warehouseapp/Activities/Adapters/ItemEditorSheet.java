@@ -0,0 +1,78 @@
+package com.example.warehouseapp.Activities.Adapters;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.widget.Button;
+import android.widget.EditText;
+import android.widget.Toast;
+
+import com.example.warehouseapp.R;
+import com.example.warehouseapp.Types.InventoryItem;
+import com.google.android.material.bottomsheet.BottomSheetDialog;
+
+/**
+ * Bottom sheet for editing one item. The list rows are read-only, so the edit fields and buttons
+ * are only inflated for the item the user tapped.
+ */
+class ItemEditorSheet {
+
+    /**
+     * What to do with the edited item, implemented by the adapter that opened the sheet
+     */
+    interface Listener {
+        void onSave(InventoryItem original, InventoryItem updated);
+
+        void onDelete(InventoryItem item);
+    }
+
+    private ItemEditorSheet() {}
+
+    /**
+     * Method to open the editor for an item
+     * @param context The activity context, the sheet is a dialog
+     * @param item The item to edit
+     * @param listener Receives the save or delete, the sheet closes after either
+     */
+    static void show(Context context, InventoryItem item, Listener listener) {
+        BottomSheetDialog dialog = new BottomSheetDialog(context);
+        View view = LayoutInflater.from(context).inflate(R.layout.sheet_edit_item, null, false);
+
+        EditText etSku = view.findViewById(R.id.tvSku);
+        EditText etDesc = view.findViewById(R.id.tvDescription);
+        EditText etQuantity = view.findViewById(R.id.tvQuantity);
+        Button btnSave = view.findViewById(R.id.btnSave);
+        Button btnDelete = view.findViewById(R.id.btnDelete);
+
+        // Populate fields with current item values
+        etSku.setText(item.getSku());
+        etDesc.setText(item.getDesc());
+        etQuantity.setText(String.valueOf(item.getQuantity()));
+
+        btnSave.setOnClickListener(v -> {
+            String newSku = etSku.getText().toString().trim();
+            String newDesc = etDesc.getText().toString().trim();
+            int newQty;
+
+            // Validate that quantity is a number
+            try {
+                newQty = Integer.parseInt(etQuantity.getText().toString().trim());
+            } catch (NumberFormatException e) {
+                Toast.makeText(context, "Invalid quantity", Toast.LENGTH_SHORT).show();
+                return;
+            }
+
+            // the threshold isn't editable here, carry it over so the save doesn't reset it
+            listener.onSave(item, new InventoryItem(newSku, newDesc, newQty, item.getReorderThreshold()));
+            dialog.dismiss();
+        });
+
+        btnDelete.setOnClickListener(v -> {
+            listener.onDelete(item);
+            dialog.dismiss();
+        });
+
+        dialog.setContentView(view);
+        dialog.show();
+    }
+}
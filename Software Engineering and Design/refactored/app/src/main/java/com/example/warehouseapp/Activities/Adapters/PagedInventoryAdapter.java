@@ -0,0 +1,366 @@
+package com.example.warehouseapp.Activities.Adapters;
+
+import android.Manifest;
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.Toast;
+
+import androidx.annotation.NonNull;
+import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.warehouseapp.Database.InventoryRepository;
+import com.example.warehouseapp.Notifications.LowStockNotifier;
+import com.example.warehouseapp.R;
+import com.example.warehouseapp.Types.InventoryItem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Adapter for large inventories. Rather than loading the whole table, it keeps a bounded window
+ * of pages (ordered by sku) in memory and reads neighbouring pages in the background as the RecyclerView scrolls.
+ */
+public class PagedInventoryAdapter extends RecyclerView.Adapter<InventoryViewHolder> implements InventoryListAdapter, InventoryViewHolder.RowActions {
+
+    // most search matches shown at once, search results are not paged
+    private static final int searchLimit = 500;
+
+    // necessary local variables
+    private final Context context;
+    private final InventoryRepository repository;
+    private final int pageSize;
+    private final int maxWindowSize;
+
+    // the loaded slice of the table, window.get(i) is the item at position windowStart + i
+    private final List<InventoryItem> window = new ArrayList<>();
+    private int windowStart = 0;
+    private int totalCount;
+
+    // bumped whenever the window is thrown away, so pages requested before that are ignored
+    private int windowVersion = 0;
+
+    // only one page is read at a time, a position that misses meanwhile is remembered and read next
+    private boolean pageInFlight = false;
+    private int missedPosition = RecyclerView.NO_POSITION;
+
+    // items added with the add button that have not been saved yet, shown after the paged rows
+    private final List<InventoryItem> pendingItems = new ArrayList<>();
+
+    // non null while a search is active
+    private List<InventoryItem> searchResults;
+    private String currentQuery = "";
+
+    /**
+     * @param context The context
+     * @param repository The inventory repository pages are read from
+     * @param totalCount The number of rows in the table
+     * @param pageSize Rows read per query
+     * @param maxPages Pages kept in memory at once, older pages are dropped as the user scrolls
+     */
+    public PagedInventoryAdapter(Context context, InventoryRepository repository, int totalCount, int pageSize, int maxPages) {
+        this.context = context;
+        this.repository = repository;
+        this.totalCount = totalCount;
+        this.pageSize = pageSize;
+        this.maxWindowSize = pageSize * maxPages;
+
+        // rows are keyed by sku, rows still loading by position
+        setHasStableIds(true);
+    }
+
+    /**
+     * Method to filter the list. Matching uses the full-text index so the table is never loaded into memory.
+     * @param query The search query
+     */
+    @Override
+    public void filter(String query) {
+        currentQuery = query;
+
+        if (query.isEmpty()) {
+            // back to paging through the whole table
+            searchResults = null;
+            notifyDataSetChanged();
+            return;
+        }
+
+        repository.searchItems(query, searchLimit, results -> {
+            // the user kept typing, a newer search will report
+            if (!query.equals(currentQuery)) return;
+
+            searchResults = results;
+            notifyDataSetChanged();
+        });
+    }
+
+    /**
+     * Adds a new, unsaved item to the end of the list
+     * @param item The item to add
+     */
+    @Override
+    public void addItem(InventoryItem item) {
+        pendingItems.add(item);
+        notifyItemInserted(getItemCount() - 1);
+    }
+
+    @NonNull
+    @Override
+    public InventoryViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(context).inflate(R.layout.row_inventory_item, parent, false);
+
+        // the holder's listeners call back into the adapter, they're made once here rather than on every bind
+        return new InventoryViewHolder(view, this);
+    }
+
+    /**
+     * Binds data to the views in each row of the RecyclerView, asking for the page if it is not loaded.
+     */
+    @Override
+    public void onBindViewHolder(InventoryViewHolder holder, int position) {
+        InventoryItem item = getItem(position);
+
+        // the page is still being read, show an empty row until it arrives. Tapping a row with no item does nothing
+        if (item == null) {
+            holder.clear();
+            return;
+        }
+
+        holder.bind(item);
+    }
+
+    /**
+     * Stable id of a row, derived from its sku. Rows whose page isn't loaded get an id from their position
+     * @param position The adapter position
+     * @return The row's id
+     */
+    @Override
+    public long getItemId(int position) {
+        InventoryItem item = peekItem(position);
+        return item == null ? StableIds.forPlaceholder(position) : StableIds.forSku(item.getSku());
+    }
+
+    /**
+     * A row was tapped, open the editor for its item
+     * @param holder The row that was tapped
+     * @param position The row's current position
+     */
+    @Override
+    public void onOpen(InventoryViewHolder holder, int position) {
+        InventoryItem item = peekItem(position);
+        if (item == null) return;
+
+        ItemEditorSheet.show(context, item, new ItemEditorSheet.Listener() {
+            @Override
+            public void onSave(InventoryItem original, InventoryItem updated) {
+                saveItem(original, updated, position);
+            }
+
+            @Override
+            public void onDelete(InventoryItem original) {
+                deleteItem(original, position);
+            }
+        });
+    }
+
+    /**
+     * Method to save an edited item
+     * @param item The item as it was shown
+     * @param updatedItem The edited item
+     * @param position Where the item was shown when the editor opened
+     */
+    private void saveItem(InventoryItem item, InventoryItem updatedItem, int position) {
+        boolean wasPending = pendingItems.remove(item);
+
+        repository.saveItem(updatedItem, saved -> {
+            if (saved) Toast.makeText(context, "Item saved", Toast.LENGTH_SHORT).show();
+
+            // a new row is now in the table, reload so it shows up in sku order
+            if (wasPending) repository.getItemCount(count -> {
+                totalCount = count;
+                resetWindow();
+                notifyDataSetChanged();
+            });
+        });
+
+        if (!wasPending) {
+            // the window may have moved, or the results shrunk, while the editor was open
+            boolean stillThere = position < getItemCount() && peekItem(position) == item;
+            replace(item, updatedItem);
+            if (stillThere) {
+                notifyItemChanged(position);
+            } else {
+                notifyDataSetChanged();
+            }
+        }
+
+        // check if the quantity is 0 or less, and notify the user
+        if(updatedItem.getQuantity() <= 0 && ContextCompat.checkSelfPermission(context, Manifest.permission.SEND_SMS) == PackageManager.PERMISSION_GRANTED) {
+            LowStockNotifier.getInstance(context).notifyLowStock(updatedItem.getSku(), updatedItem.getDesc());
+        }
+    }
+
+    /**
+     * Method to remove an item from the list and database
+     * @param item The item to delete
+     * @param position Where the item was shown when the editor opened
+     */
+    private void deleteItem(InventoryItem item, int position) {
+        boolean stillThere = position < getItemCount() && peekItem(position) == item;
+
+        if (!pendingItems.remove(item)) {
+            repository.deleteItem(item.getSku(), null);
+            totalCount = Math.max(0, totalCount - 1);
+            // a row above the loaded window went, so every loaded row moves up a position
+            if (!window.remove(item) && !window.isEmpty() && item.getSku().compareTo(window.get(0).getSku()) < 0) {
+                windowStart = Math.max(0, windowStart - 1);
+            }
+            if (searchResults != null) searchResults.remove(item);
+        }
+
+        if (stillThere) {
+            notifyItemRemoved(position);
+            notifyItemRangeChanged(position, getItemCount() - position);
+        } else {
+            notifyDataSetChanged();
+        }
+        Toast.makeText(context, "Item deleted", Toast.LENGTH_SHORT).show();
+    }
+
+    /**
+     * Returns number of rows, the whole table is counted even though only a window is loaded
+     * @return the list size
+     */
+    @Override
+    public int getItemCount() {
+        if (searchResults != null) return searchResults.size();
+        return totalCount + pendingItems.size();
+    }
+
+    /**
+     * Method to get the item shown at a position
+     * @param position The adapter position
+     * @return The item, or null if its page has not been loaded yet
+     */
+    private InventoryItem getItem(int position) {
+        InventoryItem item = peekItem(position);
+        if (item == null) requestPage(position);
+        return item;
+    }
+
+    /**
+     * Method to get the item at a position if it's already loaded, without reading anything
+     * @param position The adapter position
+     * @return The item, or null if its page has not been loaded yet
+     */
+    private InventoryItem peekItem(int position) {
+        if (searchResults != null) return searchResults.get(position);
+
+        // unsaved items sit after every stored row
+        if (position >= totalCount) return pendingItems.get(position - totalCount);
+
+        int index = position - windowStart;
+        if (index >= 0 && index < window.size()) return window.get(index);
+
+        return null;
+    }
+
+    /**
+     * Method to read the page covering a position in the background.
+     * Neighbouring pages are read with keyset queries, a jump further than one page re-anchors the window.
+     * @param position The adapter position that missed the window
+     */
+    private void requestPage(int position) {
+        if (pageInFlight) {
+            // read it once the current page is in
+            missedPosition = position;
+            return;
+        }
+        pageInFlight = true;
+
+        int version = windowVersion;
+        int windowEnd = windowStart + window.size();
+
+        if (window.isEmpty() || position < windowStart - pageSize || position >= windowEnd + pageSize) {
+            // fast scroll or first load, read the page holding the position directly
+            int pageStart = (position / pageSize) * pageSize;
+            repository.getItemsAt(pageStart, pageSize, page -> onPageLoaded(version, () -> {
+                window.clear();
+                window.addAll(page);
+                windowStart = pageStart;
+                notifyItemRangeChanged(pageStart, page.size());
+            }));
+        } else if (position >= windowEnd) {
+            // scrolling down, read the page after the last loaded sku
+            repository.getItemsAfter(window.get(window.size() - 1).getSku(), pageSize, page -> onPageLoaded(version, () -> {
+                int pageStart = windowStart + window.size();
+                window.addAll(page);
+
+                // drop pages from the top to keep the window bounded
+                int excess = window.size() - maxWindowSize;
+                if (excess > 0) {
+                    window.subList(0, excess).clear();
+                    windowStart += excess;
+                }
+                notifyItemRangeChanged(pageStart, page.size());
+            }));
+        } else {
+            // scrolling up, read the page before the first loaded sku
+            repository.getItemsBefore(window.get(0).getSku(), pageSize, page -> onPageLoaded(version, () -> {
+                window.addAll(0, page);
+                windowStart = Math.max(0, windowStart - page.size());
+
+                // drop pages from the bottom to keep the window bounded
+                int excess = window.size() - maxWindowSize;
+                if (excess > 0) {
+                    window.subList(window.size() - excess, window.size()).clear();
+                }
+                notifyItemRangeChanged(windowStart, page.size());
+            }));
+        }
+    }
+
+    /**
+     * Method called on the main thread when a page read finishes
+     * @param version The window version the page was requested against
+     * @param apply Merges the page into the window
+     */
+    private void onPageLoaded(int version, Runnable apply) {
+        pageInFlight = false;
+
+        // the window was reset while reading, the page no longer lines up with it
+        if (version == windowVersion && searchResults == null) apply.run();
+
+        // a row that missed while this page was in flight is still waiting
+        int missed = missedPosition;
+        missedPosition = RecyclerView.NO_POSITION;
+        if (missed != RecyclerView.NO_POSITION && missed < totalCount) getItem(missed);
+    }
+
+    /**
+     * Method to swap an edited item into whichever list is showing it
+     * @param oldItem The item that was bound
+     * @param newItem The saved item
+     */
+    private void replace(InventoryItem oldItem, InventoryItem newItem) {
+        int index = window.indexOf(oldItem);
+        if (index != -1) window.set(index, newItem);
+
+        if (searchResults != null) {
+            index = searchResults.indexOf(oldItem);
+            if (index != -1) searchResults.set(index, newItem);
+        }
+    }
+
+    /**
+     * Method to drop the loaded window so the next bind reads fresh pages
+     */
+    private void resetWindow() {
+        window.clear();
+        windowStart = 0;
+        windowVersion++;
+    }
+
+}
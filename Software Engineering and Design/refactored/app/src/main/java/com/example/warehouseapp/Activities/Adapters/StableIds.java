@@ -0,0 +1,37 @@
+package com.example.warehouseapp.Activities.Adapters;
+
+/**
+ * Stable RecyclerView ids for inventory rows. An item's id comes from its sku, so the row keeps its id
+ * across edits, diffs and reloads, and RecyclerView can reuse the right view for it.
+ */
+final class StableIds {
+
+    private static final long fnvOffset = 0xcbf29ce484222325L;
+    private static final long fnvPrime = 0x100000001b3L;
+
+    private StableIds() {}
+
+    /**
+     * Method to get the id for a sku, a 64 bit FNV-1a hash so collisions are negligible even across millions of rows
+     * @param sku The sku
+     * @return A non-negative id
+     */
+    static long forSku(String sku) {
+        long hash = fnvOffset;
+        for (int i = 0; i < sku.length(); i++) {
+            hash ^= sku.charAt(i);
+            hash *= fnvPrime;
+        }
+        return hash & Long.MAX_VALUE;
+    }
+
+    /**
+     * Method to get the id for a row whose item hasn't loaded yet. These are negative, so they never clash with a sku
+     * and skip RecyclerView.NO_ID (-1)
+     * @param position The adapter position
+     * @return A negative id below -1
+     */
+    static long forPlaceholder(int position) {
+        return -2L - position;
+    }
+}
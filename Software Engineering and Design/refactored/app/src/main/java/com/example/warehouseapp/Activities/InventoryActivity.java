@@ -1,6 +1,5 @@
 package com.example.warehouseapp.Activities;
 
-import android.database.sqlite.SQLiteDatabase;
 import android.os.Bundle;
 import androidx.appcompat.widget.SearchView;
 
@@ -9,21 +8,28 @@ import androidx.recyclerview.widget.GridLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.warehouseapp.Activities.Adapters.InventoryAdapter;
-import com.example.warehouseapp.Database.InventoryHelper;
+import com.example.warehouseapp.Activities.Adapters.InventoryListAdapter;
+import com.example.warehouseapp.Activities.Adapters.PagedInventoryAdapter;
+import com.example.warehouseapp.Database.InventoryRepository;
 import com.example.warehouseapp.R;
 import com.example.warehouseapp.Types.InventoryItem;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 
-import java.util.List;
-
 public class InventoryActivity extends AppCompatActivity {
 
+    // inventories larger than this are paged from the database instead of loaded whole
+    private static final int pagingThreshold = 2000;
+    private static final int pageSize = 100;
+    private static final int maxPages = 5;
+
+    // bound rows kept off screen on top of RecyclerView's default of 2
+    private static final int rowCacheSize = 6;
+
     // necessary private vars
     private RecyclerView rvInventory;
     private FloatingActionButton btnAddItem;
-    private InventoryHelper dbHelper;
-    private InventoryAdapter adapter;
-    private List<InventoryItem> inventoryList;
+    private InventoryRepository repository;
+    private InventoryListAdapter adapter;
     private SearchView searchView;
 
 
@@ -44,23 +50,38 @@ public class InventoryActivity extends AppCompatActivity {
         searchView = findViewById(R.id.searchView);
         bindSearchView(searchView); // bind the search view to our adapters filter method
 
-        // create our db helper and get all items from the db
-        dbHelper = new InventoryHelper(this);
-
-        SQLiteDatabase db = dbHelper.getWritableDatabase();
-        // if this isn't the first run, force execute as android will not recall oncreate
-        // once the db exists unless you upgrade versions
-        db.execSQL("CREATE TABLE IF NOT EXISTS inventory (sku TEXT PRIMARY KEY, description TEXT, quantity INTEGER)");
-
-        inventoryList = dbHelper.getAllItems();
-
-        // create our adapter
-        adapter = new InventoryAdapter(this, inventoryList, dbHelper);
-        rvInventory.setLayoutManager(new GridLayoutManager(this, 1)); // set the manager for the rowview
-        rvInventory.setAdapter(adapter); // set the adapter
+        // create our repository, it reads and writes in the background
+        repository = new InventoryRepository(this);
+
+        GridLayoutManager layoutManager = new GridLayoutManager(this, 1);
+        // lay out the row about to scroll in during the idle time between frames
+        layoutManager.setItemPrefetchEnabled(true);
+        rvInventory.setLayoutManager(layoutManager); // set the manager for the rowview
+
+        // the list fills its weighted slot whatever the rows hold, so a row change never re-lays out the screen
+        rvInventory.setHasFixedSize(true);
+        // keep a few rows just scrolled off bound, scrolling back then reuses them without rebinding
+        rvInventory.setItemViewCacheSize(rowCacheSize);
+
+        // create our adapter once we know how big the table is, large tables are read a window of pages at a time
+        repository.getItemCount(count -> {
+            if (count > pagingThreshold) {
+                PagedInventoryAdapter pagedAdapter = new PagedInventoryAdapter(this, repository, count, pageSize, maxPages);
+                adapter = pagedAdapter;
+                rvInventory.setAdapter(pagedAdapter); // set the adapter
+            } else {
+                repository.getSnapshot(items -> {
+                    InventoryAdapter fullAdapter = new InventoryAdapter(this, items, repository);
+                    adapter = fullAdapter;
+                    rvInventory.setAdapter(fullAdapter); // set the adapter
+                });
+            }
+        });
 
         // bind an event to the add item button
         btnAddItem.setOnClickListener(v -> {
+            // the list is still loading
+            if (adapter == null) return;
 
             // wrap adapter.addItem() inside of post to only call after RV finishes layout pass
             rvInventory.post(() -> {
@@ -71,6 +92,14 @@ public class InventoryActivity extends AppCompatActivity {
         });
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+
+        // stop the adapter's background search
+        if (adapter != null) adapter.release();
+    }
+
     /**
      * Method to bind a search view to our filter method in InventoryAdapter.java
      * @param sv The searchview to bind
@@ -81,13 +110,13 @@ public class InventoryActivity extends AppCompatActivity {
 
             @Override
             public boolean onQueryTextSubmit(String query) {
-                adapter.filter(query);
+                if (adapter != null) adapter.filter(query);
                 return true;
             }
 
             @Override
             public boolean onQueryTextChange(String newText) {
-                adapter.filter(newText);
+                if (adapter != null) adapter.filter(newText);
                 return true;
             }
 
@@ -11,7 +11,7 @@ import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.content.ContextCompat;
 
-import com.example.warehouseapp.Database.UserHelper;
+import com.example.warehouseapp.Database.UserRepository;
 import com.example.warehouseapp.R;
 
 public class LoginActivity extends AppCompatActivity {
@@ -20,8 +20,8 @@ public class LoginActivity extends AppCompatActivity {
     private EditText usernameInput, passwordInput;
     private Button btnLogin, btnRegister;
 
-    // our user data base helper
-    private UserHelper dbHelper;
+    // our user repository, all lookups and hashing run off the main thread
+    private UserRepository userRepository;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -38,37 +38,17 @@ public class LoginActivity extends AppCompatActivity {
         btnLogin = findViewById(R.id.btnLogin);
         btnRegister = findViewById(R.id.btnRegister);
 
-        // establish our helper
-        dbHelper = new UserHelper(this);
+        // establish our repository
+        userRepository = new UserRepository(this);
 
         // register an event listener for when the user clicks login
         btnLogin.setOnClickListener(v -> {
-            dbHelper.drop();
             // grab the username/password for the views
             String username = usernameInput.getText().toString().trim();
             String password = passwordInput.getText().toString().trim();
 
-            boolean isLoginValid = dbHelper.validateUser(username, password); // check if the login is valid
-
-            // if the login is not valid, do not log the user in
-            if(!isLoginValid) {
-                Toast.makeText(this, "Invalid credentials were entered", Toast.LENGTH_SHORT).show();
-                return;
-            }
-
-
-            // popup a short term message indicating success
-            Toast.makeText(this, "Login was successful", Toast.LENGTH_SHORT).show();
-
-            // move to InventoryActivity after login
-            Intent intent = new Intent(this, InventoryActivity.class);
-
-            // start the activity
-            startActivity(intent);
-
-            finish(); // finish
-
-
+            // validate once the drop has gone through, both run in the background
+            userRepository.drop(ignored -> userRepository.validateUser(username, password, this::onLoginResult));
         });
 
         // event listener for when the user clicks register new user
@@ -83,18 +63,44 @@ public class LoginActivity extends AppCompatActivity {
                 return;
             }
 
-            // if the register process was successful
-            if(dbHelper.registerUser(username, password)) {
-                Toast.makeText(this, "Account created successfully. You may now login", Toast.LENGTH_SHORT).show();
-                return;
-            }
+            // register in the background and report back on the main thread
+            userRepository.registerUser(username, password, registered -> {
+                // if the register process was successful
+                if(registered) {
+                    Toast.makeText(this, "Account created successfully. You may now login", Toast.LENGTH_SHORT).show();
+                    return;
+                }
 
-            // if the void method wasn't escaped, there was an issue
-            Toast.makeText(this, "There was an error with creating your account. Does the already exist?", Toast.LENGTH_SHORT).show();
+                // if the void method wasn't escaped, there was an issue
+                Toast.makeText(this, "There was an error with creating your account. Does the already exist?", Toast.LENGTH_SHORT).show();
+            });
 
         });
     }
 
+    /**
+     * Method called on the main thread once the credentials have been checked
+     * @param isLoginValid Whether the login is valid
+     */
+    private void onLoginResult(boolean isLoginValid) {
+        // if the login is not valid, do not log the user in
+        if(!isLoginValid) {
+            Toast.makeText(this, "Invalid credentials were entered", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        // popup a short term message indicating success
+        Toast.makeText(this, "Login was successful", Toast.LENGTH_SHORT).show();
+
+        // move to InventoryActivity after login
+        Intent intent = new Intent(this, InventoryActivity.class);
+
+        // start the activity
+        startActivity(intent);
+
+        finish(); // finish
+    }
+
     /**
      * Method to handle the SMS permission check
      */
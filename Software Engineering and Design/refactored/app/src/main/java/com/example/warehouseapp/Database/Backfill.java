@@ -0,0 +1,36 @@
+package com.example.warehouseapp.Database;
+
+import android.database.sqlite.SQLiteDatabase;
+
+/**
+ * Work a migration leaves behind for rows that existed before it, such as filling a new index.
+ * Backfills run in rowid order a chunk at a time on the writer thread (see Backfills), so a large
+ * table never holds up startup and the app's own writes get in between chunks.
+ */
+abstract class Backfill {
+
+    // key in the backfills table
+    final String name;
+
+    // table whose rowids are walked
+    final String table;
+
+    Backfill(String name, String table) {
+        this.name = name;
+        this.table = table;
+    }
+
+    /**
+     * Method to process one chunk of rows, runs inside the chunk's transaction
+     * @param db The open database
+     * @param afterRowid Rows above this rowid
+     * @param upToRowid Up to and including this rowid
+     */
+    abstract void fill(SQLiteDatabase db, long afterRowid, long upToRowid);
+
+    /**
+     * Method called in the same transaction as the last chunk, once every row has been processed
+     * @param db The open database
+     */
+    abstract void finish(SQLiteDatabase db);
+}
@@ -0,0 +1,163 @@
+package com.example.warehouseapp.Database;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs the backfills migrations have scheduled. Progress is kept in the backfills table, one row per
+ * unfinished backfill holding the last rowid processed, so a backfill cut short by the process dying
+ * picks up where it stopped on the next launch.
+ */
+final class Backfills {
+
+    static final String table = "backfills";
+    static final String nameColumn = "name";
+    static final String positionColumn = "position";
+
+    // rows per transaction, small enough that a save queued behind a chunk is not noticeably delayed
+    static final int chunkSize = 1000;
+
+    // fills inventory_fts for rows written before the index existed
+    static final Backfill searchIndex = new Backfill("inventory_fts", InventoryHelper.table) {
+        @Override
+        void fill(SQLiteDatabase db, long afterRowid, long upToRowid) {
+            InventoryHelper.indexRows(db, afterRowid, upToRowid);
+        }
+
+        @Override
+        void finish(SQLiteDatabase db) {
+            // every row is indexed, the triggers no longer need to check the backfill position
+            InventoryHelper.createSearchTriggers(db, null);
+        }
+    };
+
+    // every backfill a migration can schedule, looked up by name when resuming
+    private static final Backfill[] known = {searchIndex};
+
+    // backfills are resumed once per process
+    private static final AtomicBoolean resumed = new AtomicBoolean(false);
+
+    private Backfills() {}
+
+    static void createTable(SQLiteDatabase db) {
+        db.execSQL(String.format("CREATE TABLE IF NOT EXISTS %s (%s TEXT PRIMARY KEY, %s INTEGER NOT NULL)", table, nameColumn, positionColumn));
+    }
+
+    /**
+     * Method for a migration to queue a backfill, it starts from the first row
+     * @param db The database being upgraded
+     * @param backfill The backfill to run
+     */
+    static void schedule(SQLiteDatabase db, Backfill backfill) {
+        db.execSQL(String.format("INSERT OR REPLACE INTO %s (%s, %s) VALUES (?, 0)", table, nameColumn, positionColumn),
+                new Object[]{backfill.name});
+    }
+
+    /**
+     * Method to start any unfinished backfills on the writer thread. Each chunk is queued as its own write,
+     * so saves submitted meanwhile run between chunks rather than after the whole backfill.
+     * @param database The shared database
+     * @param executor The executor whose writer thread runs the chunks
+     */
+    static void resume(WarehouseDatabase database, DatabaseExecutor executor) {
+        if (!resumed.compareAndSet(false, true)) return;
+
+        executor.write(() -> {
+            for (Backfill backfill : pending(database.getDatabase())) {
+                queueChunk(database, executor, backfill);
+            }
+            return null;
+        }, null);
+    }
+
+    private static void queueChunk(WarehouseDatabase database, DatabaseExecutor executor, Backfill backfill) {
+        executor.write(() -> {
+            if (runChunk(database.getDatabase(), backfill, chunkSize)) queueChunk(database, executor, backfill);
+            return null;
+        }, null);
+    }
+
+    /**
+     * Method to list the backfills that have not finished
+     * @param db The open database
+     * @return The backfills, in no particular order
+     */
+    static List<Backfill> pending(SQLiteDatabase db) {
+        List<Backfill> backfills = new ArrayList<>();
+        Cursor cursor = db.query(table, new String[]{nameColumn}, null, null, null, null, null);
+        try {
+            while (cursor.moveToNext()) {
+                String name = cursor.getString(0);
+                for (Backfill backfill : known) {
+                    if (backfill.name.equals(name)) backfills.add(backfill);
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+        return backfills;
+    }
+
+    /**
+     * Method to process the next chunk of a backfill in one transaction.
+     * The last chunk runs to the end of the table and calls finish in the same transaction, so no row
+     * written meanwhile can slip between the final chunk and the backfill being marked done.
+     * @param db The open database
+     * @param backfill The backfill to advance
+     * @param chunkSize Most rows to process
+     * @return true if rows remain, false once the backfill is finished
+     */
+    static boolean runChunk(SQLiteDatabase db, Backfill backfill, int chunkSize) {
+        db.beginTransaction();
+        try {
+            Long position = position(db, backfill);
+            if (position == null) {
+                db.setTransactionSuccessful();
+                return false;
+            }
+
+            // the rowid that closes this chunk, or null if fewer than chunkSize rows are left
+            Long upTo = null;
+            Cursor cursor = db.rawQuery(String.format("SELECT rowid FROM %s WHERE rowid > ? ORDER BY rowid LIMIT 1 OFFSET %d",
+                    backfill.table, chunkSize - 1), new String[]{String.valueOf(position)});
+            try {
+                if (cursor.moveToFirst()) upTo = cursor.getLong(0);
+            } finally {
+                cursor.close();
+            }
+
+            if (upTo == null) {
+                backfill.fill(db, position, Long.MAX_VALUE);
+                db.delete(table, nameColumn + " = ?", new String[]{backfill.name});
+                backfill.finish(db);
+                Log.i("DB", "backfill finished: " + backfill.name);
+            } else {
+                backfill.fill(db, position, upTo);
+                db.execSQL(String.format("UPDATE %s SET %s = ? WHERE %s = ?", table, positionColumn, nameColumn),
+                        new Object[]{upTo, backfill.name});
+            }
+
+            db.setTransactionSuccessful();
+            return upTo != null;
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * @return The last rowid a backfill processed, or null if it is not pending
+     */
+    private static Long position(SQLiteDatabase db, Backfill backfill) {
+        Cursor cursor = db.query(table, new String[]{positionColumn}, nameColumn + " = ?", new String[]{backfill.name}, null, null, null);
+        try {
+            return cursor.moveToFirst() ? cursor.getLong(0) : null;
+        } finally {
+            cursor.close();
+        }
+    }
+}
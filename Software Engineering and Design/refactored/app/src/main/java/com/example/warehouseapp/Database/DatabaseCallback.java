@@ -0,0 +1,22 @@
+package com.example.warehouseapp.Database;
+
+/**
+ * Receives the result of a database task on the main thread
+ * @param <T> The result type
+ */
+public interface DatabaseCallback<T> {
+
+    /**
+     * Called on the main thread once the task finished
+     * @param result The value the task produced
+     */
+    void onComplete(T result);
+
+    /**
+     * Called on the main thread if the task threw. By default the failure is only logged.
+     * @param e The exception thrown by the task
+     */
+    default void onError(Exception e) {
+        android.util.Log.e("DB", "database task failed", e);
+    }
+}
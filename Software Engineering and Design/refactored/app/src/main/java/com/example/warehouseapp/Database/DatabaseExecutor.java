@@ -0,0 +1,113 @@
+package com.example.warehouseapp.Database;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs database work off the main thread.
+ * Every write goes through one writer thread, so writes are applied in the order they were submitted,
+ * while reads share a small pool and can run alongside each other. Results are posted back to the main thread.
+ */
+public final class DatabaseExecutor {
+
+
+    private static volatile DatabaseExecutor instance;
+
+    private final ExecutorService writer;
+    private final ExecutorService readers;
+    private final Executor callbackExecutor;
+
+    /**
+     * @param readerThreads Size of the read pool
+     * @param callbackExecutor Where callbacks are delivered, the main thread in the app
+     */
+    DatabaseExecutor(int readerThreads, Executor callbackExecutor) {
+        this.writer = Executors.newSingleThreadExecutor(namedThreads("db-writer"));
+        this.readers = Executors.newFixedThreadPool(readerThreads, namedThreads("db-reader"));
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * Method to get the shared executor, which delivers callbacks on the main thread
+     * @return The process-wide instance
+     */
+    public static DatabaseExecutor getInstance() {
+        if (instance == null) {
+            synchronized (DatabaseExecutor.class) {
+                if (instance == null) {
+                    Handler mainHandler = new Handler(Looper.getMainLooper());
+                    // one reader thread per read connection the database keeps open
+                    instance = new DatabaseExecutor(WarehouseDatabase.readerConnections, mainHandler::post);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Method to run a read on the reader pool
+     * @param work The query to run
+     * @param callback Receives the result on the main thread, may be null
+     * @return A future for the result, cancel it to drop a read that is no longer needed
+     */
+    public <T> Future<T> read(Callable<T> work, DatabaseCallback<T> callback) {
+        return submit(readers, work, callback);
+    }
+
+    /**
+     * Method to run a write on the single writer thread
+     * @param work The write to run
+     * @param callback Receives the result on the main thread, may be null
+     * @return A future for the result
+     */
+    public <T> Future<T> write(Callable<T> work, DatabaseCallback<T> callback) {
+        return submit(writer, work, callback);
+    }
+
+    /**
+     * Method to hand a piece of work to the callback thread
+     * @param runnable The work to deliver
+     */
+    void deliver(Runnable runnable) {
+        callbackExecutor.execute(runnable);
+    }
+
+    /**
+     * Method to run a task and hand its outcome to the callback executor
+     */
+    private <T> Future<T> submit(ExecutorService service, Callable<T> work, DatabaseCallback<T> callback) {
+        return service.submit(() -> {
+            try {
+                T result = work.call();
+                if (callback != null) callbackExecutor.execute(() -> callback.onComplete(result));
+                return result;
+            } catch (Exception e) {
+                if (callback != null) callbackExecutor.execute(() -> callback.onError(e));
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * Method to build a thread factory whose threads are easy to spot in a trace
+     * @param prefix Thread name prefix
+     * @return The factory
+     */
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            // database threads should never keep the process alive on their own
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
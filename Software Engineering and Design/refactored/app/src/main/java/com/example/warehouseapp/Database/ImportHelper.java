@@ -0,0 +1,125 @@
+package com.example.warehouseapp.Database;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.example.warehouseapp.Types.InventoryItem;
+
+import java.util.Collection;
+
+/**
+ * Writes imported rows and remembers how far each import got. A chunk of rows and the checkpoint after it
+ * commit in the same transaction, so after a crash the import resumes exactly where the stored rows end.
+ */
+public class ImportHelper {
+
+    static final String table = "imports"; // one row per unfinished import
+    private static final String sourceColumn = "source"; // what is being imported, usually a uri
+    private static final String offsetColumn = "byte_offset"; // where in the file the next chunk starts
+    private static final String rowsColumn = "rows_written"; // rows stored so far
+
+    /**
+     * How far an unfinished import got
+     */
+    public static final class Checkpoint {
+        public final long offset;
+        public final long rowsWritten;
+
+        Checkpoint(long offset, long rowsWritten) {
+            this.offset = offset;
+            this.rowsWritten = rowsWritten;
+        }
+    }
+
+    private final WarehouseDatabase database;
+    private final InventoryHelper inventory;
+    private final StockLedgerHelper ledger;
+
+    public ImportHelper(Context context) {
+        this(WarehouseDatabase.getInstance(context));
+    }
+
+    ImportHelper(WarehouseDatabase database) {
+        this.database = database;
+        this.inventory = new InventoryHelper(database);
+        this.ledger = new StockLedgerHelper(database);
+    }
+
+    static void createTable(SQLiteDatabase db) {
+        db.execSQL(String.format("CREATE TABLE IF NOT EXISTS %s (%s TEXT PRIMARY KEY, %s INTEGER NOT NULL, %s INTEGER NOT NULL)",
+                table, sourceColumn, offsetColumn, rowsColumn));
+    }
+
+    /**
+     * Method to look up where an earlier run of an import stopped
+     * @param source The import's source
+     * @return The checkpoint, or null if the import never started or already finished
+     */
+    public Checkpoint getCheckpoint(String source) {
+        Cursor cursor = database.getDatabase().query(table, new String[]{offsetColumn, rowsColumn}, sourceColumn + " = ?",
+                new String[]{source}, null, null, null);
+        try {
+            return cursor.moveToFirst() ? new Checkpoint(cursor.getLong(0), cursor.getLong(1)) : null;
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Method to store a chunk of imported rows along with the checkpoint after it, all or nothing
+     * @param source The import's source
+     * @param items The rows to upsert
+     * @param offset Byte offset just past the chunk's last record
+     * @param rowsBefore Rows the import had stored before this chunk
+     * @return The number of rows in the chunk that were stored
+     */
+    public int writeChunk(String source, Collection<InventoryItem> items, long offset, long rowsBefore) {
+        SQLiteDatabase db = database.getDatabase();
+        boolean committed = false;
+
+        db.beginTransaction();
+        try {
+            // the bulk upsert's own transaction nests inside this one
+            int written = 0;
+            for (boolean result : inventory.insertOrUpdateItems(items)) {
+                if (result) written++;
+            }
+
+            db.execSQL(String.format("INSERT OR REPLACE INTO %s (%s, %s, %s) VALUES (?, ?, ?)", table, sourceColumn, offsetColumn, rowsColumn),
+                    new Object[]{source, offset, rowsBefore + written});
+
+            db.setTransactionSuccessful();
+            committed = true;
+            return written;
+        } finally {
+            db.endTransaction();
+            // the upsert already applied its rows to the stock levels, if the chunk rolled back they're wrong.
+            // Drop them, they're loaded again after the next write
+            if (!committed) database.dropStockLevels();
+            // the upsert invalidated its rows before this transaction committed, a read in between may have cached the old ones
+            database.getItemCache().invalidate(items);
+        }
+    }
+
+    /**
+     * Method to mark an import done: its checkpoint goes, the stock ledger is compacted if the import
+     * logged enough movements, the sku filter is resized if the import outgrew it, and the WAL it filled
+     * is folded back into the database
+     * @param source The import's source
+     */
+    public void finish(String source) {
+        clearCheckpoint(source);
+        ledger.compactIfDue();
+        inventory.buildSkuFilterIfNeeded();
+        database.checkpoint();
+    }
+
+    /**
+     * Method to forget an import, once it has finished or the user gives up on it
+     * @param source The import's source
+     */
+    public void clearCheckpoint(String source) {
+        database.getDatabase().delete(table, sourceColumn + " = ?", new String[]{source});
+    }
+}
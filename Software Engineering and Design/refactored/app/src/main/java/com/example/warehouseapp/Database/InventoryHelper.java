@@ -3,34 +3,73 @@ package com.example.warehouseapp.Database;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.sqlite.SQLiteDatabase;
-import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteException;
+import android.database.sqlite.SQLiteStatement;
 
 import com.example.warehouseapp.Types.InventoryItem;
+import com.example.warehouseapp.Types.InventorySnapshot;
+import com.example.warehouseapp.Types.InventoryTotals;
+import com.example.warehouseapp.Types.StockAdjustment;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
-public class InventoryHelper extends SQLiteOpenHelper {
-
-    // database name
-    private static final String databaseName = "warehouse_inventory.db";
-    private static final int databaseVersion = 2;
+public class InventoryHelper {
 
     public static final String table = "inventory"; // table
     public static final String skuColumn = "sku"; // sku col
     public static final String descColumn = "description"; // desc col
     public static final String quantColumn = "quantity"; // quant col
+    public static final String thresholdColumn = "reorder_threshold"; // reorder threshold col
+
+    // the stock level expression, queries must spell it exactly like this for sqlite to use the index on it
+    private static final String stockLevel = quantColumn + " - " + thresholdColumn;
+
+    // full-text index over sku and description, kept in sync with the inventory table by triggers
+    static final String searchTable = "inventory_fts";
+    // rows per query when streaming the table, a chunk fits comfortably in one cursor window
+    private static final int streamChunkSize = 1000;
+
+    private static final String[] searchTriggers = {"inventory_fts_bd", "inventory_fts_bu", "inventory_fts_ai", "inventory_fts_au"};
+
+    // one row of running totals, kept current by triggers so the dashboard never scans the table
+    static final String totalsTable = "inventory_totals";
+    private static final String unitsColumn = "units";
+    private static final String skusColumn = "skus";
+    private static final String outOfStockColumn = "out_of_stock";
+
+    // smallest sku filter built, so a nearly empty table doesn't need a rebuild after a handful of saves
+    private static final int minFilterSkus = 1024;
+
+    // a row's contribution to each total. A null quantity counts as no units and, like getOutOfStockItems, not out of stock
+    private static final String units = "coalesce(%1$s.quantity, 0)";
+    private static final String outOfStock = "coalesce(%1$s.quantity <= 0, 0)";
+
+    // shared owner of the database file, the connection stays open for the life of the process
+    private final WarehouseDatabase database;
 
     public InventoryHelper(Context context) {
-        super(context, databaseName, null, databaseVersion);
+        this(WarehouseDatabase.getInstance(context));
+    }
+
+    InventoryHelper(WarehouseDatabase database) {
+        this.database = database;
     }
 
-    @Override
-    public void onCreate(SQLiteDatabase db) {
+    /**
+     * Method to create the inventory table, called by WarehouseDatabase
+     * @param db The database being created
+     */
+    static void createTable(SQLiteDatabase db) {
 
         // create inventory table if not exists
-        String query = String.format("CREATE TABLE IF NOT EXISTS %s (%s TEXT PRIMARY KEY, %s TEXT, %s INTEGER)", table, skuColumn, descColumn, quantColumn);
+        String query = String.format("CREATE TABLE IF NOT EXISTS %s (%s TEXT PRIMARY KEY, %s TEXT, %s INTEGER, %s INTEGER NOT NULL DEFAULT 0)",
+                table, skuColumn, descColumn, quantColumn, thresholdColumn);
 
         db.execSQL(query);
 
@@ -38,10 +77,101 @@ public class InventoryHelper extends SQLiteOpenHelper {
         android.util.Log.d("DB", "onCreate called: " + query);
     }
 
-    @Override
-    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        db.execSQL("DROP TABLE IF EXISTS " + table);
-        onCreate(db);
+    /**
+     * Method to create the indexes behind the stock queries: one on the quantity for out-of-stock items,
+     * and one on quantity minus threshold for items at or below their reorder threshold.
+     * @param db The open database
+     */
+    static void createStockIndexes(SQLiteDatabase db) {
+        db.execSQL(String.format("CREATE INDEX IF NOT EXISTS inventory_quantity ON %s (%s)", table, quantColumn));
+        db.execSQL(String.format("CREATE INDEX IF NOT EXISTS inventory_stock_level ON %s (%s)", table, stockLevel));
+    }
+
+    /**
+     * Method to create the totals row and the triggers that keep it current. Each trigger adds the changed row's
+     * contribution, so a write costs one extra single-row update and reading the totals is one row lookup.
+     * The row is seeded from whatever the table already holds
+     * @param db The open database
+     */
+    static void createTotals(SQLiteDatabase db) {
+        db.execSQL(String.format("CREATE TABLE IF NOT EXISTS %s (id INTEGER PRIMARY KEY CHECK (id = 1), %s INTEGER NOT NULL, %s INTEGER NOT NULL, %s INTEGER NOT NULL)",
+                totalsTable, unitsColumn, skusColumn, outOfStockColumn));
+
+        db.execSQL(String.format("INSERT OR REPLACE INTO %s (id, %s, %s, %s) SELECT 1, coalesce(sum(%s), 0), count(*), coalesce(sum(%s), 0) FROM %s",
+                totalsTable, unitsColumn, skusColumn, outOfStockColumn,
+                String.format(units, table), String.format(outOfStock, table), table));
+
+        // REPLACE conflicts fire the delete trigger for the old row, recursive_triggers is on
+        db.execSQL(String.format("CREATE TRIGGER IF NOT EXISTS inventory_totals_ai AFTER INSERT ON %1$s BEGIN "
+                        + "UPDATE %2$s SET %3$s = %3$s + %6$s, %4$s = %4$s + 1, %5$s = %5$s + %7$s WHERE id = 1; END",
+                table, totalsTable, unitsColumn, skusColumn, outOfStockColumn,
+                String.format(units, "new"), String.format(outOfStock, "new")));
+
+        db.execSQL(String.format("CREATE TRIGGER IF NOT EXISTS inventory_totals_ad AFTER DELETE ON %1$s BEGIN "
+                        + "UPDATE %2$s SET %3$s = %3$s - %6$s, %4$s = %4$s - 1, %5$s = %5$s - %7$s WHERE id = 1; END",
+                table, totalsTable, unitsColumn, skusColumn, outOfStockColumn,
+                String.format(units, "old"), String.format(outOfStock, "old")));
+
+        db.execSQL(String.format("CREATE TRIGGER IF NOT EXISTS inventory_totals_au AFTER UPDATE OF %1$s ON %2$s BEGIN "
+                        + "UPDATE %3$s SET %4$s = %4$s + %6$s - %7$s, %5$s = %5$s + %8$s - %9$s WHERE id = 1; END",
+                quantColumn, table, totalsTable, unitsColumn, outOfStockColumn,
+                String.format(units, "new"), String.format(units, "old"),
+                String.format(outOfStock, "new"), String.format(outOfStock, "old")));
+    }
+
+    /**
+     * Method to create the full-text search index and the triggers that keep it in sync with the inventory table.
+     * Android's SQLite ships FTS4 (not FTS5), so this is an external-content FTS4 table keyed by the inventory rowid.
+     * Rows already in the table are not indexed here, upgrades fill the index with a Backfill instead.
+     * @param db The open database
+     */
+    static void createSearchIndex(SQLiteDatabase db) {
+        db.execSQL(String.format("CREATE VIRTUAL TABLE IF NOT EXISTS %s USING fts4(content=\"%s\", %s, %s)",
+                searchTable, table, skuColumn, descColumn));
+
+        createSearchTriggers(db, null);
+    }
+
+    /**
+     * Method to (re)create the triggers that keep the search index in sync.
+     * While the index is being backfilled a guard limits the triggers to rows the backfill has already copied,
+     * rows past it are picked up by the backfill with whatever values they have by then.
+     * @param db The open database
+     * @param backfillName Name of the running backfill to guard on, or null once the index is complete
+     */
+    static void createSearchTriggers(SQLiteDatabase db, String backfillName) {
+        String oldGuard = "", newGuard = "";
+        if (backfillName != null) {
+            String position = String.format("(SELECT %s FROM %s WHERE %s = '%s')",
+                    Backfills.positionColumn, Backfills.table, Backfills.nameColumn, backfillName);
+            oldGuard = " WHEN old.rowid <= " + position;
+            newGuard = " WHEN new.rowid <= " + position;
+        }
+
+        for (String trigger : searchTriggers) db.execSQL("DROP TRIGGER IF EXISTS " + trigger);
+
+        // old row out of the index before it changes, new row in after. REPLACE conflicts fire the
+        // delete trigger because WarehouseDatabase turns on recursive_triggers.
+        db.execSQL(String.format("CREATE TRIGGER inventory_fts_bd BEFORE DELETE ON %s%s BEGIN " +
+                "DELETE FROM %s WHERE docid = old.rowid; END", table, oldGuard, searchTable));
+        // updates only touch the index when an indexed column is set, quantity changes skip it
+        db.execSQL(String.format("CREATE TRIGGER inventory_fts_bu BEFORE UPDATE OF %s, %s ON %s%s BEGIN " +
+                "DELETE FROM %s WHERE docid = old.rowid; END", skuColumn, descColumn, table, oldGuard, searchTable));
+        db.execSQL(String.format("CREATE TRIGGER inventory_fts_ai AFTER INSERT ON %1$s%5$s BEGIN " +
+                "INSERT INTO %2$s(docid, %3$s, %4$s) VALUES (new.rowid, new.%3$s, new.%4$s); END", table, searchTable, skuColumn, descColumn, newGuard));
+        db.execSQL(String.format("CREATE TRIGGER inventory_fts_au AFTER UPDATE OF %3$s, %4$s ON %1$s%5$s BEGIN " +
+                "INSERT INTO %2$s(docid, %3$s, %4$s) VALUES (new.rowid, new.%3$s, new.%4$s); END", table, searchTable, skuColumn, descColumn, newGuard));
+    }
+
+    /**
+     * Method to copy a range of existing rows into the search index, used by the search index backfill
+     * @param db The open database
+     * @param afterRowid Rows above this rowid are copied
+     * @param upToRowid Up to and including this rowid
+     */
+    static void indexRows(SQLiteDatabase db, long afterRowid, long upToRowid) {
+        db.execSQL(String.format("INSERT INTO %1$s(docid, %2$s, %3$s) SELECT rowid, %2$s, %3$s FROM %4$s WHERE rowid > ? AND rowid <= ?",
+                searchTable, skuColumn, descColumn, table), new Object[]{afterRowid, upToRowid});
     }
 
     /**
@@ -50,23 +180,192 @@ public class InventoryHelper extends SQLiteOpenHelper {
      * @return boolean indicating s/f
      */
     public boolean insertOrUpdateItem(InventoryItem item) {
-        SQLiteDatabase db = this.getWritableDatabase();
+        SQLiteDatabase db = database.getDatabase();
 
         // serialize values and package into a CV object
         ContentValues values = new ContentValues();
         values.put(skuColumn, item.getSku());
         values.put(descColumn, item.getDesc());
         values.put(quantColumn, item.getQuantity());
+        values.put(thresholdColumn, item.getReorderThreshold());
+
+        // the quantity change goes into the stock ledger in the same transaction as the save
+        db.beginTransaction();
+        try {
+            // added under the write lock, so a filter rebuild can't finish without seeing this sku
+            addKnownSku(item.getSku());
+            db.execSQL(StockLedgerHelper.appendSetSql, new Object[]{item.getSku(), item.getQuantity(), System.currentTimeMillis()});
+
+            // execute query, storing result
+            // the enum tells the inserting method to replace any item that already exists based on the primary key (sku)
+            long result = db.insertWithOnConflict(table, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            if (result == -1) return false;
+
+            db.setTransactionSuccessful();
+            setStockLevel(item.getSku(), item.getQuantity());
+        } finally {
+            db.endTransaction();
+            database.getItemCache().invalidate(item.getSku());
+        }
 
-        // execute query, storing result
-        // the enum tells the inserting method to replace any item that already exists based on the primary key (sku)
-        long result = db.insertWithOnConflict(table, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+        // the connection is shared, so it is intentionally left open
+        return true;
+
+    }
+
+    /**
+     * Method to insert or update many items in a single transaction.
+     * One compiled statement is reused for every row, so a whole pallet costs one commit instead of one per item.
+     * A row that fails is reported and skipped, the rest of the batch is still written.
+     * @param items The items to insert or update
+     * @return boolean per item, in iteration order, indicating s/f
+     */
+    public boolean[] insertOrUpdateItems(Collection<InventoryItem> items) {
+        boolean[] results = new boolean[items.size()];
+        SQLiteDatabase db = database.getDatabase();
+
+        // same replace-on-conflict semantics as insertOrUpdateItem
+        String query = String.format("INSERT OR REPLACE INTO %s (%s, %s, %s, %s) VALUES (?, ?, ?, ?)", table, skuColumn, descColumn, quantColumn, thresholdColumn);
+        SQLiteStatement statement = db.compileStatement(query);
+        SQLiteStatement ledger = db.compileStatement(StockLedgerHelper.appendSetSql);
+        long now = System.currentTimeMillis();
+
+        db.beginTransaction();
+        try {
+            int i = 0;
+            for (InventoryItem item : items) {
+                if (item != null && item.getSku() != null) addKnownSku(item.getSku());
+                results[i++] = bindAndInsert(db, statement, ledger, item, now);
+            }
+            db.setTransactionSuccessful();
+
+            // only rows that were stored, and only once nothing can roll the batch back
+            i = 0;
+            for (InventoryItem item : items) {
+                if (results[i++]) setStockLevel(item.getSku(), item.getQuantity());
+            }
+        } finally {
+            db.endTransaction();
+            statement.close();
+            ledger.close();
+            // when this nests inside a caller's transaction the caller invalidates again after it commits
+            database.getItemCache().invalidate(items);
+        }
+
+        return results;
+    }
+
+    /**
+     * Method to bind one item to the compiled upsert statement and execute it, logging its quantity change first.
+     * Both run under a savepoint, so a row that fails leaves no ledger entry behind while the rest of the batch commits
+     * @param db The database, inside the batch's transaction
+     * @param statement The compiled upsert statement
+     * @param ledger The compiled stock ledger append for a save
+     * @param item The item to write
+     * @param now Timestamp for the ledger, epoch millis
+     * @return boolean indicating s/f
+     */
+    private static boolean bindAndInsert(SQLiteDatabase db, SQLiteStatement statement, SQLiteStatement ledger, InventoryItem item, long now) {
+        // the sku is the primary key, a row without one can't be stored
+        if (item == null || item.getSku() == null) return false;
+
+        ledger.clearBindings();
+        ledger.bindString(1, item.getSku());
+        ledger.bindLong(2, item.getQuantity());
+        ledger.bindLong(3, now);
+
+        statement.clearBindings();
+        statement.bindString(1, item.getSku());
+        if (item.getDesc() == null) {
+            statement.bindNull(2);
+        } else {
+            statement.bindString(2, item.getDesc());
+        }
+        statement.bindLong(3, item.getQuantity());
+        statement.bindLong(4, item.getReorderThreshold());
+
+        db.execSQL("SAVEPOINT upsert_row");
+        boolean stored = false;
+        try {
+            // the ledger row goes first, it's worked out from the quantity being replaced
+            ledger.executeInsert();
+            stored = statement.executeInsert() != -1;
+        } catch (SQLiteException e) {
+            // one bad row should not roll back the whole batch
+            android.util.Log.w("DB", "bulk upsert failed for " + item.getSku(), e);
+        } finally {
+            // a failed upsert takes its ledger row with it, the ledger only records writes that happened
+            if (!stored) db.execSQL("ROLLBACK TO upsert_row");
+            db.execSQL("RELEASE upsert_row");
+        }
+        return stored;
+    }
 
-        // close the conn
-        db.close();
+    /**
+     * Method to change an item's quantity by a delta in sql, so concurrent adjustments to the same sku
+     * can't overwrite each other the way reading, changing and saving the whole item can.
+     * Only the quantity column is written.
+     * @param sku The key of the item
+     * @param delta The change, negative for a pick
+     * @return The new quantity, or null if there is no such item
+     */
+    public Integer adjustQuantity(String sku, int delta) {
+        List<Integer> quantities = adjustQuantities(Collections.singletonList(new StockAdjustment(sku, delta)));
+        return quantities.get(0);
+    }
 
-        return result != -1;
+    /**
+     * Method to apply many quantity changes in one transaction, for example a whole pick list
+     * @param adjustments The changes, applied in order
+     * @return The new quantity after each change, null where the sku doesn't exist
+     */
+    public List<Integer> adjustQuantities(List<StockAdjustment> adjustments) {
+        List<Integer> quantities = new ArrayList<>(adjustments.size());
+        SQLiteDatabase db = database.getDatabase();
+
+        SQLiteStatement update = db.compileStatement(String.format("UPDATE %1$s SET %2$s = %2$s + ? WHERE %3$s = ?", table, quantColumn, skuColumn));
+        SQLiteStatement read = db.compileStatement(String.format("SELECT %s FROM %s WHERE %s = ?", quantColumn, table, skuColumn));
+        SQLiteStatement ledger = db.compileStatement(StockLedgerHelper.appendSql);
+        long now = System.currentTimeMillis();
+
+        // the write lock is held from the update to the read, so the quantity read back is the one this update produced
+        db.beginTransaction();
+        try {
+            for (StockAdjustment adjustment : adjustments) {
+                update.bindLong(1, adjustment.getDelta());
+                update.bindString(2, adjustment.getSku());
+
+                if (update.executeUpdateDelete() == 0) {
+                    quantities.add(null);
+                    continue;
+                }
+
+                read.bindString(1, adjustment.getSku());
+                quantities.add((int) read.simpleQueryForLong());
+
+                // the same change goes into the stock ledger, committed with the quantity it produced
+                ledger.bindString(1, adjustment.getSku());
+                ledger.bindLong(2, adjustment.getDelta());
+                ledger.bindLong(3, now);
+                bindOptional(ledger, 4, adjustment.getReason());
+                bindOptional(ledger, 5, adjustment.getUser());
+                ledger.executeInsert();
+            }
+            db.setTransactionSuccessful();
+
+            // in order, so a sku adjusted twice ends up at its last quantity
+            for (int i = 0; i < adjustments.size(); i++) {
+                if (quantities.get(i) != null) setStockLevel(adjustments.get(i).getSku(), quantities.get(i));
+            }
+        } finally {
+            db.endTransaction();
+            update.close();
+            read.close();
+            ledger.close();
+            for (StockAdjustment adjustment : adjustments) database.getItemCache().invalidate(adjustment.getSku());
+        }
 
+        return quantities;
     }
 
     /**
@@ -75,53 +374,466 @@ public class InventoryHelper extends SQLiteOpenHelper {
      * @return boolean indicating s/f
      */
     public boolean deleteItem(String sku) {
-        SQLiteDatabase db = this.getWritableDatabase();
+        SQLiteDatabase db = database.getDatabase();
+
+        db.beginTransaction();
+        try {
+            // whatever stock was left goes out in the ledger, before the row and its quantity are gone
+            db.execSQL(StockLedgerHelper.appendDeleteSql, new Object[]{System.currentTimeMillis(), sku});
+
+            // all error codes for this method are < 1
+            boolean deleted = db.delete(table, skuColumn + "=?", new String[]{sku}) > 0;
+            db.setTransactionSuccessful();
+
+            // the sku stays in the filter until the next rebuild, and in one being built if the pass already passed it
+            SkuFilter building = database.getBuildingSkuFilter();
+            if (deleted && building != null) building.removed();
+            SkuFilter filter = database.getSkuFilter();
+            if (deleted && filter != null) filter.removed();
+
+            if (deleted) removeStockLevel(sku);
+            return deleted;
+        } finally {
+            db.endTransaction();
+            database.getItemCache().invalidate(sku);
+        }
+    }
+
+    /**
+     * Method to bind a string that may be null
+     * @param statement The compiled statement
+     * @param index The parameter, starting at 1
+     * @param value The value or null
+     */
+    private static void bindOptional(SQLiteStatement statement, int index, String value) {
+        if (value == null) {
+            statement.bindNull(index);
+        } else {
+            statement.bindString(index, value);
+        }
+    }
+
+    /**
+     * Method to get one item by its sku. Hot skus are answered from the shared item cache,
+     * a miss reads the row by primary key and caches it
+     * @param sku The key of the item
+     * @return The item, or null if there is no such sku
+     */
+    public InventoryItem getItem(String sku) {
+        // most skus we don't stock stop here, without touching sqlite
+        SkuFilter filter = database.getSkuFilter();
+        if (filter != null && !filter.mightContain(sku)) return null;
+
+        ItemCache cache = database.getItemCache();
+        InventoryItem item = cache.get(sku);
+        if (item != null) return item;
+
+        // taken before the read, so a write that lands while we query keeps what we read out of the cache
+        long generation = cache.generation();
+
+        Cursor cursor = database.getDatabase().query(table, null, skuColumn + " = ?", new String[]{sku}, null, null, null);
+        try (ItemCursor rows = new ItemCursor(cursor)) {
+            if (!rows.moveToNext()) return null;
+            item = rows.getItem();
+        }
+
+        cache.putIfCurrent(item, generation);
+        return item;
+    }
+
+    /**
+     * Method to check whether a sku is stocked, for scan ingest. Once the sku filter is built an unknown sku
+     * is almost always answered from memory, the rest go through getItem
+     * @param sku The scanned sku
+     * @return true if the inventory has the sku
+     */
+    public boolean hasItem(String sku) {
+        return getItem(sku) != null;
+    }
+
+    /**
+     * Method to check whether the sku filter is missing or stale with no rebuild already under way. Cheap, it only
+     * reads counters, so the writer can ask after every write
+     * @return true if buildSkuFilterIfNeeded would build
+     */
+    public boolean needsSkuFilter() {
+        SkuFilter filter = database.getSkuFilter();
+        return (filter == null || filter.isStale()) && database.getBuildingSkuFilter() == null;
+    }
+
+    /**
+     * Method to build the sku filter if there isn't one, or rebuild it once deletes or growth have made it stale.
+     * Cheap when neither is true. Must not be called on the main thread
+     * @return true if a filter was built
+     */
+    public boolean buildSkuFilterIfNeeded() {
+        SkuFilter filter = database.getSkuFilter();
+        if (filter != null && !filter.isStale()) return false;
+
+        return buildSkuFilter();
+    }
+
+    /**
+     * Method to build the sku filter from one streaming pass over the table and swap it in. The pass reads in short
+     * chunks outside any transaction, so writes carry on while it runs. Skus saved meanwhile are added to the new
+     * filter by addKnownSku, whether or not the pass gets to them. Must not be called on the main thread
+     * @return false if another rebuild was already running
+     */
+    public boolean buildSkuFilter() {
+        // room to double before it goes stale
+        SkuFilter filter = new SkuFilter(Math.max(minFilterSkus, 2 * getItemCount()), WarehouseDatabase.skuFilterFalsePositiveRate);
+        if (!database.startSkuFilter(filter)) return false;
+
+        boolean built = false;
+        try {
+            // an empty write transaction waits out any write that added its sku before the slot was claimed,
+            // so its row is committed before the pass starts and the pass finds it
+            SQLiteDatabase db = database.getDatabase();
+            db.beginTransaction();
+            db.endTransaction();
+
+            forEachRow(row -> filter.add(row.getSku()));
+            built = true;
+        } finally {
+            database.finishSkuFilter(built ? filter : null);
+        }
+        return true;
+    }
+
+    /**
+     * Method to read the quantity on hand for a sku, the hot path of every stock check. Once the stock levels are
+     * loaded this is a lookup in primitive arrays with no query and no item allocated, until then it goes through getItem
+     * @param sku The key of the item
+     * @param absent Returned when the sku isn't stocked
+     * @return The quantity, or absent
+     */
+    public int getQuantity(String sku, int absent) {
+        StockLevels levels = database.getStockLevels();
+        if (levels != null) return levels.getQuantity(sku, absent);
+
+        InventoryItem item = getItem(sku);
+        return item == null ? absent : item.getQuantity();
+    }
+
+    /**
+     * Method to check whether the stock levels still need loading, with no load already under way
+     * @return true if loadStockLevelsIfNeeded would load
+     */
+    public boolean needsStockLevels() {
+        return database.getStockLevels() == null && database.getStockLevelsLoad() == null;
+    }
 
-        // all error codes for this method are < 1
-        return db.delete(table, skuColumn + "=?", new String[]{sku}) > 0;
+    /**
+     * Method to load every sku's quantity into memory if that hasn't happened yet. Like the sku filter it's read in one
+     * streaming pass outside any transaction, so writes carry on meanwhile. They're applied to the load as they commit
+     * and the pass never overwrites a sku they touched, so the levels that go live match the table.
+     * Must not be called on the main thread
+     * @return true if the levels were loaded
+     */
+    public boolean loadStockLevelsIfNeeded() {
+        if (database.getStockLevels() != null) return false;
+
+        StockLevelsLoad load = new StockLevelsLoad(getItemCount());
+        if (!database.startStockLevels(load)) return false;
+
+        boolean loaded = false;
+        try {
+            // waits out any write that missed the load slot, so the pass sees its row
+            SQLiteDatabase db = database.getDatabase();
+            db.beginTransaction();
+            db.endTransaction();
+
+            forEachRow(row -> load.scanned(row.getSku(), row.getQuantity()));
+            loaded = !load.isAbandoned();
+        } finally {
+            database.finishStockLevels(loaded ? load : null);
+        }
+        return loaded;
     }
 
     /**
-     * Method to get all items in the inventory table
+     * Method to apply a stored quantity to the stock levels, or to the load if one is running. Called after
+     * setTransactionSuccessful but before the transaction ends, so writes land in the order they commit
+     * @param sku The key of the item
+     * @param quantity Its quantity now
+     */
+    private void setStockLevel(String sku, int quantity) {
+        // the load first, it swaps its levels in before clearing the slot so one of the two reads finds them
+        StockLevelsLoad load = database.getStockLevelsLoad();
+        if (load != null) {
+            load.written(sku, quantity);
+            return;
+        }
+
+        StockLevels levels = database.getStockLevels();
+        if (levels != null) levels.put(sku, quantity);
+    }
+
+    /**
+     * Method to take a deleted sku out of the stock levels, or out of the load if one is running
+     * @param sku The key of the deleted item
+     */
+    private void removeStockLevel(String sku) {
+        StockLevelsLoad load = database.getStockLevelsLoad();
+        if (load != null) {
+            load.deleted(sku);
+            return;
+        }
+
+        StockLevels levels = database.getStockLevels();
+        if (levels != null) levels.remove(sku);
+    }
+
+    /**
+     * Method to add a saved sku to the sku filter, and to the one being built if a rebuild is running.
+     * Has to be called inside the write's transaction
+     * @param sku The key of the item being saved
+     */
+    private void addKnownSku(String sku) {
+        // building first, a rebuild swaps its filter in before clearing the slot so one of the two reads finds it
+        SkuFilter building = database.getBuildingSkuFilter();
+        if (building != null) building.add(sku);
+
+        SkuFilter filter = database.getSkuFilter();
+        if (filter != null) filter.add(sku);
+    }
+
+    /**
+     * Method to get the cache behind getItem, for its hit and miss counts
+     * @return The shared item cache
+     */
+    public ItemCache getItemCache() {
+        return database.getItemCache();
+    }
+
+    /**
+     * Method to get all items in the inventory table.
+     * This holds the whole table in memory, code that only needs to walk it should use forEachItem or forEachRow.
      * @return A list of all items found
      */
     public List<InventoryItem> getAllItems() {
 
-        // establish a new list to populate
-        List<InventoryItem> items = new ArrayList<>();
+        SQLiteDatabase db = database.getDatabase();
 
-        SQLiteDatabase db = this.getReadableDatabase();
-
-        // dump the entire table
+        // dump the entire table, the columns are looked up once rather than per row
         Cursor cursor = db.query(table, null, null, null, null, null, null);
 
-        // if there's values
-        if(cursor.moveToFirst()) {
+        return readItems(cursor, cursor.getCount());
+    }
+
+    /**
+     * Method to load the whole table as a columnar snapshot for the list screen. Rows go straight into the
+     * columns and repeated descriptions share one string, no item is made per row.
+     * @return The snapshot, in sku order
+     */
+    public InventorySnapshot getSnapshot() {
+        InventorySnapshot.Builder builder = new InventorySnapshot.Builder(getItemCount());
+        forEachRow(row -> builder.add(row.getSku(), row.getDesc(), row.getQuantity(), row.getReorderThreshold()));
+        return builder.build();
+    }
+
+    /**
+     * Method to walk the whole table in sku order without loading it into memory, one item per row
+     * @param action Called with each item, on the calling thread
+     */
+    public void forEachItem(Consumer<InventoryItem> action) {
+        forEachRow(row -> action.accept(row.toItem()));
+    }
 
-            // loop over the entire list of values retrieved from db
-            do {
+    /**
+     * Method to walk the whole table in sku order, handing every row to the action in one reused InventoryRow,
+     * so a full pass allocates almost nothing beyond the strings sqlite returns.
+     * The table is read in keyset chunks on the sku rather than through one long cursor: android refills a cursor's
+     * window by re-running the query and stepping past every earlier row, which gets quadratic on large tables.
+     * Rows written during the walk may or may not be seen, but no sku is visited twice.
+     * Must not be called on the main thread.
+     * @param action Called with each row, the row must not be kept after the call returns
+     */
+    public void forEachRow(Consumer<InventoryRow> action) {
+        SQLiteDatabase db = database.getDatabase();
+        InventoryRow row = new InventoryRow();
+        String lastSku = null;
+
+        while (true) {
+            Cursor cursor;
+            if (lastSku == null) {
+                cursor = db.query(table, null, null, null, null, null, skuColumn + " ASC", String.valueOf(streamChunkSize));
+            } else {
+                cursor = db.query(table, null, skuColumn + " > ?", new String[]{lastSku}, null, null, skuColumn + " ASC", String.valueOf(streamChunkSize));
+            }
+
+            int read = 0;
+            try (ItemCursor rows = new ItemCursor(cursor)) {
+                while (rows.moveToNext()) {
+                    row.load(rows);
+                    action.accept(row);
+                    read++;
+                }
+            }
+
+            // a short chunk means the end of the table
+            if (read < streamChunkSize) return;
+            lastSku = row.getSku();
+        }
+    }
 
-                // deserialize and create a new InventoryItem object
-                String sku = cursor.getString(cursor.getColumnIndexOrThrow(skuColumn)); // throws err if there is no col index
-                String desc = cursor.getString(cursor.getColumnIndexOrThrow(descColumn));
-                int quant = cursor.getInt(cursor.getColumnIndexOrThrow(quantColumn));
-                InventoryItem item = new InventoryItem(sku, desc, quant);
+    /**
+     * Method to count the rows in the inventory table without loading them
+     * @return The number of items
+     */
+    public int getItemCount() {
+        // the totals row already counts the skus, no need to walk the table
+        return getTotals().getSkuCount();
+    }
 
-                // add the item to return list
-                items.add(item);
-            } while(cursor.moveToNext());
+    /**
+     * Method to get the running totals for the whole inventory. This reads one row however large the table is
+     * @return Units on hand, sku count and out of stock count
+     */
+    public InventoryTotals getTotals() {
+        Cursor cursor = database.getDatabase().query(totalsTable, new String[]{unitsColumn, skusColumn, outOfStockColumn},
+                "id = 1", null, null, null, null);
+        try {
+            cursor.moveToFirst();
+            return new InventoryTotals(cursor.getLong(0), cursor.getInt(1), cursor.getInt(2));
+        } finally {
+            cursor.close();
+        }
+    }
 
+    /**
+     * Method to get the page of items that follows a sku, ordered by sku.
+     * This is a keyset query, it walks the primary key index from the given sku so the cost
+     * does not grow with how deep into the table the page is.
+     * @param afterSku The last sku of the previous page, or null for the first page
+     * @param limit The page size
+     * @return Up to limit items, ascending by sku
+     */
+    public List<InventoryItem> getItemsAfter(String afterSku, int limit) {
+        SQLiteDatabase db = database.getDatabase();
+
+        Cursor cursor;
+        if (afterSku == null) {
+            cursor = db.query(table, null, null, null, null, null, skuColumn + " ASC", String.valueOf(limit));
+        } else {
+            cursor = db.query(table, null, skuColumn + " > ?", new String[]{afterSku}, null, null, skuColumn + " ASC", String.valueOf(limit));
         }
 
-        // close the cursor
-        cursor.close();
+        return readItems(cursor, limit);
+    }
+
+    /**
+     * Method to get the page of items that precedes a sku, for scrolling back up.
+     * @param beforeSku The first sku of the page after this one
+     * @param limit The page size
+     * @return Up to limit items, ascending by sku
+     */
+    public List<InventoryItem> getItemsBefore(String beforeSku, int limit) {
+        SQLiteDatabase db = database.getDatabase();
+
+        // walk the index backwards, then flip the page so callers always see ascending order
+        Cursor cursor = db.query(table, null, skuColumn + " < ?", new String[]{beforeSku}, null, null, skuColumn + " DESC", String.valueOf(limit));
+        List<InventoryItem> items = readItems(cursor, limit);
+        Collections.reverse(items);
 
-        // return the list
         return items;
+    }
+
+    /**
+     * Method to get a page at an absolute position.
+     * OFFSET has to skip every earlier row, so this is only meant for re-anchoring after a jump,
+     * neighbouring pages should be read with getItemsAfter / getItemsBefore.
+     * @param offset The position of the first item
+     * @param limit The page size
+     * @return Up to limit items, ascending by sku
+     */
+    public List<InventoryItem> getItemsAt(int offset, int limit) {
+        SQLiteDatabase db = database.getDatabase();
 
+        Cursor cursor = db.query(table, null, null, null, null, null, skuColumn + " ASC", limit + " OFFSET " + offset);
 
+        return readItems(cursor, limit);
     }
 
+    /**
+     * Method to search the full-text index for items whose sku or description has a word starting with each query word.
+     * Matches on the sku itself rank first, then sku substrings, then description-only matches.
+     * @param query The search text, split into words on anything that isn't a letter or digit
+     * @param limit The most matches to return
+     * @return Up to limit matching items, best match first
+     */
+    public List<InventoryItem> searchItems(String query, int limit) {
+        String match = toMatchExpression(query);
 
+        // nothing searchable in the query (only punctuation)
+        if (match.isEmpty()) return new ArrayList<>();
+
+        SQLiteDatabase db = database.getDatabase();
+
+        // the index is only used to find the rowids, the rows themselves come from the inventory table
+        String lcQuery = query.trim().toLowerCase();
+        String sql = String.format(
+                "SELECT i.%1$s, i.%2$s, i.%3$s, i.%7$s FROM %4$s f JOIN %5$s i ON i.rowid = f.docid WHERE %4$s MATCH ? " +
+                "ORDER BY CASE WHEN lower(i.%1$s) = ? THEN 0 WHEN instr(lower(i.%1$s), ?) = 1 THEN 1 WHEN instr(lower(i.%1$s), ?) > 0 THEN 2 ELSE 3 END, i.%1$s " +
+                "LIMIT %6$d",
+                skuColumn, descColumn, quantColumn, searchTable, table, limit, thresholdColumn);
+
+        Cursor cursor = db.rawQuery(sql, new String[]{match, lcQuery, lcQuery, lcQuery});
+
+        return readItems(cursor, Math.min(limit, 64));
+    }
+
+    /**
+     * Method to stream the items at or below their reorder threshold, lowest stock relative to threshold first.
+     * Answered from the index on quantity minus threshold, so only the matching rows are read.
+     * @return A cursor over the items, the caller must close it
+     */
+    public ItemCursor getLowStockItems() {
+        Cursor cursor = database.getDatabase().query(table, null, stockLevel + " <= 0", null, null, null, stockLevel + " ASC");
+        return new ItemCursor(cursor);
+    }
+
+    /**
+     * Method to stream the items with no stock left, answered from the quantity index
+     * @return A cursor over the items, the caller must close it
+     */
+    public ItemCursor getOutOfStockItems() {
+        Cursor cursor = database.getDatabase().query(table, null, quantColumn + " <= 0", null, null, null, quantColumn + " ASC");
+        return new ItemCursor(cursor);
+    }
+
+    /**
+     * Method to turn what the user typed into an FTS4 match expression, every word becomes a prefix term
+     * @param query The raw search text
+     * @return The match expression, or an empty string if there is nothing to search for
+     */
+    static String toMatchExpression(String query) {
+        StringBuilder match = new StringBuilder();
+
+        // only letters and digits reach the expression, so user input can't inject FTS syntax
+        for (String word : query.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) continue;
+            if (match.length() > 0) match.append(' ');
+            match.append(word).append('*');
+        }
+
+        return match.toString();
+    }
+
+    /**
+     * Method to deserialize every row of a cursor and close it
+     * @param cursor The cursor to drain
+     * @param expected Capacity hint for the list
+     * @return The items read
+     */
+    private static List<InventoryItem> readItems(Cursor cursor, int expected) {
+        List<InventoryItem> items = new ArrayList<>(expected);
+
+        try (ItemCursor rows = new ItemCursor(cursor)) {
+            while (rows.moveToNext()) items.add(rows.getItem());
+        }
+
+        return items;
+    }
 
 }
@@ -0,0 +1,247 @@
+package com.example.warehouseapp.Database;
+
+import android.content.Context;
+
+import com.example.warehouseapp.Types.InventoryItem;
+import com.example.warehouseapp.Types.InventorySnapshot;
+import com.example.warehouseapp.Types.InventoryTotals;
+import com.example.warehouseapp.Types.StockAdjustment;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+
+/**
+ * Asynchronous front end for InventoryHelper. Every call runs on the DatabaseExecutor and reports back on the main thread.
+ * Saves to the same sku that pile up before the writer gets to them are collapsed into a single write of the latest value.
+ */
+public class InventoryRepository {
+
+    private final InventoryHelper dbHelper;
+    private final StockLedgerHelper ledger;
+    private final DatabaseExecutor executor;
+
+    // saves waiting on the writer, keyed by sku. Guarded by itself.
+    private final Map<String, PendingSave> pendingSaves = new HashMap<>();
+
+    public InventoryRepository(Context context) {
+        this(new InventoryHelper(context), new StockLedgerHelper(context), DatabaseExecutor.getInstance());
+
+        // an upgrade may have left rows to index, finish that in the background
+        Backfills.resume(WarehouseDatabase.getInstance(context), executor);
+
+        // the sku filter and stock levels are built once per process, a later repository finds them already there.
+        // Their passes run on readers so saves queued meanwhile aren't held up
+        executor.read(dbHelper::buildSkuFilterIfNeeded, null);
+        executor.read(dbHelper::loadStockLevelsIfNeeded, null);
+        executor.write(() -> maintained(null), null);
+    }
+
+    InventoryRepository(InventoryHelper dbHelper, StockLedgerHelper ledger, DatabaseExecutor executor) {
+        this.dbHelper = dbHelper;
+        this.ledger = ledger;
+        this.executor = executor;
+    }
+
+    /**
+     * Method to get the helper this repository writes through, for code that is already on a worker thread
+     * @return The inventory helper
+     */
+    public InventoryHelper getHelper() {
+        return dbHelper;
+    }
+
+    /**
+     * Method to look up one item by sku in the background, hot skus come from the item cache
+     * @param sku The key of the item
+     * @param callback Receives the item, or null if there is no such sku, on the main thread
+     */
+    public Future<InventoryItem> getItem(String sku, DatabaseCallback<InventoryItem> callback) {
+        return executor.read(() -> dbHelper.getItem(sku), callback);
+    }
+
+    public Future<List<InventoryItem>> getAllItems(DatabaseCallback<List<InventoryItem>> callback) {
+        return executor.read(dbHelper::getAllItems, callback);
+    }
+
+    public Future<InventorySnapshot> getSnapshot(DatabaseCallback<InventorySnapshot> callback) {
+        return executor.read(dbHelper::getSnapshot, callback);
+    }
+
+    public Future<Integer> getItemCount(DatabaseCallback<Integer> callback) {
+        return executor.read(dbHelper::getItemCount, callback);
+    }
+
+    public Future<InventoryTotals> getTotals(DatabaseCallback<InventoryTotals> callback) {
+        return executor.read(dbHelper::getTotals, callback);
+    }
+
+    public Future<List<InventoryItem>> getItemsAfter(String afterSku, int limit, DatabaseCallback<List<InventoryItem>> callback) {
+        return executor.read(() -> dbHelper.getItemsAfter(afterSku, limit), callback);
+    }
+
+    public Future<List<InventoryItem>> getItemsBefore(String beforeSku, int limit, DatabaseCallback<List<InventoryItem>> callback) {
+        return executor.read(() -> dbHelper.getItemsBefore(beforeSku, limit), callback);
+    }
+
+    public Future<List<InventoryItem>> getItemsAt(int offset, int limit, DatabaseCallback<List<InventoryItem>> callback) {
+        return executor.read(() -> dbHelper.getItemsAt(offset, limit), callback);
+    }
+
+    public Future<List<InventoryItem>> searchItems(String query, int limit, DatabaseCallback<List<InventoryItem>> callback) {
+        return executor.read(() -> dbHelper.searchItems(query, limit), callback);
+    }
+
+    /**
+     * Method to save an item in the background.
+     * If a save for the same sku is still queued, the queued save is updated to write this item instead,
+     * and every caller's callback receives the result of that one write.
+     * @param item The item to insert or update
+     * @param callback Receives s/f on the main thread, may be null
+     */
+    public void saveItem(InventoryItem item, DatabaseCallback<Boolean> callback) {
+        synchronized (pendingSaves) {
+            PendingSave pending = pendingSaves.get(item.getSku());
+            if (pending != null) {
+                // still queued, just swap in the newer value
+                pending.item = item;
+                if (callback != null) pending.callbacks.add(callback);
+                return;
+            }
+
+            pending = new PendingSave(item, callback);
+            pendingSaves.put(item.getSku(), pending);
+
+            PendingSave queued = pending;
+            executor.write(() -> writeSave(queued), null);
+        }
+    }
+
+    /**
+     * Method to save many items in one transaction in the background
+     * @param items The items to insert or update
+     * @param callback Receives the per-item results on the main thread, may be null
+     */
+    public Future<boolean[]> saveItems(Collection<InventoryItem> items, DatabaseCallback<boolean[]> callback) {
+        List<InventoryItem> copy = new ArrayList<>(items);
+        synchronized (pendingSaves) {
+            // later saves must not be merged into ones queued before this batch
+            for (InventoryItem item : copy) pendingSaves.remove(item.getSku());
+            return executor.write(() -> maintained(dbHelper.insertOrUpdateItems(copy)), callback);
+        }
+    }
+
+    /**
+     * Method to change an item's quantity by a delta in the background, without rewriting the rest of the row
+     * @param sku The key of the item
+     * @param delta The change, negative for a pick
+     * @param callback Receives the new quantity (null if the sku doesn't exist) on the main thread, may be null
+     */
+    public Future<Integer> adjustQuantity(String sku, int delta, DatabaseCallback<Integer> callback) {
+        synchronized (pendingSaves) {
+            // a save made after this adjustment must run after it, not be folded into an earlier queued save
+            pendingSaves.remove(sku);
+            return executor.write(() -> maintained(dbHelper.adjustQuantity(sku, delta)), callback);
+        }
+    }
+
+    /**
+     * Method to apply many quantity changes in one transaction in the background
+     * @param adjustments The changes, applied in order
+     * @param callback Receives the new quantities on the main thread, may be null
+     */
+    public Future<List<Integer>> adjustQuantities(List<StockAdjustment> adjustments, DatabaseCallback<List<Integer>> callback) {
+        List<StockAdjustment> copy = new ArrayList<>(adjustments);
+        synchronized (pendingSaves) {
+            for (StockAdjustment adjustment : copy) pendingSaves.remove(adjustment.getSku());
+            return executor.write(() -> maintained(dbHelper.adjustQuantities(copy)), callback);
+        }
+    }
+
+    /**
+     * Method to delete an item in the background
+     * @param sku The key of the item
+     * @param callback Receives s/f on the main thread, may be null
+     */
+    public Future<Boolean> deleteItem(String sku, DatabaseCallback<Boolean> callback) {
+        synchronized (pendingSaves) {
+            // a queued save still runs before this delete, but a save made after it must not be folded into it
+            pendingSaves.remove(sku);
+            return executor.write(() -> maintained(dbHelper.deleteItem(sku)), callback);
+        }
+    }
+
+    /**
+     * Method to get the stock ledger, for history and point-in-time quantities
+     * @return The ledger helper
+     */
+    public StockLedgerHelper getLedger() {
+        return ledger;
+    }
+
+    /**
+     * Method to read an item's quantity as it was at a point in time
+     * @param sku The key of the item
+     * @param timeMillis The point in time, epoch millis
+     * @param callback Receives the quantity on the main thread
+     */
+    public Future<Integer> getQuantityAt(String sku, long timeMillis, DatabaseCallback<Integer> callback) {
+        return executor.read(() -> ledger.getQuantityAt(sku, timeMillis), callback);
+    }
+
+    /**
+     * Method run on the writer thread after each write, so the ledger gets a snapshot every
+     * compaction interval, the sku filter is rebuilt once stale and the stock levels are loaded if they
+     * aren't, without a separate schedule. Their full passes are handed to readers, the writer only checks for them
+     * @param result The write's result, passed through
+     * @return result
+     */
+    private <T> T maintained(T result) {
+        ledger.compactIfDue();
+        if (dbHelper.needsSkuFilter()) executor.read(dbHelper::buildSkuFilterIfNeeded, null);
+        if (dbHelper.needsStockLevels()) executor.read(dbHelper::loadStockLevelsIfNeeded, null);
+        return result;
+    }
+
+    /**
+     * Method run on the writer thread for a coalesced save
+     * @param pending The queued save
+     * @return boolean indicating s/f
+     */
+    private Boolean writeSave(PendingSave pending) {
+        InventoryItem item;
+        List<DatabaseCallback<Boolean>> callbacks;
+
+        synchronized (pendingSaves) {
+            // close the window, saves from here on queue a new write
+            if (pendingSaves.get(pending.item.getSku()) == pending) pendingSaves.remove(pending.item.getSku());
+            item = pending.item;
+            callbacks = pending.callbacks;
+        }
+
+        boolean result;
+        try {
+            result = maintained(dbHelper.insertOrUpdateItem(item));
+        } catch (RuntimeException e) {
+            for (DatabaseCallback<Boolean> callback : callbacks) executor.deliver(() -> callback.onError(e));
+            throw e;
+        }
+
+        for (DatabaseCallback<Boolean> callback : callbacks) executor.deliver(() -> callback.onComplete(result));
+        return result;
+    }
+
+    // a save that has been queued but not yet written
+    private static final class PendingSave {
+        InventoryItem item;
+        final List<DatabaseCallback<Boolean>> callbacks = new ArrayList<>(1);
+
+        PendingSave(InventoryItem item, DatabaseCallback<Boolean> callback) {
+            this.item = item;
+            if (callback != null) callbacks.add(callback);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.warehouseapp.Database;
+
+import com.example.warehouseapp.Types.InventoryItem;
+
+/**
+ * Reusable holder for one inventory row while streaming the table (see InventoryHelper.forEachRow).
+ * The same instance is refilled for every row, so its values are only valid until the callback returns.
+ * Call toItem to keep a row.
+ */
+public final class InventoryRow {
+
+    private String sku;
+    private String description;
+    private int quantity;
+    private int reorderThreshold;
+
+    InventoryRow() {}
+
+    /**
+     * Method to copy the cursor's current row in
+     * @param cursor A cursor positioned on a row
+     */
+    void load(ItemCursor cursor) {
+        this.sku = cursor.getSku();
+        this.description = cursor.getDesc();
+        this.quantity = cursor.getQuantity();
+        this.reorderThreshold = cursor.getReorderThreshold();
+    }
+
+    public String getSku() { return this.sku; }
+
+    public String getDesc() { return this.description; }
+
+    public int getQuantity() { return this.quantity; }
+
+    public int getReorderThreshold() { return this.reorderThreshold; }
+
+    /**
+     * @return An immutable copy of the current row
+     */
+    public InventoryItem toItem() {
+        return new InventoryItem(sku, description, quantity, reorderThreshold);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.warehouseapp.Database;
+
+import android.util.LruCache;
+
+import com.example.warehouseapp.Types.InventoryItem;
+
+import java.util.Collection;
+
+/**
+ * Bounded cache of items by sku in front of InventoryHelper.getItem, so a scanner hitting the same hot skus
+ * doesn't run a query each time. There is one per WarehouseDatabase, every helper on the file shares it.
+ *
+ * A read that misses takes the generation before querying and only stores what it read if no write was
+ * invalidated in the meantime. Otherwise a read that saw the old row could put it back after the write
+ * removed it, and the stale item would stay cached until evicted.
+ */
+public final class ItemCache {
+
+    private final LruCache<String, InventoryItem> items;
+
+    // bumped by every invalidation, guarded by this
+    private long generation;
+
+    ItemCache(int maxItems) {
+        this.items = new LruCache<>(maxItems);
+    }
+
+    /**
+     * Method to look up a cached item, counting the hit or miss
+     * @param sku The key of the item
+     * @return The item, or null if it isn't cached
+     */
+    synchronized InventoryItem get(String sku) {
+        return items.get(sku);
+    }
+
+    /**
+     * Method to read the generation, taken before a query whose result may be cached
+     * @return The current generation
+     */
+    synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Method to cache an item read from the database, unless a write was invalidated since the read began
+     * @param item The item read
+     * @param readGeneration The generation taken before the read
+     */
+    synchronized void putIfCurrent(InventoryItem item, long readGeneration) {
+        if (generation == readGeneration) items.put(item.getSku(), item);
+    }
+
+    /**
+     * Method to drop a sku after a write to it has committed. Writers call this after their outermost
+     * transaction ends, committed or not, so a read started afterwards sees the row as it now is
+     * @param sku The key of the item written
+     */
+    synchronized void invalidate(String sku) {
+        generation++;
+        items.remove(sku);
+    }
+
+    /**
+     * Method to drop every sku in a batch of saved items
+     * @param written The items written
+     */
+    synchronized void invalidate(Collection<InventoryItem> written) {
+        generation++;
+        for (InventoryItem item : written) {
+            if (item != null && item.getSku() != null) items.remove(item.getSku());
+        }
+    }
+
+    /**
+     * Method to drop everything, for writes that touch more skus than are worth listing
+     */
+    synchronized void invalidateAll() {
+        generation++;
+        items.evictAll();
+    }
+
+    public synchronized int hitCount() {
+        return items.hitCount();
+    }
+
+    public synchronized int missCount() {
+        return items.missCount();
+    }
+
+    public synchronized int size() {
+        return items.size();
+    }
+}
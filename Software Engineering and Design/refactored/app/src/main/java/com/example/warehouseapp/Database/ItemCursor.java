@@ -0,0 +1,65 @@
+package com.example.warehouseapp.Database;
+
+import android.database.Cursor;
+
+import com.example.warehouseapp.Types.InventoryItem;
+
+import java.io.Closeable;
+
+/**
+ * Forward-only view of inventory rows from a query. Rows are read as the caller walks them instead of
+ * being collected into a list first, and the column indexes are looked up once rather than per row.
+ * Must be closed, use it in a try-with-resources block.
+ */
+public class ItemCursor implements Closeable {
+
+    private final Cursor cursor;
+    private final int skuIndex;
+    private final int descIndex;
+    private final int quantIndex;
+    private final int thresholdIndex;
+
+    ItemCursor(Cursor cursor) {
+        this.cursor = cursor;
+        this.skuIndex = cursor.getColumnIndexOrThrow(InventoryHelper.skuColumn);
+        this.descIndex = cursor.getColumnIndexOrThrow(InventoryHelper.descColumn);
+        this.quantIndex = cursor.getColumnIndexOrThrow(InventoryHelper.quantColumn);
+        this.thresholdIndex = cursor.getColumnIndexOrThrow(InventoryHelper.thresholdColumn);
+    }
+
+    /**
+     * Method to step to the next row
+     * @return false once every row has been read
+     */
+    public boolean moveToNext() {
+        return cursor.moveToNext();
+    }
+
+    /**
+     * @return The number of rows, this runs the whole query so avoid it on large results
+     */
+    public int getCount() {
+        return cursor.getCount();
+    }
+
+    public String getSku() { return cursor.getString(skuIndex); }
+
+    public String getDesc() { return cursor.getString(descIndex); }
+
+    public int getQuantity() { return cursor.getInt(quantIndex); }
+
+    public int getReorderThreshold() { return cursor.getInt(thresholdIndex); }
+
+    /**
+     * Method to copy the current row into an item
+     * @return A new item holding the row's values
+     */
+    public InventoryItem getItem() {
+        return new InventoryItem(getSku(), getDesc(), getQuantity(), getReorderThreshold());
+    }
+
+    @Override
+    public void close() {
+        cursor.close();
+    }
+}
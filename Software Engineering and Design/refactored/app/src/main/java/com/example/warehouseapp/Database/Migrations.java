@@ -0,0 +1,167 @@
+package com.example.warehouseapp.Database;
+
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+/**
+ * Ordered schema changes for warehouse_inventory.db. Upgrades alter the existing tables in place instead of
+ * dropping them, so an app update keeps the inventory. To change the schema, append a step to steps; the
+ * database version follows from the number of steps.
+ */
+final class Migrations {
+
+    /**
+     * One schema step, taking the database from the version before it to the next one
+     */
+    interface Migration {
+        void migrate(SQLiteDatabase db);
+    }
+
+    // steps[i] upgrades version i + 1 to version i + 2
+    private static final Migration[] steps = {
+            Migrations::addUserSalt,
+            Migrations::addSearchIndex,
+            Migrations::addReorderThreshold,
+            Migrations::addImportCheckpoints,
+            Migrations::narrowSearchTriggers,
+            Migrations::addStockLedger,
+            Migrations::addInventoryTotals,
+            Migrations::addNotificationOutbox,
+    };
+
+    // the version a fresh install is created at
+    static final int latestVersion = steps.length + 1;
+
+    private Migrations() {}
+
+    /**
+     * Method to apply every step between two versions in order. SQLiteOpenHelper runs onUpgrade inside one
+     * transaction, so if any step throws, every step is rolled back and the upgrade is retried on the next open.
+     * @param db The database being upgraded
+     * @param oldVersion The version on disk
+     * @param newVersion The version to reach
+     */
+    static void upgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        for (int version = oldVersion; version < newVersion; version++) {
+            Log.i("DB", "migrating " + version + " -> " + (version + 1));
+            steps[version - 1].migrate(db);
+        }
+    }
+
+    /**
+     * Version 2: passwords are stored salted. Either helper could have created a version 1 file, so the
+     * other one's table may be missing.
+     */
+    private static void addUserSalt(SQLiteDatabase db) {
+        InventoryHelper.createTable(db);
+        UserHelper.createTable(db);
+
+        // existing accounts keep a null salt
+        if (!hasColumn(db, UserHelper.table, "salt")) {
+            db.execSQL("ALTER TABLE " + UserHelper.table + " ADD COLUMN salt TEXT");
+        }
+    }
+
+    /**
+     * Version 3: the full-text search index. Existing rows are indexed by a backfill after startup
+     * rather than here, since indexing a large table in one go would stall the first launch.
+     */
+    private static void addSearchIndex(SQLiteDatabase db) {
+        // version 2 files may still be missing a table because both helpers shared that version number
+        InventoryHelper.createTable(db);
+        UserHelper.createTable(db);
+        Backfills.createTable(db);
+
+        // builds that created the index when the file was opened already filled it
+        boolean indexed = DatabaseUtils.longForQuery(db, "SELECT count(*) FROM sqlite_master WHERE type = 'table' AND name = ?",
+                new String[]{InventoryHelper.searchTable}) > 0;
+
+        db.execSQL(String.format("CREATE VIRTUAL TABLE IF NOT EXISTS %s USING fts4(content=\"%s\", %s, %s)",
+                InventoryHelper.searchTable, InventoryHelper.table, InventoryHelper.skuColumn, InventoryHelper.descColumn));
+
+        // nothing to copy, the plain triggers can go in straight away
+        if (indexed || DatabaseUtils.queryNumEntries(db, InventoryHelper.table) == 0) {
+            InventoryHelper.createSearchTriggers(db, null);
+            return;
+        }
+
+        Backfills.schedule(db, Backfills.searchIndex);
+        InventoryHelper.createSearchTriggers(db, Backfills.searchIndex.name);
+    }
+
+    /**
+     * Version 4: per-sku reorder threshold, plus the indexes behind the low and out of stock queries.
+     * The column has a default, so existing rows need no backfill.
+     */
+    private static void addReorderThreshold(SQLiteDatabase db) {
+        // the earlier steps create a missing inventory table with the latest columns
+        if (!hasColumn(db, InventoryHelper.table, InventoryHelper.thresholdColumn)) {
+            db.execSQL(String.format("ALTER TABLE %s ADD COLUMN %s INTEGER NOT NULL DEFAULT 0", InventoryHelper.table, InventoryHelper.thresholdColumn));
+        }
+        InventoryHelper.createStockIndexes(db);
+    }
+
+    /**
+     * Version 5: checkpoints for resumable csv imports
+     */
+    private static void addImportCheckpoints(SQLiteDatabase db) {
+        ImportHelper.createTable(db);
+    }
+
+    /**
+     * Version 6: the search index triggers only fire on updates to sku or description, so quantity changes
+     * don't rewrite the index. A backfill still running keeps its guard.
+     */
+    private static void narrowSearchTriggers(SQLiteDatabase db) {
+        boolean backfilling = false;
+        for (Backfill backfill : Backfills.pending(db)) {
+            if (backfill == Backfills.searchIndex) backfilling = true;
+        }
+
+        InventoryHelper.createSearchTriggers(db, backfilling ? Backfills.searchIndex.name : null);
+    }
+
+    /**
+     * Version 7: the stock ledger. Existing quantities become the first snapshot, the ledger starts empty
+     */
+    private static void addStockLedger(SQLiteDatabase db) {
+        StockLedgerHelper.createTables(db);
+        StockLedgerHelper.snapshotAll(db);
+    }
+
+    /**
+     * Version 8: running totals for the dashboard, seeded from the table once here and kept by triggers after that
+     */
+    private static void addInventoryTotals(SQLiteDatabase db) {
+        InventoryHelper.createTotals(db);
+    }
+
+    /**
+     * Version 9: outbox for low stock alerts, so queued texts survive the process dying
+     */
+    private static void addNotificationOutbox(SQLiteDatabase db) {
+        NotificationOutboxHelper.createTable(db);
+    }
+
+    /**
+     * Method to check whether a table already has a column
+     * @param db The open database
+     * @param table The table
+     * @param column The column name
+     * @return true if the column exists
+     */
+    static boolean hasColumn(SQLiteDatabase db, String table, String column) {
+        Cursor cursor = db.rawQuery("PRAGMA table_info(" + table + ")", null);
+        try {
+            int nameIndex = cursor.getColumnIndexOrThrow("name");
+            while (cursor.moveToNext()) {
+                if (column.equalsIgnoreCase(cursor.getString(nameIndex))) return true;
+            }
+            return false;
+        } finally {
+            cursor.close();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.warehouseapp.Database;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outbox of low stock alerts. One row per sku: a pending row is waiting to go out, a sent row remembers when
+ * the sku was last alerted so it isn't alerted again within the dedupe window. The alerts are stored with the
+ * inventory, so anything queued when the process dies is still sent on the next launch.
+ */
+public class NotificationOutboxHelper {
+
+    static final String table = "low_stock_outbox";
+    private static final String skuColumn = "sku";
+    private static final String descColumn = "description";
+    private static final String queuedColumn = "queued_at"; // epoch millis
+    private static final String sentColumn = "sent_at"; // epoch millis, null while pending
+
+    /**
+     * An alert waiting to be sent
+     */
+    public static final class PendingAlert {
+        public final String sku;
+        public final String description;
+
+        PendingAlert(String sku, String description) {
+            this.sku = sku;
+            this.description = description;
+        }
+    }
+
+    private final WarehouseDatabase database;
+
+    public NotificationOutboxHelper(Context context) {
+        this(WarehouseDatabase.getInstance(context));
+    }
+
+    NotificationOutboxHelper(WarehouseDatabase database) {
+        this.database = database;
+    }
+
+    static void createTable(SQLiteDatabase db) {
+        db.execSQL(String.format("CREATE TABLE IF NOT EXISTS %s (%s TEXT PRIMARY KEY, %s TEXT, %s INTEGER NOT NULL, %s INTEGER)",
+                table, skuColumn, descColumn, queuedColumn, sentColumn));
+
+        // flushing reads the oldest pending alerts first
+        db.execSQL(String.format("CREATE INDEX IF NOT EXISTS %1$s_pending ON %1$s (%2$s) WHERE %3$s IS NULL", table, queuedColumn, sentColumn));
+    }
+
+    /**
+     * Method to queue an alert for a sku. A sku that is already pending just gets the newer description,
+     * and one that was sent less than dedupeWindowMillis ago is left alone.
+     * @param sku The key of the item
+     * @param description The item's description
+     * @param now The current time, epoch millis
+     * @param dedupeWindowMillis How long after an alert the same sku stays quiet
+     * @return true if the alert is now pending
+     */
+    public boolean enqueue(String sku, String description, long now, long dedupeWindowMillis) {
+        SQLiteStatement statement = database.getDatabase().compileStatement(String.format(
+                "INSERT INTO %1$s (%2$s, %3$s, %4$s) VALUES (?, ?, ?) ON CONFLICT (%2$s) DO UPDATE SET %3$s = excluded.%3$s, "
+                        + "%4$s = CASE WHEN %5$s IS NULL THEN %4$s ELSE excluded.%4$s END, %5$s = NULL "
+                        + "WHERE %5$s IS NULL OR %5$s <= ?",
+                table, skuColumn, descColumn, queuedColumn, sentColumn));
+        try {
+            statement.bindString(1, sku);
+            if (description == null) {
+                statement.bindNull(2);
+            } else {
+                statement.bindString(2, description);
+            }
+            statement.bindLong(3, now);
+            statement.bindLong(4, now - dedupeWindowMillis);
+
+            // no row changed means the sku was alerted inside the window
+            return statement.executeUpdateDelete() > 0;
+        } finally {
+            statement.close();
+        }
+    }
+
+    /**
+     * Method to read the oldest pending alerts
+     * @param limit Most alerts to return
+     * @return Pending alerts, oldest first
+     */
+    public List<PendingAlert> getPending(int limit) {
+        List<PendingAlert> alerts = new ArrayList<>();
+
+        Cursor cursor = database.getDatabase().query(table, new String[]{skuColumn, descColumn}, sentColumn + " IS NULL",
+                null, null, null, queuedColumn, String.valueOf(limit));
+        try {
+            while (cursor.moveToNext()) alerts.add(new PendingAlert(cursor.getString(0), cursor.getString(1)));
+        } finally {
+            cursor.close();
+        }
+
+        return alerts;
+    }
+
+    /**
+     * Method to count the alerts still waiting
+     * @return The number of pending alerts
+     */
+    public int getPendingCount() {
+        return (int) DatabaseUtils.queryNumEntries(database.getDatabase(), table, sentColumn + " IS NULL");
+    }
+
+    /**
+     * Method to mark alerts sent, starting their dedupe window
+     * @param alerts The alerts that went out
+     * @param now The time they were sent, epoch millis
+     */
+    public void markSent(List<PendingAlert> alerts, long now) {
+        SQLiteDatabase db = database.getDatabase();
+        SQLiteStatement statement = db.compileStatement(String.format("UPDATE %s SET %s = ? WHERE %s = ?", table, sentColumn, skuColumn));
+
+        db.beginTransaction();
+        try {
+            for (PendingAlert alert : alerts) {
+                statement.bindLong(1, now);
+                statement.bindString(2, alert.sku);
+                statement.executeUpdateDelete();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            statement.close();
+        }
+    }
+
+    /**
+     * Method to forget sent alerts whose dedupe window is over, they'd be replaced by a fresh alert anyway
+     * @param sentBefore Sent rows at or before this time are removed, epoch millis
+     */
+    public void prune(long sentBefore) {
+        database.getDatabase().delete(table, sentColumn + " <= ?", new String[]{String.valueOf(sentBefore)});
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.warehouseapp.Database;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over every sku in the inventory table. "No" is always right, so a scan of a label from
+ * another site is rejected without a primary key probe; "maybe" is wrong at about the configured rate
+ * and falls through to the database.
+ *
+ * Skus can't be taken out of a Bloom filter, so a delete only counts against it. Once enough deletes pile up,
+ * or more skus were added than it was sized for, isStale says so and InventoryHelper builds a fresh one.
+ * Safe to read and add to from any thread.
+ */
+public final class SkuFilter {
+
+    private static final long fnvOffset = 0xcbf29ce484222325L;
+    private static final long fnvPrime = 0x100000001b3L;
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+    private final int expectedSkus;
+
+    // skus that set at least one new bit, so saving an existing sku again doesn't count
+    private final AtomicInteger added = new AtomicInteger();
+    private final AtomicInteger removed = new AtomicInteger();
+
+    /**
+     * Sizes the filter so that with expectedSkus skus in it, a sku that was never added passes
+     * with probability falsePositiveRate
+     * @param expectedSkus Skus the filter should hold before it needs rebuilding
+     * @param falsePositiveRate Chance an unknown sku gets a "maybe", between 0 and 1
+     */
+    public SkuFilter(int expectedSkus, double falsePositiveRate) {
+        if (expectedSkus < 1) throw new IllegalArgumentException("expectedSkus must be positive");
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1");
+
+        // the textbook optimum: m = -n ln p / (ln 2)^2 bits and k = m / n ln 2 hashes
+        double ln2 = Math.log(2);
+        long wanted = (long) Math.ceil(-expectedSkus * Math.log(falsePositiveRate) / (ln2 * ln2));
+
+        this.words = new AtomicLongArray((int) ((wanted + 63) / 64));
+        this.bits = words.length() * 64L;
+        this.hashes = Math.max(1, (int) Math.round((double) bits / expectedSkus * ln2));
+        this.expectedSkus = expectedSkus;
+    }
+
+    /**
+     * Method to add a sku
+     * @param sku The sku
+     * @return true if the sku set a bit that wasn't set, false if it was probably already in the filter
+     */
+    public boolean add(String sku) {
+        long hash = hash(sku);
+        // double hashing, the two halves of one 64 bit hash stand in for k independent hashes
+        long h1 = hash & 0xffffffffL;
+        long h2 = hash >>> 32;
+
+        boolean changed = false;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+
+            long old = words.get(word);
+            while ((old & mask) == 0) {
+                if (words.compareAndSet(word, old, old | mask)) {
+                    changed = true;
+                    break;
+                }
+                old = words.get(word);
+            }
+        }
+
+        if (changed) added.incrementAndGet();
+        return changed;
+    }
+
+    /**
+     * Method to test a sku
+     * @param sku The sku
+     * @return false if the sku was definitely never added, true if it might have been
+     */
+    public boolean mightContain(String sku) {
+        long hash = hash(sku);
+        long h1 = hash & 0xffffffffL;
+        long h2 = hash >>> 32;
+
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Method to note that a sku was deleted. Its bits stay set, so it keeps answering "maybe"
+     */
+    public void removed() {
+        removed.incrementAndGet();
+    }
+
+    /**
+     * Method to check whether the filter has drifted far enough from the table to rebuild. Past its expected
+     * size the false positive rate climbs, and every deleted sku still passes
+     * @return true once the filter should be rebuilt
+     */
+    public boolean isStale() {
+        return added.get() > expectedSkus || removed.get() > expectedSkus / 10;
+    }
+
+    public int getExpectedSkus() { return expectedSkus; }
+
+    public long getBitCount() { return bits; }
+
+    public int getHashCount() { return hashes; }
+
+    /**
+     * Method to hash a sku, 64 bit FNV-1a with a final mix so similar skus like SKU00001 and SKU00002
+     * spread over both halves of the hash
+     * @param sku The sku
+     * @return The hash
+     */
+    private static long hash(String sku) {
+        long hash = fnvOffset;
+        for (int i = 0; i < sku.length(); i++) {
+            hash ^= sku.charAt(i);
+            hash *= fnvPrime;
+        }
+
+        // murmur3's finalizer
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,210 @@
+package com.example.warehouseapp.Database;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.example.warehouseapp.Types.StockMovement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The stock ledger. Every change to a quantity is appended to stock_movements by InventoryHelper in the same
+ * transaction as the change, and inventory.quantity is the running total. Rows are never updated or deleted.
+ *
+ * To answer "how many did we have at time t" without summing an item's whole history, compaction periodically
+ * records the quantity of every item that moved since the last compaction in stock_snapshots. A point-in-time
+ * query then reads the nearest snapshot at or before t and adds only the movements logged after it.
+ */
+public class StockLedgerHelper {
+
+    static final String movementsTable = "stock_movements"; // the append-only ledger
+    private static final String idColumn = "id"; // rowid, increases with every append
+    private static final String skuColumn = "sku";
+    private static final String deltaColumn = "delta";
+    private static final String timeColumn = "created_at"; // epoch millis
+    private static final String reasonColumn = "reason";
+    private static final String userColumn = "username";
+
+    static final String snapshotsTable = "stock_snapshots"; // quantity per sku at each compaction that sku moved in
+    private static final String takenColumn = "taken_at";
+    private static final String throughColumn = "movement_id"; // last ledger row the snapshot includes
+    private static final String quantityColumn = "quantity";
+
+    static final String compactionsTable = "stock_compactions"; // one row per compaction
+
+    // movements logged before compactIfDue takes another snapshot, bounds the ledger tail a query has to sum
+    static final int compactionInterval = 10_000;
+
+    // appends made by InventoryHelper, bound by position
+    static final String appendSql = String.format("INSERT INTO %s (%s, %s, %s, %s, %s) VALUES (?, ?, ?, ?, ?)",
+            movementsTable, skuColumn, deltaColumn, timeColumn, reasonColumn, userColumn);
+
+    // a save sets the quantity outright, only the difference from the stored quantity is logged and nothing if it's unchanged.
+    // ?1 sku, ?2 new quantity, ?3 time. Has to run before the row is replaced
+    static final String appendSetSql = String.format("INSERT INTO %1$s (%2$s, %3$s, %4$s, %5$s) SELECT ?1, d, ?3, 'set' FROM "
+                    + "(SELECT ?2 - coalesce((SELECT %6$s FROM %7$s WHERE %8$s = ?1), 0) AS d) WHERE d <> 0",
+            movementsTable, skuColumn, deltaColumn, timeColumn, reasonColumn, InventoryHelper.quantColumn, InventoryHelper.table, InventoryHelper.skuColumn);
+
+    // a delete takes whatever was left out of stock. ?1 time, ?2 sku. Has to run before the row is deleted
+    static final String appendDeleteSql = String.format("INSERT INTO %1$s (%2$s, %3$s, %4$s, %5$s) SELECT %6$s, -%7$s, ?1, 'delete' FROM %8$s "
+                    + "WHERE %6$s = ?2 AND %7$s <> 0",
+            movementsTable, skuColumn, deltaColumn, timeColumn, reasonColumn, InventoryHelper.skuColumn, InventoryHelper.quantColumn, InventoryHelper.table);
+
+    private final WarehouseDatabase database;
+
+    public StockLedgerHelper(Context context) {
+        this(WarehouseDatabase.getInstance(context));
+    }
+
+    StockLedgerHelper(WarehouseDatabase database) {
+        this.database = database;
+    }
+
+    /**
+     * Method to create the ledger tables, called by WarehouseDatabase
+     * @param db The database being created
+     */
+    static void createTables(SQLiteDatabase db) {
+        db.execSQL(String.format("CREATE TABLE IF NOT EXISTS %s (%s INTEGER PRIMARY KEY, %s TEXT NOT NULL, %s INTEGER NOT NULL, %s INTEGER NOT NULL, %s TEXT, %s TEXT)",
+                movementsTable, idColumn, skuColumn, deltaColumn, timeColumn, reasonColumn, userColumn));
+
+        // an item's tail is found by sku then ledger position, appends stay at the end of the rowid order
+        db.execSQL(String.format("CREATE INDEX IF NOT EXISTS %1$s_sku ON %1$s (%2$s, %3$s)", movementsTable, skuColumn, idColumn));
+
+        db.execSQL(String.format("CREATE TABLE IF NOT EXISTS %s (%s TEXT NOT NULL, %s INTEGER NOT NULL, %s INTEGER NOT NULL, %s INTEGER NOT NULL, "
+                        + "PRIMARY KEY (%s, %s)) WITHOUT ROWID",
+                snapshotsTable, skuColumn, takenColumn, throughColumn, quantityColumn, skuColumn, takenColumn));
+
+        db.execSQL(String.format("CREATE TABLE IF NOT EXISTS %s (%s INTEGER PRIMARY KEY, %s INTEGER NOT NULL, %s INTEGER NOT NULL)",
+                compactionsTable, idColumn, takenColumn, throughColumn));
+    }
+
+    /**
+     * Method to snapshot every stored quantity, used when the ledger is added to a database that already has stock.
+     * History from before this point isn't known, so queries for earlier times see those items as empty
+     * @param db The database being upgraded
+     */
+    static void snapshotAll(SQLiteDatabase db) {
+        long now = System.currentTimeMillis();
+        db.execSQL(String.format("INSERT OR REPLACE INTO %s (%s, %s, %s, %s) SELECT %s, ?, 0, coalesce(%s, 0) FROM %s",
+                        snapshotsTable, skuColumn, takenColumn, throughColumn, quantityColumn, InventoryHelper.skuColumn, InventoryHelper.quantColumn, InventoryHelper.table),
+                new Object[]{now});
+        db.execSQL(String.format("INSERT INTO %s (%s, %s) VALUES (?, 0)", compactionsTable, takenColumn, throughColumn), new Object[]{now});
+    }
+
+    /**
+     * Method to compact once enough movements have been logged since the last compaction. Cheap to call
+     * after every write, it's two lookups unless a compaction is due
+     * @return true if a compaction ran
+     */
+    public boolean compactIfDue() {
+        SQLiteDatabase db = database.getDatabase();
+        if (lastMovementId(db) - lastCompactedId(db) < compactionInterval) return false;
+
+        compact();
+        return true;
+    }
+
+    /**
+     * Method to snapshot the quantity of every item that moved since the last compaction.
+     * Runs in one transaction, so the snapshots line up exactly with the ledger position they record
+     */
+    public void compact() {
+        SQLiteDatabase db = database.getDatabase();
+
+        db.beginTransaction();
+        try {
+            long from = lastCompactedId(db);
+            long through = lastMovementId(db);
+            if (through <= from) {
+                db.setTransactionSuccessful();
+                return;
+            }
+
+            long now = System.currentTimeMillis();
+
+            // inventory.quantity already includes every movement up to through, the write lock keeps it that way.
+            // an item deleted since the last compaction has no row, its older snapshot plus the delete's movement covers it
+            db.execSQL(String.format("INSERT OR REPLACE INTO %1$s (%2$s, %3$s, %4$s, %5$s) SELECT %6$s, ?, ?, coalesce(%7$s, 0) FROM %8$s "
+                                    + "WHERE %6$s IN (SELECT DISTINCT %9$s FROM %10$s WHERE %11$s > ? AND %11$s <= ?)",
+                            snapshotsTable, skuColumn, takenColumn, throughColumn, quantityColumn,
+                            InventoryHelper.skuColumn, InventoryHelper.quantColumn, InventoryHelper.table,
+                            skuColumn, movementsTable, idColumn),
+                    new Object[]{now, through, from, through});
+
+            db.execSQL(String.format("INSERT INTO %s (%s, %s) VALUES (?, ?)", compactionsTable, takenColumn, throughColumn), new Object[]{now, through});
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * Method to work out an item's quantity at a point in time, from its nearest snapshot plus the movements after it
+     * @param sku The key of the item
+     * @param timeMillis The point in time, epoch millis
+     * @return The quantity, 0 if the item didn't exist then
+     */
+    public int getQuantityAt(String sku, long timeMillis) {
+        SQLiteDatabase db = database.getDatabase();
+
+        // newest snapshot of this item taken no later than the time asked for, the primary key finds it directly
+        long base = 0;
+        long through = 0;
+        Cursor cursor = db.query(snapshotsTable, new String[]{quantityColumn, throughColumn},
+                skuColumn + " = ? AND " + takenColumn + " <= ?", new String[]{sku, String.valueOf(timeMillis)},
+                null, null, takenColumn + " DESC", "1");
+        try {
+            if (cursor.moveToFirst()) {
+                base = cursor.getLong(0);
+                through = cursor.getLong(1);
+            }
+        } finally {
+            cursor.close();
+        }
+
+        // at most a compaction interval of this item's movements, read in ledger order off the (sku, id) index
+        long tail = DatabaseUtils.longForQuery(db, String.format("SELECT coalesce(sum(%s), 0) FROM %s WHERE %s = ? AND %s > ? AND %s <= ?",
+                        deltaColumn, movementsTable, skuColumn, idColumn, timeColumn),
+                new String[]{sku, String.valueOf(through), String.valueOf(timeMillis)});
+
+        return (int) (base + tail);
+    }
+
+    /**
+     * Method to read an item's movements in a time range, oldest first
+     * @param sku The key of the item
+     * @param fromMillis Start of the range, inclusive
+     * @param toMillis End of the range, inclusive
+     * @return The movements
+     */
+    public List<StockMovement> getMovements(String sku, long fromMillis, long toMillis) {
+        List<StockMovement> movements = new ArrayList<>();
+
+        Cursor cursor = database.getDatabase().query(movementsTable, new String[]{deltaColumn, timeColumn, reasonColumn, userColumn},
+                skuColumn + " = ? AND " + timeColumn + " BETWEEN ? AND ?",
+                new String[]{sku, String.valueOf(fromMillis), String.valueOf(toMillis)}, null, null, idColumn);
+        try {
+            while (cursor.moveToNext()) {
+                movements.add(new StockMovement(sku, cursor.getInt(0), cursor.getLong(1), cursor.getString(2), cursor.getString(3)));
+            }
+        } finally {
+            cursor.close();
+        }
+
+        return movements;
+    }
+
+    private static long lastMovementId(SQLiteDatabase db) {
+        return DatabaseUtils.longForQuery(db, String.format("SELECT coalesce(max(%s), 0) FROM %s", idColumn, movementsTable), null);
+    }
+
+    private static long lastCompactedId(SQLiteDatabase db) {
+        // compactions are appended in ledger order, the newest row is the furthest along
+        return DatabaseUtils.longForQuery(db, String.format("SELECT coalesce((SELECT %s FROM %s ORDER BY %s DESC LIMIT 1), 0)",
+                throughColumn, compactionsTable, idColumn), null);
+    }
+}
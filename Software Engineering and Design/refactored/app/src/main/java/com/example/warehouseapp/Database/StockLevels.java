@@ -0,0 +1,308 @@
+package com.example.warehouseapp.Database;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Quantity on hand per sku, held in primitive arrays for the stock level checks that run on every scan.
+ * Each sku is given an int id the first time it's stored; its characters go into one shared byte pool and
+ * its quantity into an int[] at that id. An open addressing table of ids finds the id for a sku. Nothing is
+ * boxed and there is no object per sku, so a million skus cost about 20 bytes each on top of their characters,
+ * where a HashMap&lt;String, Integer&gt; spends over a hundred.
+ *
+ * InventoryHelper keeps it in step with every write to the inventory table. Reads don't block:
+ * they run optimistically and only take the read lock if a write got in the way.
+ */
+public final class StockLevels {
+
+    // the table gets enough slots that even with every id in use it's no fuller than this,
+    // linear probing slows down sharply past about 70%
+    private static final float maxLoad = 0.6f;
+    private static final int minCapacity = 16;
+    // pool bytes reserved per sku up front, the pool grows if skus run longer
+    private static final int bytesPerSku = 12;
+    // set in the hash of a sku with a character past latin-1, its characters take two bytes each
+    private static final int wideFlag = 0x80000000;
+
+    private final StampedLock lock = new StampedLock();
+
+    // sku id -> its characters, pool[starts[id]] up to pool[starts[id + 1]]. Barcodes are ascii,
+    // so most skus take a byte per character
+    private byte[] pool;
+    private int poolSize;
+    private int[] starts;
+    // sku id -> hash of the sku and its quantity
+    private int[] hashes;
+    private int[] quantities;
+    // ids handed out so far, and how many of those skus have since been removed
+    private int ids;
+    private int removed;
+
+    // id + 1 of the sku in each slot, 0 for an empty slot. The length is a power of two
+    private int[] slots;
+
+    public StockLevels() {
+        this(minCapacity);
+    }
+
+    /**
+     * @param expectedSkus Skus to make room for up front, more can be added
+     */
+    public StockLevels(int expectedSkus) {
+        allocate(Math.max(minCapacity, expectedSkus));
+    }
+
+    /**
+     * Method to look up the quantity on hand for a sku
+     * @param sku The key of the item
+     * @param absent Returned when the sku isn't stocked
+     * @return The quantity, or absent
+     */
+    public int getQuantity(String sku, int absent) {
+        int hash = hash(sku);
+
+        // a write may be halfway through changing the arrays, the stamp says whether one was
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            int quantity = read(sku, hash, absent);
+            if (lock.validate(stamp)) return quantity;
+        }
+
+        stamp = lock.readLock();
+        try {
+            return read(sku, hash, absent);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Method to check whether a sku is stocked
+     * @param sku The key of the item
+     * @return true if the sku has a stock level
+     */
+    public boolean contains(String sku) {
+        int hash = hash(sku);
+
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            boolean found = idOf(sku, hash) >= 0;
+            if (lock.validate(stamp)) return found;
+        }
+
+        stamp = lock.readLock();
+        try {
+            return idOf(sku, hash) >= 0;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @return The number of skus stored
+     */
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return ids - removed;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Method to set a sku's quantity, adding the sku if it's new
+     * @param sku The key of the item
+     * @param quantity The quantity on hand
+     */
+    void put(String sku, int quantity) {
+        int hash = hash(sku);
+
+        long stamp = lock.writeLock();
+        try {
+            int existing = idOf(sku, hash);
+            if (existing >= 0) {
+                quantities[existing] = quantity;
+                return;
+            }
+
+            // out of ids. Removed skus leave theirs behind, so the rebuild drops those and makes room for
+            // twice the live skus. The table always has room for every id, so it never fills up first
+            if (ids == quantities.length) rebuild(2 * (ids - removed + 1));
+
+            int id = ids;
+            appendChars(sku, hash < 0);
+            starts[id + 1] = poolSize;
+            hashes[id] = hash;
+            quantities[id] = quantity;
+            ids++;
+
+            // the slot is written last, a reader can't find the id before its sku and quantity are in place
+            insert(id, hash);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Method to forget a sku
+     * @param sku The key of the item
+     */
+    void remove(String sku) {
+        int hash = hash(sku);
+
+        long stamp = lock.writeLock();
+        try {
+            int target = idOf(sku, hash);
+            if (target < 0) return;
+
+            int mask = slots.length - 1;
+            int hole = hash & mask;
+            while (slots[hole] != target + 1) hole = (hole + 1) & mask;
+
+            // backward shift deletion: later entries of the same run move up into the hole, so lookups
+            // can keep stopping at the first empty slot and no tombstones build up
+            int next = hole;
+            while (true) {
+                next = (next + 1) & mask;
+                int id = slots[next] - 1;
+                if (id < 0) break;
+
+                // an entry can fill the hole unless its home slot lies after the hole, up to where it sits now
+                int home = hashes[id] & mask;
+                boolean homeAfterHole = hole <= next ? hole < home && home <= next : hole < home || home <= next;
+                if (!homeAfterHole) {
+                    slots[hole] = slots[next];
+                    hole = next;
+                }
+            }
+            slots[hole] = 0;
+            removed++;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private int read(String sku, int hash, int absent) {
+        int[] quantities = this.quantities;
+        int id = idOf(sku, hash);
+        return id >= 0 && id < quantities.length ? quantities[id] : absent;
+    }
+
+    /**
+     * Method to find the id of a sku. Also runs without the lock, so every index is checked against the
+     * array it reads: a write in progress can make the answer wrong, which validation catches, but never throw
+     * @return The id, or -1 if the sku isn't stored
+     */
+    private int idOf(String sku, int hash) {
+        int[] slots = this.slots;
+        int[] hashes = this.hashes;
+        int[] starts = this.starts;
+        byte[] pool = this.pool;
+
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        for (int probes = 0; probes < slots.length; probes++) {
+            int id = slots[slot] - 1;
+            if (id < 0) return -1;
+
+            if (id < hashes.length && hashes[id] == hash && id + 1 < starts.length && matches(sku, pool, starts[id], starts[id + 1])) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private static boolean matches(String sku, byte[] pool, int start, int end) {
+        // the hashes already matched, so the stored sku is wide exactly when this one is
+        boolean wide = end - start != sku.length();
+        if (end - start != (wide ? 2 : 1) * sku.length() || start < 0 || end > pool.length) return false;
+
+        for (int i = 0; i < sku.length(); i++) {
+            int c = wide ? (pool[start + 2 * i] & 0xff) << 8 | pool[start + 2 * i + 1] & 0xff : pool[start + i] & 0xff;
+            if (c != sku.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Method to put an id in the first free slot from its hash
+     */
+    private void insert(int id, int hash) {
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (slots[slot] != 0) slot = (slot + 1) & mask;
+        slots[slot] = id + 1;
+    }
+
+    private void appendChars(String sku, boolean wide) {
+        ensurePool((wide ? 2 : 1) * sku.length());
+
+        for (int i = 0; i < sku.length(); i++) {
+            char c = sku.charAt(i);
+            if (wide) pool[poolSize++] = (byte) (c >>> 8);
+            pool[poolSize++] = (byte) c;
+        }
+    }
+
+    private void ensurePool(int bytes) {
+        if (poolSize + bytes > pool.length) pool = Arrays.copyOf(pool, Math.max(2 * pool.length, poolSize + bytes));
+    }
+
+    private void allocate(int capacity) {
+        pool = new byte[capacity * bytesPerSku];
+        poolSize = 0;
+        starts = new int[capacity + 1];
+        hashes = new int[capacity];
+        quantities = new int[capacity];
+        ids = 0;
+        removed = 0;
+
+        // the smallest power of two that keeps a full set of ids under the load limit
+        int slotCount = Integer.highestOneBit((int) Math.ceil(capacity / maxLoad));
+        if (slotCount < capacity / maxLoad) slotCount <<= 1;
+        slots = new int[slotCount];
+    }
+
+    /**
+     * Method to copy the live skus into fresh arrays, renumbering them densely and dropping removed ones
+     * @param capacity Ids to make room for
+     */
+    private void rebuild(int capacity) {
+        int[] oldSlots = slots;
+        int[] oldStarts = starts;
+        int[] oldHashes = hashes;
+        int[] oldQuantities = quantities;
+        byte[] oldPool = pool;
+
+        allocate(Math.max(minCapacity, capacity));
+        for (int slot : oldSlots) {
+            int old = slot - 1;
+            if (old < 0) continue;
+
+            int length = oldStarts[old + 1] - oldStarts[old];
+            ensurePool(length);
+            System.arraycopy(oldPool, oldStarts[old], pool, poolSize, length);
+            poolSize += length;
+
+            int id = ids++;
+            starts[id + 1] = poolSize;
+            hashes[id] = oldHashes[old];
+            quantities[id] = oldQuantities[old];
+            insert(id, hashes[id]);
+        }
+    }
+
+    private static int hash(String sku) {
+        // skus differ mostly in their last characters, spread that over the bits the table mask keeps
+        int hash = sku.hashCode() * 0x9e3779b9;
+        hash ^= hash >>> 16;
+
+        // the top bit says how the sku is stored, it's above any mask so it doesn't move the sku's slot
+        for (int i = 0; i < sku.length(); i++) {
+            if (sku.charAt(i) > 0xff) return hash | wideFlag;
+        }
+        return hash & ~wideFlag;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.warehouseapp.Database;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Stock levels being loaded from the table while writes carry on. The load reads the table in chunks with no
+ * transaction, so a row it reads may already be out of date by the time it's applied. Writes made during the load
+ * land here directly and mark their sku, and the load never overwrites a marked sku with what it read.
+ */
+final class StockLevelsLoad {
+
+    private final StockLevels levels;
+
+    // skus written since the load started, their levels are already current. Guarded by this
+    private final Set<String> written = new HashSet<>();
+
+    // set when a write rolled back after applying itself, the levels can't be trusted and the load is dropped
+    private volatile boolean abandoned;
+
+    /**
+     * @param expectedSkus Skus to make room for up front
+     */
+    StockLevelsLoad(int expectedSkus) {
+        levels = new StockLevels(expectedSkus);
+    }
+
+    /**
+     * Method to apply a write made during the load
+     * @param sku The key of the item
+     * @param quantity Its quantity now
+     */
+    synchronized void written(String sku, int quantity) {
+        written.add(sku);
+        levels.put(sku, quantity);
+    }
+
+    /**
+     * Method to apply a delete made during the load
+     * @param sku The key of the deleted item
+     */
+    synchronized void deleted(String sku) {
+        written.add(sku);
+        levels.remove(sku);
+    }
+
+    /**
+     * Method to apply a row the load read, unless a write has overtaken it
+     * @param sku The key of the item
+     * @param quantity Its quantity when it was read
+     */
+    synchronized void scanned(String sku, int quantity) {
+        if (!written.contains(sku)) levels.put(sku, quantity);
+    }
+
+    void abandon() {
+        abandoned = true;
+    }
+
+    boolean isAbandoned() {
+        return abandoned;
+    }
+
+    StockLevels getLevels() {
+        return levels;
+    }
+}
@@ -4,51 +4,41 @@ import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
-import android.database.sqlite.SQLiteOpenHelper;
 
 import com.example.warehouseapp.Database.Hashing.Hash;
 
-public class UserHelper extends SQLiteOpenHelper {
+public class UserHelper {
 
-    private static final String databaseName = "warehouse_inventory.db"; // name of the sql lite database
-    private static final int databaseVersion = 2;
-
-    private static final String table = "users"; // points to the table for users
+    static final String table = "users"; // points to the table for users
     private static final String usernameColumn =  "username"; // key for the username col
     private static final String passwordColumn = "password"; // key for the password col
 
+    // shared owner of the database file, same connection the inventory helper uses
+    private final WarehouseDatabase database;
+
     // constructor
     public UserHelper(Context context) {
-        super(context, databaseName, null, databaseVersion);
+        this.database = WarehouseDatabase.getInstance(context);
     }
 
-    // on database create method
-    @Override
-    public void onCreate(SQLiteDatabase db) {
+    // table creation, called by WarehouseDatabase when the file is first created
+    static void createTable(SQLiteDatabase db) {
         // standard sql table creation query, assigning username column as the primary key for the table
         String query = String.format("CREATE TABLE IF NOT EXISTS %s (%s TEXT PRIMARY KEY, %s TEXT, salt TEXT)", table, usernameColumn, passwordColumn);
         // execute the query
         db.execSQL(query);
     }
 
-    // required method from extended abstract class
-    @Override
-    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        db.execSQL("DROP TABLE IF EXISTS " + table); // drop the table
-        onCreate(db); // recreate the table
-    }
-
     public void drop() {
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = database.getDatabase();
         db.execSQL("DROP TABLE IF EXISTS users");
 
-        String query = String.format("CREATE TABLE IF NOT EXISTS %s (%s TEXT PRIMARY KEY, %s TEXT, salt TEXT)", table, usernameColumn, passwordColumn);
-        // execute the query
-        db.execSQL(query);
+        // recreate the empty table
+        createTable(db);
     }
 
     public boolean checkUserExists(String username) {
-        SQLiteDatabase db = this.getReadableDatabase();
+        SQLiteDatabase db = database.getDatabase();
         // execute a new parameterized query by creating a cursor object. String[]{username} will bind to the where clause, only returning objects that exist in the column
         Cursor cursor = db.query(table, new String[]{usernameColumn}, usernameColumn + "=?", new String[]{username}, null, null, null);
 
@@ -68,7 +58,7 @@ public class UserHelper extends SQLiteOpenHelper {
     public boolean registerUser(String username, String password) {
         if(checkUserExists(username)) return false; // if the user exists, this method cannot be executed
 
-        SQLiteDatabase db = this.getWritableDatabase();
+        SQLiteDatabase db = database.getDatabase();
 
         // Generate a new salt
         String salt = Hash.generateSalt();
@@ -86,9 +76,6 @@ public class UserHelper extends SQLiteOpenHelper {
         // insert the new object into table, and get a result to return a success indicator
         long result = db.insert(table, null, values);
 
-        // close the db conn
-        db.close();
-
         // return the success result
         return result != -1; // (db.insert will return -1 if it fails to execute)
     }
@@ -101,8 +88,8 @@ public class UserHelper extends SQLiteOpenHelper {
      */
     public boolean validateUser(String username, String password) {
 
-        // Open the database for reading
-        SQLiteDatabase db = this.getReadableDatabase();
+        // Get the shared database
+        SQLiteDatabase db = database.getDatabase();
 
         // Query the database to retrieve the stored hashed password and salt for the given username
         // We're only selecting the password and salt columns from the user table
@@ -0,0 +1,51 @@
+package com.example.warehouseapp.Database;
+
+import android.content.Context;
+
+import java.util.concurrent.Future;
+
+/**
+ * Asynchronous front end for UserHelper, so lookups and password hashing never run on the main thread.
+ */
+public class UserRepository {
+
+    private final UserHelper dbHelper;
+    private final DatabaseExecutor executor;
+
+    public UserRepository(Context context) {
+        this.dbHelper = new UserHelper(context);
+        this.executor = DatabaseExecutor.getInstance();
+    }
+
+    /**
+     * Method to validate a login in the background
+     * @param username The inputted username
+     * @param password The inputted password
+     * @param callback Receives whether the login was a success, on the main thread
+     */
+    public Future<Boolean> validateUser(String username, String password, DatabaseCallback<Boolean> callback) {
+        return executor.read(() -> dbHelper.validateUser(username, password), callback);
+    }
+
+    /**
+     * Method to register a new user in the background
+     * @param username The user's new username
+     * @param password The user's password
+     * @param callback Receives whether the account was created, on the main thread
+     */
+    public Future<Boolean> registerUser(String username, String password, DatabaseCallback<Boolean> callback) {
+        // the existence check and the insert have to happen on the same writer to avoid a double register
+        return executor.write(() -> dbHelper.registerUser(username, password), callback);
+    }
+
+    /**
+     * Method to drop and recreate the users table in the background
+     * @param callback Notified once the table has been recreated, may be null
+     */
+    public Future<Void> drop(DatabaseCallback<Void> callback) {
+        return executor.write(() -> {
+            dbHelper.drop();
+            return null;
+        }, callback);
+    }
+}
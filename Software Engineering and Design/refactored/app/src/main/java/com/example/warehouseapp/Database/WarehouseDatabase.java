@@ -0,0 +1,234 @@
+package com.example.warehouseapp.Database;
+
+import android.content.Context;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+/**
+ * Process-wide owner of warehouse_inventory.db.
+ * InventoryHelper and UserHelper both go through this single instance, so the app keeps one
+ * connection open for its whole lifetime instead of reopening the file on every save.
+ */
+public class WarehouseDatabase extends SQLiteOpenHelper {
+
+    // database name
+    private static final String databaseName = "warehouse_inventory.db";
+
+    // in WAL mode android pools up to four connections, one is kept for writes and the rest serve reads.
+    // DatabaseExecutor sizes its reader pool to match, more reader threads would only queue for a connection
+    static final int readerConnections = 3;
+
+    // pages the WAL may grow to before sqlite copies it back into the database (sqlite's default is 1000)
+    private static final int autoCheckpointPages = 1000;
+
+    // after a checkpoint the WAL file is truncated to this size rather than left at its largest
+    private static final long journalSizeLimitBytes = 4 * 1024 * 1024;
+
+    // items InventoryHelper.getItem keeps in memory, enough for the hot skus of a shift
+    private static final int cachedItems = 512;
+
+    // chance a sku that isn't stocked gets past the sku filter to a primary key probe
+    static final double skuFilterFalsePositiveRate = 0.01;
+
+    // the one instance shared by every helper in the process
+    private static volatile WarehouseDatabase instance;
+
+    // items read by sku, shared so a write through any helper invalidates what every helper sees
+    private final ItemCache itemCache = new ItemCache(cachedItems);
+
+    // every stocked sku, null until InventoryHelper first builds it. Replaced whole on a rebuild
+    private volatile SkuFilter skuFilter;
+
+    // the filter a rebuild is filling while its pass runs, writes add their skus to it as well. Null between rebuilds
+    private volatile SkuFilter buildingSkuFilter;
+
+    // quantity per sku in primitive arrays, null until InventoryHelper loads it
+    private volatile StockLevels stockLevels;
+
+    // the stock levels a load is filling while its pass runs, writes go to it instead. Null between loads
+    private volatile StockLevelsLoad stockLevelsLoad;
+
+    private WarehouseDatabase(Context context) {
+        this(context, databaseName);
+    }
+
+    /**
+     * @param context The application context
+     * @param name File name, tests point this at a scratch database
+     */
+    WarehouseDatabase(Context context, String name) {
+        super(context, name, null, Migrations.latestVersion);
+
+        // readers see the last committed state while a write is in progress, so a scanner saving
+        // quantities no longer holds up the list. Has to be set before the file is first opened
+        setWriteAheadLoggingEnabled(true);
+    }
+
+    /**
+     * Method to get the shared database owner, creating it on first use
+     * @param context Any context, only its application context is kept
+     * @return The process-wide instance
+     */
+    public static WarehouseDatabase getInstance(Context context) {
+        if (instance == null) {
+            synchronized (WarehouseDatabase.class) {
+                if (instance == null) {
+                    // hold the application context so we never leak an activity
+                    instance = new WarehouseDatabase(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Method to get the open connection. SQLiteOpenHelper caches the database once opened,
+     * so this is cheap to call on every operation. Callers must never close it.
+     * @return The shared database
+     */
+    public SQLiteDatabase getDatabase() {
+        return getWritableDatabase();
+    }
+
+    /**
+     * Method to get the cache of items read by sku. Code that writes the inventory table has to invalidate
+     * what it wrote once its transaction ends
+     * @return The shared item cache
+     */
+    ItemCache getItemCache() {
+        return itemCache;
+    }
+
+    /**
+     * Method to get the filter of stocked skus. Code that inserts into the inventory table has to add
+     * the skus it writes inside its transaction
+     * @return The filter, or null if it hasn't been built yet
+     */
+    SkuFilter getSkuFilter() {
+        return skuFilter;
+    }
+
+    void setSkuFilter(SkuFilter skuFilter) {
+        this.skuFilter = skuFilter;
+    }
+
+    /**
+     * Method to get the filter a rebuild is filling, code that adds to the live filter has to add to this one too.
+     * Read it before the live filter, a rebuild swaps its filter in before it clears this
+     * @return The filter being built, or null if no rebuild is running
+     */
+    SkuFilter getBuildingSkuFilter() {
+        return buildingSkuFilter;
+    }
+
+    /**
+     * Method to claim the building slot for a new filter, so only one rebuild runs at a time
+     * @param filter The empty filter the rebuild will fill
+     * @return false if another rebuild already holds the slot
+     */
+    synchronized boolean startSkuFilter(SkuFilter filter) {
+        if (buildingSkuFilter != null) return false;
+        buildingSkuFilter = filter;
+        return true;
+    }
+
+    /**
+     * Method to end a rebuild, swapping its filter in first so a write never finds neither slot holding it
+     * @param filter The filled filter, or null if the pass failed and the old filter stays
+     */
+    synchronized void finishSkuFilter(SkuFilter filter) {
+        if (filter != null) skuFilter = filter;
+        buildingSkuFilter = null;
+    }
+
+    /**
+     * Method to get the in-memory stock levels. Code that writes the inventory table has to apply its
+     * changes to them while it still holds the write lock, or drop them if its transaction rolls back
+     * @return The stock levels, or null if they haven't been loaded
+     */
+    StockLevels getStockLevels() {
+        return stockLevels;
+    }
+
+    /**
+     * Method to get the load in progress, code that applies writes to the stock levels has to apply them here
+     * instead while there is one. Read it before the stock levels, a load swaps its levels in before it clears this
+     * @return The load, or null if none is running
+     */
+    StockLevelsLoad getStockLevelsLoad() {
+        return stockLevelsLoad;
+    }
+
+    /**
+     * Method to claim the load slot, so only one load runs at a time
+     * @param load The empty load about to start
+     * @return false if another load already holds the slot
+     */
+    synchronized boolean startStockLevels(StockLevelsLoad load) {
+        if (stockLevelsLoad != null) return false;
+        stockLevelsLoad = load;
+        return true;
+    }
+
+    /**
+     * Method to end a load, swapping its levels in first so a write never finds neither slot holding them
+     * @param load The finished load, or null if the pass failed. An abandoned load's levels are dropped
+     */
+    synchronized void finishStockLevels(StockLevelsLoad load) {
+        if (load != null && !load.isAbandoned()) stockLevels = load.getLevels();
+        stockLevelsLoad = null;
+    }
+
+    /**
+     * Method to drop the stock levels, and any load in progress, after a write that applied itself to them rolled back.
+     * They're loaded again after the next write
+     */
+    synchronized void dropStockLevels() {
+        stockLevels = null;
+        if (stockLevelsLoad != null) stockLevelsLoad.abandon();
+    }
+
+    /**
+     * Method to fold the WAL back into the database file and truncate it, worth calling after a large batch of writes
+     * such as an import, since the WAL otherwise stays at its largest size until the next automatic checkpoint
+     */
+    public void checkpoint() {
+        DatabaseUtils.stringForQuery(getDatabase(), "PRAGMA wal_checkpoint(TRUNCATE)", null);
+    }
+
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        // lets INSERT OR REPLACE fire delete triggers for the row it replaces, the search index depends on it
+        db.execSQL("PRAGMA recursive_triggers = ON");
+
+        // in WAL mode NORMAL only syncs at checkpoints. A power cut can lose the last few commits but never
+        // corrupts the file, and each save skips an fsync. This is the write connection, the one that commits
+        db.execSQL("PRAGMA synchronous = NORMAL");
+
+        // these pragmas report their new value, so they have to be run as queries
+        DatabaseUtils.longForQuery(db, "PRAGMA wal_autocheckpoint = " + autoCheckpointPages, null);
+        DatabaseUtils.longForQuery(db, "PRAGMA journal_size_limit = " + journalSizeLimitBytes, null);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        // every table lives in the same file, so create them together at the latest schema
+        InventoryHelper.createTable(db);
+        InventoryHelper.createStockIndexes(db);
+        InventoryHelper.createSearchIndex(db);
+        InventoryHelper.createTotals(db);
+        UserHelper.createTable(db);
+        Backfills.createTable(db);
+        ImportHelper.createTable(db);
+        StockLedgerHelper.createTables(db);
+        NotificationOutboxHelper.createTable(db);
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // alter the existing tables step by step, the inventory survives the update
+        Migrations.upgrade(db, oldVersion, newVersion);
+    }
+
+}
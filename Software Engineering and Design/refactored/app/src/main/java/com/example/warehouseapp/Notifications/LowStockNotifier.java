@@ -0,0 +1,182 @@
+package com.example.warehouseapp.Notifications;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.warehouseapp.Database.NotificationOutboxHelper;
+import com.example.warehouseapp.Database.NotificationOutboxHelper.PendingAlert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Background pipeline for low stock alerts. Alerts go into a persistent outbox, deduplicated per sku, and are sent
+ * a short while later as one digest covering every sku that ran out meanwhile. Digests are rate limited by a token
+ * bucket, so zeroing out a whole shelf sends a handful of texts rather than one per item, and never blocks the UI.
+ */
+public class LowStockNotifier {
+
+    // the emulated number for my android phone
+    private static final String defaultNumber = "15551234567";
+
+    // how long to wait for more alerts before sending a digest
+    static final long digestDelayMillis = 5_000;
+    // a sku alerted within this long isn't alerted again
+    static final long dedupeWindowMillis = TimeUnit.HOURS.toMillis(1);
+    // most skus listed in one digest, the rest go in the next one
+    static final int maxDigestSkus = 20;
+    // burst of digests allowed, then one more per refill interval
+    static final int burstDigests = 3;
+    static final long refillMillis = TimeUnit.MINUTES.toMillis(1);
+    // wait before trying again after the sender fails
+    static final long retryDelayMillis = 30_000;
+
+    // the one instance, so every screen shares the outbox, the bucket and the thread
+    private static volatile LowStockNotifier instance;
+
+    private final NotificationOutboxHelper outbox;
+    private final NotificationSender sender;
+    private final TokenBucket bucket;
+    private final LongSupplier clock;
+    private final ScheduledExecutorService scheduler;
+
+    // the next flush, only touched on the scheduler thread
+    private ScheduledFuture<?> nextFlush;
+    private long nextFlushAt;
+
+    /**
+     * @param outbox Where alerts wait until they're sent
+     * @param sender Delivers the digests
+     * @param clock Current time in millis
+     * @param scheduler Runs outbox writes and flushes, a single thread
+     */
+    LowStockNotifier(NotificationOutboxHelper outbox, NotificationSender sender, LongSupplier clock, ScheduledExecutorService scheduler) {
+        this.outbox = outbox;
+        this.sender = sender;
+        this.clock = clock;
+        this.bucket = new TokenBucket(burstDigests, refillMillis, clock);
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Method to get the shared notifier, texting the emulator's number. Anything left in the outbox
+     * by an earlier process is sent once it's created
+     * @param context Any context, only its application context is kept
+     * @return The process-wide instance
+     */
+    public static LowStockNotifier getInstance(Context context) {
+        if (instance == null) {
+            synchronized (LowStockNotifier.class) {
+                if (instance == null) {
+                    Context app = context.getApplicationContext();
+                    ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                        Thread thread = new Thread(runnable, "low-stock-notifier");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    LowStockNotifier notifier = new LowStockNotifier(new NotificationOutboxHelper(app), new SmsSender(app, defaultNumber),
+                            System::currentTimeMillis, scheduler);
+
+                    // alerts queued before the process last died go out now
+                    scheduler.execute(() -> notifier.scheduleFlush(0));
+                    instance = notifier;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Method to report that an item ran out. Returns straight away, the alert is queued in the background
+     * @param sku The sku of the item
+     * @param desc The desc of the item
+     */
+    public void notifyLowStock(String sku, String desc) {
+        scheduler.execute(() -> {
+            if (enqueue(sku, desc)) scheduleFlush(digestDelayMillis);
+        });
+    }
+
+    /**
+     * Method to put an alert in the outbox
+     * @param sku The sku of the item
+     * @param desc The desc of the item
+     * @return true if it's pending, false if the sku was alerted recently
+     */
+    boolean enqueue(String sku, String desc) {
+        return outbox.enqueue(sku, desc, clock.getAsLong(), dedupeWindowMillis);
+    }
+
+    /**
+     * Method to send pending alerts as digests, for as long as the rate limit allows
+     * @return Millis until another flush is needed, or -1 once the outbox is empty
+     */
+    long flush() {
+        outbox.prune(clock.getAsLong() - dedupeWindowMillis);
+
+        while (true) {
+            List<PendingAlert> alerts = outbox.getPending(maxDigestSkus);
+            if (alerts.isEmpty()) return -1;
+
+            // out of tokens, pick up again when the next one arrives
+            if (!bucket.tryTake()) return Math.max(1, bucket.millisUntilToken());
+
+            try {
+                sender.send(digest(alerts));
+            } catch (RuntimeException e) {
+                // the alerts stay pending, try again later
+                Log.w("Notifications", "low stock digest failed", e);
+                return retryDelayMillis;
+            }
+
+            outbox.markSent(alerts, clock.getAsLong());
+        }
+    }
+
+    /**
+     * Method to make sure a flush runs within delayMillis, on the scheduler thread
+     * @param delayMillis The longest the flush may wait
+     */
+    private void scheduleFlush(long delayMillis) {
+        long at = clock.getAsLong() + delayMillis;
+
+        // an earlier flush already covers this one, it will send everything pending by then
+        if (nextFlush != null && !nextFlush.isDone() && nextFlushAt <= at) return;
+        if (nextFlush != null) nextFlush.cancel(false);
+
+        nextFlushAt = at;
+        nextFlush = scheduler.schedule(() -> {
+            nextFlush = null;
+            long again;
+            try {
+                again = flush();
+            } catch (RuntimeException e) {
+                // a database error shouldn't stop future alerts
+                Log.w("Notifications", "low stock flush failed", e);
+                again = retryDelayMillis;
+            }
+            if (again >= 0) scheduleFlush(again);
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Method to write one message covering several alerts
+     * @param alerts The alerts, at least one
+     * @return The message text
+     */
+    static String digest(List<PendingAlert> alerts) {
+        if (alerts.size() == 1) {
+            PendingAlert alert = alerts.get(0);
+            return String.format("Alert!!! SKU %s - %s has reached zero items.", alert.sku, alert.description);
+        }
+
+        List<String> lines = new ArrayList<>(alerts.size());
+        for (PendingAlert alert : alerts) lines.add(String.format("SKU %s - %s", alert.sku, alert.description));
+        return String.format("Alert!!! %d items have reached zero: %s.", alerts.size(), String.join("; ", lines));
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.warehouseapp.Notifications;
+
+/**
+ * Delivers a notification message. LowStockNotifier only talks to this, so tests can swap SMS for a fake.
+ */
+public interface NotificationSender {
+
+    /**
+     * Method to send one message, called on the notifier's background thread
+     * @param message The text to send
+     * @throws RuntimeException if the message couldn't be handed off, it stays queued and is retried
+     */
+    void send(String message);
+}
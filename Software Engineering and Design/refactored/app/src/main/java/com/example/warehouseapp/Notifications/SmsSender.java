@@ -0,0 +1,35 @@
+package com.example.warehouseapp.Notifications;
+
+import android.content.Context;
+import android.telephony.SmsManager;
+
+import java.util.ArrayList;
+
+/**
+ * Sends notifications as text messages to one number
+ */
+public class SmsSender implements NotificationSender {
+
+    private final SmsManager manager;
+    private final String number;
+
+    /**
+     * @param context Any context
+     * @param number The number texts go to
+     */
+    public SmsSender(Context context, String number) {
+        this.manager = context.getApplicationContext().getSystemService(SmsManager.class);
+        this.number = number;
+    }
+
+    @Override
+    public void send(String message) {
+        // a digest can run past one sms, split it rather than have it cut off
+        ArrayList<String> parts = manager.divideMessage(message);
+        if (parts.size() == 1) {
+            manager.sendTextMessage(number, null, message, null, null);
+        } else {
+            manager.sendMultipartTextMessage(number, null, parts, null, null);
+        }
+    }
+}
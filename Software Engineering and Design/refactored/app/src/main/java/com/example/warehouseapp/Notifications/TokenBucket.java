@@ -0,0 +1,67 @@
+package com.example.warehouseapp.Notifications;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket rate limit: holds up to capacity tokens and gains one every refillMillis.
+ * Short bursts go through straight away, a sustained flood is held to the refill rate. Not thread safe.
+ */
+public class TokenBucket {
+
+    private final int capacity;
+    private final long refillMillis;
+    private final LongSupplier clock;
+
+    private int tokens;
+    private long lastRefill; // time the last counted token was added
+
+    /**
+     * @param capacity Most tokens the bucket holds, it starts full
+     * @param refillMillis Time to gain one token
+     * @param clock Current time in millis
+     */
+    public TokenBucket(int capacity, long refillMillis, LongSupplier clock) {
+        this.capacity = capacity;
+        this.refillMillis = refillMillis;
+        this.clock = clock;
+        this.tokens = capacity;
+        this.lastRefill = clock.getAsLong();
+    }
+
+    /**
+     * Method to take a token if one is available
+     * @return true if a token was taken
+     */
+    public boolean tryTake() {
+        refill();
+        if (tokens == 0) return false;
+
+        tokens--;
+        return true;
+    }
+
+    /**
+     * Method to get how long until tryTake can succeed
+     * @return Millis until the next token, 0 if one is available now
+     */
+    public long millisUntilToken() {
+        refill();
+        if (tokens > 0) return 0;
+        return lastRefill + refillMillis - clock.getAsLong();
+    }
+
+    private void refill() {
+        long now = clock.getAsLong();
+        if (tokens == capacity) {
+            // a full bucket doesn't bank time towards the next token
+            lastRefill = now;
+            return;
+        }
+
+        long earned = (now - lastRefill) / refillMillis;
+        if (earned <= 0) return;
+
+        tokens = (int) Math.min(capacity, tokens + earned);
+        lastRefill = tokens == capacity ? now : lastRefill + earned * refillMillis;
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.warehouseapp.Search;
+
+import com.example.warehouseapp.Types.InventorySnapshot;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs search-as-you-type off the main thread.
+ * Keystrokes are debounced, a newer query cancels any older one still waiting or running, and a query that
+ * extends the previous one (the user typed another character) only re-checks the previous matches instead of
+ * searching the whole catalog again.
+ * Queries of three or more characters go to a trigram index of the catalog, which follows edits rather than being
+ * rebuilt for them. Shorter ones scan the snapshot column by column, checking each distinct description once per query,
+ * so rows sharing a description cost an array lookup rather than another substring search.
+ * The index and the last result set are only ever touched from the engine's own worker thread.
+ */
+public class FilterEngine {
+
+    // states of a description during one search
+    private static final byte unchecked = 0;
+    private static final byte matched = 1;
+    private static final byte unmatched = 2;
+
+    /**
+     * Receives the matches for the latest query on the callback executor
+     */
+    public interface Listener {
+        void onResults(String query, InventorySnapshot.Rows results);
+    }
+
+    private final ScheduledExecutorService worker;
+    private final Executor callbackExecutor;
+    private final long debounceMillis;
+
+    // bumped by every filter/cancel call, work tagged with an older value is stale
+    private final AtomicInteger generation = new AtomicInteger();
+    private Future<?> pending;
+
+    // swapped whole by update, a search keeps whichever snapshot it started with
+    private volatile InventorySnapshot snapshot;
+
+    // worker thread only. Built as soon as the engine starts and brought up to each snapshot searched
+    private TrigramIndex index;
+
+    // worker thread only. The rows matched last time, valid only against the snapshot they came from
+    private InventorySnapshot lastSnapshot;
+    private String lastQuery;
+    private int[] lastPositions;
+    private int lastCount;
+
+    /**
+     * @param snapshot The catalog to search
+     * @param debounceMillis How long typing has to pause before a query runs
+     * @param callbackExecutor Where results are delivered, the main thread in the app
+     */
+    public FilterEngine(InventorySnapshot snapshot, long debounceMillis, Executor callbackExecutor) {
+        this.snapshot = snapshot;
+        this.debounceMillis = debounceMillis;
+        this.callbackExecutor = callbackExecutor;
+        this.worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-filter");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // indexed ahead of the first keystroke
+        worker.execute(() -> index = new TrigramIndex(snapshot));
+    }
+
+    /**
+     * Method to search for a query once typing pauses. Any earlier query that hasn't reported yet is dropped.
+     * @param query The search text, must not be empty
+     * @param listener Receives the matches, only if no newer query was made meanwhile
+     */
+    public synchronized void filter(String query, Listener listener) {
+        int ticket = generation.incrementAndGet();
+        if (pending != null) pending.cancel(true);
+
+        pending = worker.schedule(() -> {
+            if (ticket != generation.get()) return;
+
+            InventorySnapshot.Rows results = search(query);
+
+            // deliver only if this is still the newest query when it reaches the callback thread
+            callbackExecutor.execute(() -> {
+                if (ticket == generation.get()) listener.onResults(query, results);
+            });
+        }, debounceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Method to drop any query that has not reported yet, e.g. because the search box was cleared
+     */
+    public synchronized void cancel() {
+        generation.incrementAndGet();
+        if (pending != null) pending.cancel(true);
+        pending = null;
+    }
+
+    /**
+     * Method to search an edited catalog from now on. The next query can't narrow matches from the old one
+     * @param snapshot The catalog after the edit
+     */
+    public void update(InventorySnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Method to stop the worker thread, the engine can't be used afterwards
+     */
+    public void shutdown() {
+        cancel();
+        worker.shutdownNow();
+    }
+
+    /**
+     * Method to find the matches for a query, narrowing the previous results when possible. Worker thread only.
+     * @param query The search text
+     * @return The matching rows, in catalog order
+     */
+    private InventorySnapshot.Rows search(String query) {
+        InventorySnapshot snapshot = this.snapshot;
+
+        if (query.length() >= TrigramIndex.minQueryLength) {
+            // narrowing would still walk every earlier match, the index goes straight to the rows, so there is nothing to keep
+            forgetLastResults();
+            return indexFor(snapshot).search(query);
+        }
+
+        // the substring search runs the first time a description comes up, rows sharing it reuse the answer
+        byte[] descriptionMatches = new byte[snapshot.getDescriptionCount()];
+
+        // anything matching the longer query also matched the shorter one, so only re-check those
+        boolean narrowing = snapshot == lastSnapshot && lastPositions != null && containsIgnoreCase(query, lastQuery);
+        int candidates = narrowing ? lastCount : snapshot.size();
+        int[] positions = new int[Math.min(candidates, 16)];
+        int count = 0;
+
+        for (int c = 0; c < candidates; c++) {
+            if ((c & 1023) == 0 && Thread.currentThread().isInterrupted()) {
+                // a newer query took over, this partial list must not be narrowed later
+                forgetLastResults();
+                return snapshot.rows(positions, count);
+            }
+
+            int position = narrowing ? lastPositions[c] : c;
+            if (describes(snapshot, position, query, descriptionMatches) || containsIgnoreCase(snapshot.skuAt(position), query)) {
+                if (count == positions.length) positions = Arrays.copyOf(positions, positions.length * 2);
+                positions[count++] = position;
+            }
+        }
+
+        lastSnapshot = snapshot;
+        lastQuery = query;
+        lastPositions = positions;
+        lastCount = count;
+        return snapshot.rows(positions, count);
+    }
+
+    /**
+     * Method to check a row's description against the query, once per distinct description
+     * @param known Per description id: 0 not checked yet, 1 matches, 2 doesn't
+     */
+    private static boolean describes(InventorySnapshot snapshot, int position, String query, byte[] known) {
+        int id = snapshot.descriptionIdAt(position);
+        if (id < 0) return false;
+
+        if (known[id] == unchecked) known[id] = containsIgnoreCase(snapshot.getDescription(id), query) ? matched : unmatched;
+        return known[id] == matched;
+    }
+
+    /**
+     * Method to get the index up to date with a snapshot, following its edits or rebuilding if they can't be followed
+     */
+    private TrigramIndex indexFor(InventorySnapshot snapshot) {
+        if (index == null || !index.update(snapshot)) index = new TrigramIndex(snapshot);
+        return index;
+    }
+
+    private void forgetLastResults() {
+        lastSnapshot = null;
+        lastQuery = null;
+        lastPositions = null;
+        lastCount = 0;
+    }
+
+    /**
+     * Method to test for a substring without lower-casing (and copying) either string
+     */
+    static boolean containsIgnoreCase(String text, String query) {
+        if (text == null || query == null) return false;
+
+        int last = text.length() - query.length();
+        for (int i = 0; i <= last; i++) {
+            if (text.regionMatches(true, i, query, 0, query.length())) return true;
+        }
+        return false;
+    }
+}
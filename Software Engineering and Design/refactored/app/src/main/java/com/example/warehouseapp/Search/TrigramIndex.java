@@ -0,0 +1,273 @@
+package com.example.warehouseapp.Search;
+
+import com.example.warehouseapp.Types.InventorySnapshot;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory substring index over a catalog snapshot's skus and descriptions.
+ * Every lower-cased three character run (trigram) of a sku maps to a sorted posting list of the row ids holding it.
+ * Descriptions are indexed once per dictionary entry instead of once per row: a trigram maps to the description ids
+ * containing it, and each description id to the rows that use it. A query intersects the lists for its own trigrams
+ * instead of scanning every row. Matches come back in catalog order.
+ * Edits are followed through the snapshot's row ids, only the rows an edit changed touch a posting list.
+ * Not thread safe, FilterEngine keeps it on its worker thread.
+ */
+public class TrigramIndex {
+
+    // shorter queries have no trigram to look up
+    public static final int minQueryLength = 3;
+
+    // the snapshot the postings describe
+    private InventorySnapshot snapshot;
+
+    // sku trigram -> row ids
+    private final Map<Long, IntList> skuPostings = new HashMap<>();
+    // description trigram -> description ids
+    private final Map<Long, IntList> descriptionPostings = new HashMap<>();
+    // description id -> row ids using it
+    private IntList[] descriptionRows = new IntList[16];
+    private int indexedDescriptions = 0;
+
+    /**
+     * @param snapshot The catalog to index
+     */
+    public TrigramIndex(InventorySnapshot snapshot) {
+        this.snapshot = snapshot;
+        indexDescriptions(snapshot);
+
+        // rows are visited in id order, so every posting list is built by appending
+        for (int row = 0; row < snapshot.getRowCount(); row++) {
+            String sku = snapshot.skuOfRow(row);
+            if (sku == null) continue;
+
+            for (long trigram : trigramsOf(sku)) postingsFor(skuPostings, trigram).add(row);
+            int id = snapshot.descriptionIdOfRow(row);
+            if (id >= 0) descriptionRows[id].add(row);
+        }
+    }
+
+    /**
+     * @return The snapshot the index currently describes
+     */
+    public InventorySnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Method to bring the index up to an edited snapshot by reindexing only the rows the edits changed
+     * @param edited A snapshot edited from the indexed one
+     * @return false if the edits can't be followed, a compaction for instance, and the index has to be rebuilt
+     */
+    public boolean update(InventorySnapshot edited) {
+        if (edited == snapshot) return true;
+
+        int[] rows = edited.rowsEditedSince(snapshot);
+        if (rows == null) return false;
+
+        indexDescriptions(edited);
+        for (int row : rows) {
+            // a row appended since the indexed snapshot has nothing to take out
+            String oldSku = row < snapshot.getRowCount() ? snapshot.skuOfRow(row) : null;
+            int oldId = row < snapshot.getRowCount() ? snapshot.descriptionIdOfRow(row) : -1;
+            String newSku = edited.skuOfRow(row);
+            int newId = edited.descriptionIdOfRow(row);
+
+            // only the trigrams that actually changed touch a posting list
+            if (oldSku == null ? newSku != null : !oldSku.equals(newSku)) {
+                long[] before = oldSku == null ? new long[0] : trigramsOf(oldSku);
+                long[] after = newSku == null ? new long[0] : trigramsOf(newSku);
+                for (long trigram : before) {
+                    if (Arrays.binarySearch(after, trigram) < 0) skuPostings.get(trigram).removeSorted(row);
+                }
+                for (long trigram : after) {
+                    if (Arrays.binarySearch(before, trigram) < 0) postingsFor(skuPostings, trigram).insertSorted(row);
+                }
+            }
+            if (oldId != newId) {
+                if (oldId >= 0) descriptionRows[oldId].removeSorted(row);
+                if (newId >= 0) descriptionRows[newId].insertSorted(row);
+            }
+        }
+
+        snapshot = edited;
+        return true;
+    }
+
+    /**
+     * Method to find every row whose sku or description contains the query, ignoring case
+     * @param query The search text, at least minQueryLength characters
+     * @return The matching rows of the indexed snapshot, in catalog order
+     */
+    public InventorySnapshot.Rows search(String query) {
+        if (query.length() < minQueryLength) throw new IllegalArgumentException("query shorter than " + minQueryLength + ": " + query);
+
+        long[] trigrams = trigramsOf(query);
+        long[] hits = new long[(snapshot.getRowCount() + 63) >>> 6];
+        int hitCount = 0;
+
+        // a single trigram is the whole query, longer queries still have to be confirmed
+        boolean exact = query.length() == minQueryLength;
+
+        int[] skuRows = intersect(skuPostings, trigrams);
+        for (int row : skuRows) {
+            if (exact || FilterEngine.containsIgnoreCase(snapshot.skuOfRow(row), query)) hitCount += mark(hits, row);
+        }
+
+        // each matching description brings in every row that uses it
+        for (int id : intersect(descriptionPostings, trigrams)) {
+            if (!exact && !FilterEngine.containsIgnoreCase(snapshot.getDescription(id), query)) continue;
+
+            IntList rows = descriptionRows[id];
+            for (int i = 0; i < rows.size; i++) hitCount += mark(hits, rows.data[i]);
+        }
+
+        // the bit set already has the rows in id order, which is catalog order
+        int[] positions = new int[hitCount];
+        int count = 0;
+        for (int word = 0; word < hits.length; word++) {
+            for (long bits = hits[word]; bits != 0; bits &= bits - 1) {
+                positions[count++] = (word << 6) + Long.numberOfTrailingZeros(bits);
+            }
+        }
+        return snapshot.rows(positions, snapshot.toPositions(positions, count));
+    }
+
+    /**
+     * Method to index the descriptions added to the dictionary since the last call. The dictionary only grows,
+     * so ids are appended in order and the posting lists stay sorted
+     */
+    private void indexDescriptions(InventorySnapshot snapshot) {
+        int count = snapshot.getDescriptionCount();
+        if (count > descriptionRows.length) descriptionRows = Arrays.copyOf(descriptionRows, Math.max(count, descriptionRows.length * 2));
+
+        for (int id = indexedDescriptions; id < count; id++) {
+            descriptionRows[id] = new IntList();
+            String description = snapshot.getDescription(id);
+            if (description == null) continue;
+
+            for (long trigram : trigramsOf(description)) postingsFor(descriptionPostings, trigram).add(id);
+        }
+        indexedDescriptions = Math.max(indexedDescriptions, count);
+    }
+
+    /**
+     * Method to intersect the posting lists of a query's trigrams, smallest first so the candidates shrink as fast as possible
+     * @return The ids in every list, ascending
+     */
+    private static int[] intersect(Map<Long, IntList> postings, long[] trigrams) {
+        IntList[] lists = new IntList[trigrams.length];
+        for (int i = 0; i < trigrams.length; i++) {
+            lists[i] = postings.get(trigrams[i]);
+            // any missing trigram means no match
+            if (lists[i] == null || lists[i].size == 0) return new int[0];
+        }
+
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+        int[] candidates = Arrays.copyOf(lists[0].data, lists[0].size);
+        int count = candidates.length;
+        for (int i = 1; i < lists.length && count > 0; i++) {
+            count = lists[i].retainAll(candidates, count);
+        }
+        return Arrays.copyOf(candidates, count);
+    }
+
+    // sets a row's bit, returning 1 if it wasn't set yet
+    private static int mark(long[] hits, int row) {
+        long bit = 1L << row;
+        if ((hits[row >>> 6] & bit) != 0) return 0;
+        hits[row >>> 6] |= bit;
+        return 1;
+    }
+
+    private static IntList postingsFor(Map<Long, IntList> postings, long trigram) {
+        IntList list = postings.get(trigram);
+        if (list == null) {
+            list = new IntList();
+            postings.put(trigram, list);
+        }
+        return list;
+    }
+
+    /**
+     * Method to collect the sorted, distinct trigrams of a string.
+     * Each trigram is three lower-cased chars packed into a long.
+     */
+    private static long[] trigramsOf(String text) {
+        long[] trigrams = new long[Math.max(0, text.length() - 2)];
+        for (int i = 0; i < trigrams.length; i++) {
+            long a = Character.toLowerCase(text.charAt(i));
+            long b = Character.toLowerCase(text.charAt(i + 1));
+            long c = Character.toLowerCase(text.charAt(i + 2));
+            trigrams[i] = (a << 32) | (b << 16) | c;
+        }
+
+        // sort then squeeze out duplicates
+        Arrays.sort(trigrams);
+        int distinct = 0;
+        for (int i = 0; i < trigrams.length; i++) {
+            if (distinct == 0 || trigrams[distinct - 1] != trigrams[i]) trigrams[distinct++] = trigrams[i];
+        }
+        return Arrays.copyOf(trigrams, distinct);
+    }
+
+    /**
+     * Growable, sorted list of primitive ids
+     */
+    private static final class IntList {
+        int[] data = new int[4];
+        int size = 0;
+
+        void add(int value) {
+            // the same trigram twice in one string only needs one entry
+            if (size > 0 && data[size - 1] == value) return;
+            if (size == data.length) data = Arrays.copyOf(data, size * 2);
+            data[size++] = value;
+        }
+
+        void insertSorted(int value) {
+            int index = Arrays.binarySearch(data, 0, size, value);
+            if (index >= 0) return;
+            index = -index - 1;
+
+            if (size == data.length) data = Arrays.copyOf(data, size * 2);
+            System.arraycopy(data, index, data, index + 1, size - index);
+            data[index] = value;
+            size++;
+        }
+
+        void removeSorted(int value) {
+            int index = Arrays.binarySearch(data, 0, size, value);
+            if (index < 0) return;
+
+            System.arraycopy(data, index + 1, data, index, size - index - 1);
+            size--;
+        }
+
+        /**
+         * Method to keep only the candidates also in this list, writing them back to the front of the array
+         * @return The number of candidates kept
+         */
+        int retainAll(int[] candidates, int count) {
+            int kept = 0;
+
+            if (size / 8 > count) {
+                // far fewer candidates than postings, binary search each one
+                for (int c = 0; c < count; c++) {
+                    if (Arrays.binarySearch(data, 0, size, candidates[c]) >= 0) candidates[kept++] = candidates[c];
+                }
+                return kept;
+            }
+
+            // similar sizes, a linear merge of the two sorted arrays is cheaper
+            int p = 0;
+            for (int c = 0; c < count && p < size; c++) {
+                while (p < size && data[p] < candidates[c]) p++;
+                if (p < size && data[p] == candidates[c]) candidates[kept++] = candidates[c];
+            }
+            return kept;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.warehouseapp.Transfer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Streaming RFC 4180 CSV reader. It works on the raw UTF-8 bytes rather than a Reader, which is faster and
+ * means offset() is an exact byte position in the file, so an interrupted import can skip straight back to it.
+ * Quoted fields may contain commas, doubled quotes and line breaks. Blank lines are skipped.
+ * Not thread safe.
+ */
+public class CsvParser implements Closeable {
+
+    private static final int bufferSize = 64 * 1024;
+
+    private final InputStream in;
+    private final byte[] buffer = new byte[bufferSize];
+    private int position = 0;
+    private int limit = 0;
+
+    // byte offset of buffer[0] in the file
+    private long bufferStart;
+
+    // the current record's fields, reused between records
+    private String[] fields = new String[8];
+    private int fieldCount = 0;
+
+    // bytes of the field being read, fields can span buffer refills
+    private byte[] field = new byte[256];
+    private int fieldLength = 0;
+
+    /**
+     * @param in The stream, already positioned at startOffset
+     * @param startOffset The byte offset the stream starts at, 0 for a whole file
+     */
+    public CsvParser(InputStream in, long startOffset) throws IOException {
+        this.in = in;
+        this.bufferStart = startOffset;
+
+        // skip a UTF-8 byte order mark, spreadsheet apps like to write one
+        if (startOffset == 0 && fill() && limit >= 3
+                && (buffer[0] & 0xFF) == 0xEF && (buffer[1] & 0xFF) == 0xBB && (buffer[2] & 0xFF) == 0xBF) {
+            position = 3;
+        }
+    }
+
+    /**
+     * Method to read the next record
+     * @return false at the end of the stream
+     */
+    public boolean next() throws IOException {
+        while (true) {
+            fieldCount = 0;
+            fieldLength = 0;
+
+            int b = read();
+            if (b == -1) return false;
+
+            // blank line, keep going
+            if (b == '\n') continue;
+            if (b == '\r') {
+                if (peek() == '\n') position++;
+                continue;
+            }
+
+            readRecord(b);
+            return true;
+        }
+    }
+
+    /**
+     * Method to read one record, starting from its first byte
+     * @param b The first byte
+     */
+    private void readRecord(int b) throws IOException {
+        boolean quoted = false;
+        boolean fieldStart = true;
+
+        while (true) {
+            if (quoted) {
+                if (b == -1) {
+                    // unterminated quote, take what we have
+                    endField();
+                    return;
+                }
+                if (b == '"') {
+                    if (peek() == '"') {
+                        position++;
+                        append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    append(b);
+                }
+            } else if (b == ',') {
+                endField();
+                fieldStart = true;
+                b = read();
+                continue;
+            } else if (b == '\n' || b == -1) {
+                endField();
+                return;
+            } else if (b == '\r') {
+                if (peek() == '\n') position++;
+                endField();
+                return;
+            } else if (b == '"' && fieldStart) {
+                quoted = true;
+            } else {
+                // includes stray quotes inside unquoted fields, kept as they are
+                append(b);
+            }
+
+            fieldStart = false;
+            b = read();
+        }
+    }
+
+    /**
+     * @return The number of fields in the current record
+     */
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * @param index The field index
+     * @return The field's text, or null if the record has fewer fields
+     */
+    public String field(int index) {
+        return index < fieldCount ? fields[index] : null;
+    }
+
+    /**
+     * @return The byte offset just past the current record, where reading would resume
+     */
+    public long offset() {
+        return bufferStart + position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void append(int b) {
+        if (fieldLength == field.length) field = Arrays.copyOf(field, field.length * 2);
+        field[fieldLength++] = (byte) b;
+    }
+
+    private void endField() {
+        if (fieldCount == fields.length) fields = Arrays.copyOf(fields, fields.length * 2);
+        fields[fieldCount++] = new String(field, 0, fieldLength, StandardCharsets.UTF_8);
+        fieldLength = 0;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) return -1;
+        return buffer[position++] & 0xFF;
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) return -1;
+        return buffer[position] & 0xFF;
+    }
+
+    /**
+     * Method to refill the buffer once it has been consumed
+     * @return false at the end of the stream
+     */
+    private boolean fill() throws IOException {
+        bufferStart += limit;
+        position = 0;
+        limit = 0;
+
+        int read;
+        do {
+            read = in.read(buffer, 0, buffer.length);
+        } while (read == 0);
+
+        if (read == -1) return false;
+        limit = read;
+        return true;
+    }
+}
@@ -0,0 +1,256 @@
+package com.example.warehouseapp.Transfer;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.example.warehouseapp.Database.InventoryHelper;
+import com.example.warehouseapp.Database.InventoryRow;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the inventory table out as CSV or newline-delimited JSON, optionally gzipped.
+ * Rows go straight from the database to a buffered stream one at a time (see InventoryHelper.forEachRow),
+ * so memory use is the same for ten rows or ten million. The CSV uses the same columns the importer reads.
+ */
+public class InventoryExporter {
+
+    public enum Format { CSV, NDJSON }
+
+    /**
+     * Opens the destination of an export
+     */
+    public interface StreamOpener {
+        OutputStream open() throws IOException;
+    }
+
+    /**
+     * Receives an export's progress on the callback executor
+     */
+    public interface Listener {
+        void onProgress(long rowsWritten);
+
+        void onFinished(long rowsWritten, boolean cancelled);
+
+        default void onError(Exception e) {
+            Log.e("Export", "export failed", e);
+        }
+    }
+
+    private static final int bufferSize = 64 * 1024;
+
+    // how often progress is reported
+    private static final int progressInterval = 10_000;
+
+    private static final String csvHeader = "sku,description,quantity,reorder_threshold\n";
+
+    // exports queue up behind each other on one thread
+    private static final ExecutorService exportThread = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "inventory-export");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final InventoryHelper inventory;
+    private final Executor callbackExecutor;
+
+    public InventoryExporter(Context context) {
+        this(new InventoryHelper(context), new Handler(Looper.getMainLooper())::post);
+    }
+
+    /**
+     * @param inventory The table to export
+     * @param callbackExecutor Where the listener is called, the main thread in the app
+     */
+    InventoryExporter(InventoryHelper inventory, Executor callbackExecutor) {
+        this.inventory = inventory;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    /**
+     * Method to export to a file the user picked
+     * @param resolver Content resolver to open the uri with
+     * @param uri The destination
+     * @param format CSV or NDJSON
+     * @param gzip Whether to gzip the output
+     * @param listener Receives progress and the result
+     * @return A handle to cancel the export
+     */
+    public TransferJob start(ContentResolver resolver, Uri uri, Format format, boolean gzip, Listener listener) {
+        return start(() -> resolver.openOutputStream(uri), format, gzip, listener);
+    }
+
+    /**
+     * Method to export in the background
+     * @param opener Opens the destination, it is closed when the export ends
+     * @param format CSV or NDJSON
+     * @param gzip Whether to gzip the output
+     * @param listener Receives progress and the result
+     * @return A handle to cancel the export
+     */
+    public TransferJob start(StreamOpener opener, Format format, boolean gzip, Listener listener) {
+        TransferJob job = new TransferJob();
+
+        exportThread.execute(() -> {
+            long[] rows = {0};
+            try {
+                export(opener.open(), format, gzip, job, rows, count -> callbackExecutor.execute(() -> listener.onProgress(count)));
+                callbackExecutor.execute(() -> listener.onFinished(rows[0], false));
+            } catch (CancellationException e) {
+                callbackExecutor.execute(() -> listener.onFinished(rows[0], true));
+            } catch (Exception e) {
+                callbackExecutor.execute(() -> listener.onError(e));
+            }
+        });
+
+        return job;
+    }
+
+    /**
+     * Method to export on the calling thread, which must not be the main thread
+     * @param out The destination, closed when the export ends
+     * @param format CSV or NDJSON
+     * @param gzip Whether to gzip the output
+     * @return The number of rows written
+     */
+    public long export(OutputStream out, Format format, boolean gzip) throws IOException {
+        long[] rows = {0};
+        export(out, format, gzip, null, rows, null);
+        return rows[0];
+    }
+
+    /**
+     * Receives the running row count every progressInterval rows
+     */
+    interface ProgressSink {
+        void onProgress(long rowsWritten);
+    }
+
+    /**
+     * Method to run an export
+     * @param rows Counts the rows written, still valid if the export is cancelled part way
+     */
+    private void export(OutputStream out, Format format, boolean gzip, TransferJob job, long[] rows, ProgressSink progress) throws IOException {
+        OutputStream stream = gzip ? new GZIPOutputStream(out, bufferSize) : new BufferedOutputStream(out, bufferSize);
+
+        try (Writer writer = new OutputStreamWriter(stream, StandardCharsets.UTF_8)) {
+            if (format == Format.CSV) writer.write(csvHeader);
+
+            // one line buffer for the whole export
+            StringBuilder line = new StringBuilder(256);
+
+            inventory.forEachRow(row -> {
+                if (job != null && job.isCancelled()) throw new CancellationException();
+
+                line.setLength(0);
+                if (format == Format.CSV) {
+                    appendCsv(line, row);
+                } else {
+                    appendJson(line, row);
+                }
+
+                try {
+                    writer.append(line);
+                } catch (IOException e) {
+                    // forEachRow takes a plain consumer, carry the failure out of it
+                    throw new UncheckedIOException(e);
+                }
+
+                rows[0]++;
+                if (progress != null && rows[0] % progressInterval == 0) progress.onProgress(rows[0]);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Method to append a row as one CSV line, quoting fields that need it
+     * @param line The buffer
+     * @param row The row
+     */
+    static void appendCsv(StringBuilder line, InventoryRow row) {
+        appendCsvField(line, row.getSku());
+        line.append(',');
+        appendCsvField(line, row.getDesc());
+        line.append(',').append(row.getQuantity()).append(',').append(row.getReorderThreshold()).append('\n');
+    }
+
+    private static void appendCsvField(StringBuilder line, String value) {
+        if (value == null) return;
+
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') line.append('"');
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    /**
+     * Method to append a row as one JSON object followed by a newline
+     * @param line The buffer
+     * @param row The row
+     */
+    static void appendJson(StringBuilder line, InventoryRow row) {
+        line.append("{\"sku\":");
+        appendJsonString(line, row.getSku());
+        line.append(",\"description\":");
+        appendJsonString(line, row.getDesc());
+        line.append(",\"quantity\":").append(row.getQuantity());
+        line.append(",\"reorder_threshold\":").append(row.getReorderThreshold()).append("}\n");
+    }
+
+    private static void appendJsonString(StringBuilder line, String value) {
+        if (value == null) {
+            line.append("null");
+            return;
+        }
+
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': line.append("\\\""); break;
+                case '\\': line.append("\\\\"); break;
+                case '\n': line.append("\\n"); break;
+                case '\r': line.append("\\r"); break;
+                case '\t': line.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        line.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        line.append(c);
+                    }
+            }
+        }
+        line.append('"');
+    }
+}
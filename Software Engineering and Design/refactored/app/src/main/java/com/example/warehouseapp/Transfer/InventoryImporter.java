@@ -0,0 +1,304 @@
+package com.example.warehouseapp.Transfer;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.example.warehouseapp.Database.DatabaseExecutor;
+import com.example.warehouseapp.Database.ImportHelper;
+import com.example.warehouseapp.Types.InventoryItem;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Loads supplier CSV files into the inventory table.
+ * The file is parsed on the import thread while the previous chunk is written on the database writer thread,
+ * each chunk in one transaction together with a checkpoint. If the app dies part way, starting the same
+ * source again skips to the byte offset after the last stored chunk instead of reading the file from the top.
+ * Columns are matched by a header row (sku, description, quantity, reorder_threshold) when there is one,
+ * otherwise they are taken in that order.
+ */
+public class InventoryImporter {
+
+    /**
+     * Opens the file being imported, called again when an import resumes
+     */
+    public interface StreamOpener {
+        InputStream open() throws IOException;
+    }
+
+    /**
+     * Receives an import's progress on the callback executor
+     */
+    public interface Listener {
+        void onProgress(long rowsWritten, long bytesRead);
+
+        void onFinished(Result result);
+
+        default void onError(Exception e) {
+            Log.e("Import", "import failed", e);
+        }
+    }
+
+    /**
+     * What an import did
+     */
+    public static final class Result {
+        public final long rowsWritten; // rows stored, including those from earlier runs of the same import
+        public final long rowsSkipped; // rows in this run with no sku or a bad number
+        public final boolean cancelled;
+
+        Result(long rowsWritten, long rowsSkipped, boolean cancelled) {
+            this.rowsWritten = rowsWritten;
+            this.rowsSkipped = rowsSkipped;
+            this.cancelled = cancelled;
+        }
+    }
+
+    // rows per transaction, large enough that the commit cost disappears, small enough to cancel promptly
+    static final int defaultChunkSize = 5000;
+
+    // imports queue up behind each other on one thread
+    private static final ExecutorService importThread = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "inventory-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ImportHelper importHelper;
+    private final DatabaseExecutor executor;
+    private final Executor callbackExecutor;
+    private final int chunkSize;
+
+    public InventoryImporter(Context context) {
+        this(new ImportHelper(context), DatabaseExecutor.getInstance(), new Handler(Looper.getMainLooper())::post, defaultChunkSize);
+    }
+
+    /**
+     * @param importHelper Writes chunks and checkpoints
+     * @param executor Its writer thread stores the chunks
+     * @param callbackExecutor Where the listener is called, the main thread in the app
+     * @param chunkSize Rows per transaction
+     */
+    InventoryImporter(ImportHelper importHelper, DatabaseExecutor executor, Executor callbackExecutor, int chunkSize) {
+        this.importHelper = importHelper;
+        this.executor = executor;
+        this.callbackExecutor = callbackExecutor;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Method to import a file the user picked
+     * @param resolver Content resolver to open the uri with
+     * @param uri The CSV file
+     * @param listener Receives progress and the result
+     * @return A handle to cancel the import
+     */
+    public TransferJob start(ContentResolver resolver, Uri uri, Listener listener) {
+        return start(uri.toString(), () -> resolver.openInputStream(uri), listener);
+    }
+
+    /**
+     * Method to import a CSV stream in the background, resuming if this source was imported part way before
+     * @param source Names the import so it can be resumed, the same file must always get the same name
+     * @param opener Opens the stream from its first byte
+     * @param listener Receives progress and the result
+     * @return A handle to cancel the import
+     */
+    public TransferJob start(String source, StreamOpener opener, Listener listener) {
+        TransferJob job = new TransferJob();
+
+        importThread.execute(() -> {
+            try {
+                Result result = run(source, opener, listener, job);
+                callbackExecutor.execute(() -> listener.onFinished(result));
+            } catch (Exception e) {
+                callbackExecutor.execute(() -> listener.onError(e));
+            }
+        });
+
+        return job;
+    }
+
+    /**
+     * Method to drop an unfinished import's checkpoint so the next start reads the file from the top
+     * @param source The import's name
+     */
+    public void forget(String source) {
+        executor.write(() -> {
+            importHelper.clearCheckpoint(source);
+            return null;
+        }, null);
+    }
+
+    /**
+     * Method to run an import on the import thread
+     */
+    private Result run(String source, StreamOpener opener, Listener listener, TransferJob job) throws Exception {
+        ImportHelper.Checkpoint checkpoint = importHelper.getCheckpoint(source);
+
+        // the header always comes from the top of the file, even when resuming further down
+        Columns columns;
+        long dataStart;
+        try (CsvParser header = new CsvParser(opener.open(), 0)) {
+            if (!header.next()) return new Result(0, 0, false);
+
+            columns = Columns.fromHeader(header);
+            dataStart = columns == null ? 0 : header.offset();
+            if (columns == null) columns = Columns.positional();
+        }
+
+        long offset = checkpoint == null ? dataStart : Math.max(checkpoint.offset, dataStart);
+        AtomicLong stored = new AtomicLong(checkpoint == null ? 0 : checkpoint.rowsWritten);
+        long skipped = 0;
+
+        InputStream in = opener.open();
+        skipFully(in, offset);
+
+        Future<Integer> inFlight = null;
+        int inFlightSize = 0;
+
+        try (CsvParser csv = new CsvParser(in, offset)) {
+            List<InventoryItem> chunk = new ArrayList<>(chunkSize);
+
+            while (!job.isCancelled() && csv.next()) {
+                InventoryItem item = columns.toItem(csv);
+                if (item == null) {
+                    skipped++;
+                } else {
+                    chunk.add(item);
+                }
+
+                if (chunk.size() == chunkSize) {
+                    // one chunk is written while the next is parsed, wait before queueing another
+                    skipped += inFlightSize - await(inFlight);
+                    inFlightSize = chunk.size();
+                    inFlight = writeChunk(source, chunk, csv.offset(), stored, listener);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+
+            skipped += inFlightSize - await(inFlight);
+
+            if (job.isCancelled()) return new Result(stored.get(), skipped, true);
+
+            // the tail, then the import is done and its checkpoint can go
+            skipped += chunk.size() - await(writeChunk(source, chunk, csv.offset(), stored, listener));
+        }
+
+        executor.write(() -> {
+            importHelper.finish(source);
+            return null;
+        }, null).get();
+
+        return new Result(stored.get(), skipped, false);
+    }
+
+    /**
+     * Method to queue a chunk on the writer thread
+     * @return A future for the number of rows stored
+     */
+    private Future<Integer> writeChunk(String source, List<InventoryItem> chunk, long offset, AtomicLong stored, Listener listener) {
+        return executor.write(() -> {
+            // chunks run one after another on the writer, so stored is exact here
+            int written = importHelper.writeChunk(source, chunk, offset, stored.get());
+            long total = stored.addAndGet(written);
+            callbackExecutor.execute(() -> listener.onProgress(total, offset));
+            return written;
+        }, null);
+    }
+
+    /**
+     * Method to wait for a chunk write, passing on its failure
+     * @return Rows stored, 0 if there was no write
+     */
+    private static int await(Future<Integer> write) throws Exception {
+        if (write == null) return 0;
+        try {
+            return write.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+
+    private static void skipFully(InputStream in, long count) throws IOException {
+        while (count > 0) {
+            long skipped = in.skip(count);
+            if (skipped <= 0) {
+                // skip may give up early, read a byte to tell a stall from the end of the file
+                if (in.read() == -1) return;
+                skipped = 1;
+            }
+            count -= skipped;
+        }
+    }
+
+    /**
+     * Where each field sits in a record
+     */
+    private static final class Columns {
+        int sku = 0, description = 1, quantity = 2, threshold = 3;
+
+        static Columns positional() {
+            return new Columns();
+        }
+
+        /**
+         * @return The columns named by the record, or null if it isn't a header
+         */
+        static Columns fromHeader(CsvParser csv) {
+            Columns columns = new Columns();
+            columns.sku = columns.description = columns.quantity = columns.threshold = -1;
+
+            for (int i = 0; i < csv.fieldCount(); i++) {
+                switch (csv.field(i).trim().toLowerCase()) {
+                    case "sku": columns.sku = i; break;
+                    case "description": case "desc": columns.description = i; break;
+                    case "quantity": case "qty": columns.quantity = i; break;
+                    case "reorder_threshold": case "threshold": columns.threshold = i; break;
+                    default: break;
+                }
+            }
+
+            return columns.sku == -1 ? null : columns;
+        }
+
+        /**
+         * @return The record as an item, or null if it has no sku or a number doesn't parse
+         */
+        InventoryItem toItem(CsvParser csv) {
+            String skuText = field(csv, sku);
+            if (skuText == null || skuText.isEmpty()) return null;
+
+            try {
+                String quantityText = field(csv, quantity);
+                String thresholdText = field(csv, threshold);
+                int quantityValue = quantityText == null || quantityText.isEmpty() ? 0 : Integer.parseInt(quantityText);
+                int thresholdValue = thresholdText == null || thresholdText.isEmpty() ? 0 : Integer.parseInt(thresholdText);
+
+                String desc = description == -1 ? null : csv.field(description);
+                return new InventoryItem(skuText, desc, quantityValue, thresholdValue);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        private static String field(CsvParser csv, int index) {
+            if (index == -1) return null;
+            String value = csv.field(index);
+            return value == null ? null : value.trim();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.warehouseapp.Transfer;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Handle on a running import or export
+ */
+public final class TransferJob {
+
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+    TransferJob() {}
+
+    /**
+     * Method to ask the job to stop. An import stops after the chunk being written, keeping what is stored;
+     * an export stops at the next row and leaves a partial file.
+     */
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+}
@@ -1,25 +1,55 @@
 package com.example.warehouseapp.Types;
 
-public class InventoryItem {
+import java.util.Objects;
+
+/**
+ * One inventory row. Items are immutable values: an edit produces a new item, and two items
+ * with the same sku, description, quantity and reorder threshold are equal.
+ */
+public final class InventoryItem {
 
     // necessary variables for an inventory item
-    private String sku;
-    private String description;
-    private int quantity;
+    private final String sku;
+    private final String description;
+    private final int quantity;
+    private final int reorderThreshold; // stock at or below this counts as low
 
     public InventoryItem(String sku, String description, int quantity) {
+        this(sku, description, quantity, 0);
+    }
+
+    public InventoryItem(String sku, String description, int quantity, int reorderThreshold) {
         this.sku = sku;
         this.description = description;
         this.quantity = quantity;
+        this.reorderThreshold = reorderThreshold;
     }
 
     public String getSku() { return this.sku; }
-    public void setSku(String sku) { this.sku = sku; }
 
     public String getDesc() { return this.description; }
-    public void setDesc(String desc) { this.description = desc; }
 
     public int getQuantity() { return this.quantity; }
-    public void setQuantity(int quantity) { this.quantity = quantity; }
+
+    public int getReorderThreshold() { return this.reorderThreshold; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof InventoryItem)) return false;
+
+        InventoryItem other = (InventoryItem) o;
+        return quantity == other.quantity && reorderThreshold == other.reorderThreshold && Objects.equals(sku, other.sku) && Objects.equals(description, other.description);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sku, description, quantity, reorderThreshold);
+    }
+
+    @Override
+    public String toString() {
+        return sku + " (" + description + ") x" + quantity;
+    }
 
 }
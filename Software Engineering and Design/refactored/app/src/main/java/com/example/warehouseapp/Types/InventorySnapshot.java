@@ -0,0 +1,722 @@
+package com.example.warehouseapp.Types;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * Immutable, column by column copy of the inventory for the list screen. Skus, quantities and reorder thresholds
+ * are each one column. Descriptions repeat a lot ("Box 12x12 Brown" on hundreds of skus), so each distinct one is
+ * stored once in a dictionary and rows hold its int id.
+ *
+ * An edit returns a new snapshot and leaves this one alone, so a snapshot can be handed to a background thread or
+ * the list differ without locking. Columns are split into chunks of 1024 rows and an edit only copies the chunk it
+ * changes, a sku index finds the row, and a deleted row is just blanked until enough pile up to compact, so saves,
+ * deletes and adds stay cheap however large the catalog is. Rows are read by position through the column getters,
+ * items are only created when asked for.
+ *
+ * Each row also has a row id that, unlike its position, survives deletes of other rows. Snapshots edited from one
+ * load remember which row ids their recent edits changed, so an index over row ids can follow the edits instead of
+ * being rebuilt.
+ */
+public final class InventorySnapshot {
+
+    private static final int chunkShift = 10;
+    private static final int chunkSize = 1 << chunkShift;
+    private static final int chunkMask = chunkSize - 1;
+
+    // description id of a row without a description
+    private static final int noDescription = -1;
+
+    // edits remembered for rowsEditedSince, a power of two. An index further behind than this rebuilds
+    private static final int editLogSize = 4096;
+
+    // the sku index and dictionary, shared by every snapshot edited from the same load
+    private final Lineage lineage;
+
+    // row id -> value, chunk by chunk. Row ids never move, a deleted row keeps its id with a null sku until compaction
+    private final String[][] skus;
+    private final int[][] descIds;
+    private final int[][] quantities;
+    private final int[][] thresholds;
+    private final int rowCount; // row ids in use, deleted or not
+    private final int size; // rows not deleted
+    // rows not deleted in the chunks before each chunk, plus the total at the end
+    private final int[] liveBefore;
+
+    private final String[] descriptions; // the dictionary, only the first descriptionCount belong to this snapshot
+    private final int descriptionCount;
+    private final int edits; // rows the lineage had logged as edited when this snapshot was made
+
+    private InventorySnapshot(Lineage lineage, String[][] skus, int[][] descIds, int[][] quantities, int[][] thresholds,
+                              int rowCount, int size, int[] liveBefore) {
+        this.lineage = lineage;
+        this.skus = skus;
+        this.descIds = descIds;
+        this.quantities = quantities;
+        this.thresholds = thresholds;
+        this.rowCount = rowCount;
+        this.size = size;
+        this.liveBefore = liveBefore;
+        this.descriptions = lineage.descriptions;
+        this.descriptionCount = lineage.descriptionCount;
+        this.edits = lineage.edits;
+    }
+
+    /**
+     * Method to build a snapshot from items, in order. A sku listed twice keeps its first place and its last values
+     * @param items The items
+     * @return The snapshot
+     */
+    public static InventorySnapshot of(Iterable<InventoryItem> items) {
+        Builder builder = new Builder(16);
+        for (InventoryItem item : items) builder.add(item.getSku(), item.getDesc(), item.getQuantity(), item.getReorderThreshold());
+        return builder.build();
+    }
+
+    public int size() { return size; }
+
+    public String skuAt(int position) { return skuOf(skus, rowAt(position)); }
+
+    public String descAt(int position) {
+        int id = descriptionIdAt(position);
+        return id == noDescription ? null : descriptions[id];
+    }
+
+    public int quantityAt(int position) {
+        int row = rowAt(position);
+        return quantities[row >>> chunkShift][row & chunkMask];
+    }
+
+    public int thresholdAt(int position) {
+        int row = rowAt(position);
+        return thresholds[row >>> chunkShift][row & chunkMask];
+    }
+
+    /**
+     * @param position The row's position
+     * @return The row's id in the description dictionary, or -1 if it has no description
+     */
+    public int descriptionIdAt(int position) {
+        int row = rowAt(position);
+        return descIds[row >>> chunkShift][row & chunkMask];
+    }
+
+    /**
+     * @return The number of entries in the description dictionary, some may no longer be used by any row
+     */
+    public int getDescriptionCount() { return descriptionCount; }
+
+    public String getDescription(int id) {
+        if (id < 0 || id >= descriptionCount) throw new IndexOutOfBoundsException("description " + id + ", count " + descriptionCount);
+        return descriptions[id];
+    }
+
+    /**
+     * Method to read a row as an item, for code that needs one. Binding and diffing should use the column getters
+     * @param position The row's position
+     * @return A new item holding the row's values
+     */
+    public InventoryItem get(int position) {
+        return itemAt(rowAt(position));
+    }
+
+    /**
+     * Method to find a sku's position, through the sku index
+     * @param sku The sku
+     * @return The position, or -1
+     */
+    public int positionOf(String sku) {
+        int row = rowOf(sku);
+        return row == -1 ? -1 : positionOfRow(row);
+    }
+
+    public boolean contains(String sku) {
+        return rowOf(sku) != -1;
+    }
+
+    /**
+     * @param sku The sku
+     * @return The item with the sku, or null
+     */
+    public InventoryItem getItem(String sku) {
+        int row = rowOf(sku);
+        return row == -1 ? null : itemAt(row);
+    }
+
+    /**
+     * Method to add an item at the end, or overwrite the item with the same sku in place
+     * @param item The item to store
+     * @return The new snapshot
+     */
+    public InventorySnapshot put(InventoryItem item) {
+        synchronized (lineage) {
+            InventorySnapshot base = editable();
+            int row = base.lineage.find(base.skus, item.getSku());
+            if (row == -1) return base.append(item);
+
+            base.lineage.logEdit(row);
+            return base.publish(base.withRow(row, item));
+        }
+    }
+
+    /**
+     * Method to swap in an edited item, keeping the original item's place even if the sku was changed.
+     * If the new sku already belonged to a different item, that item is dropped, so a sku is never listed twice.
+     * @param oldSku The sku of the item being edited
+     * @param newItem The edited item
+     * @return The new snapshot
+     */
+    public InventorySnapshot replace(String oldSku, InventoryItem newItem) {
+        synchronized (lineage) {
+            InventorySnapshot base = editable();
+            Lineage lineage = base.lineage;
+
+            int row = lineage.find(base.skus, oldSku);
+            if (row == -1) return base.put(newItem);
+            lineage.logEdit(row);
+            if (oldSku.equals(newItem.getSku())) return base.publish(base.withRow(row, newItem));
+
+            // the index is updated against the columns that still hold each sku
+            int displaced = lineage.find(base.skus, newItem.getSku());
+            lineage.delete(base.skus, row);
+            if (displaced != -1) {
+                lineage.delete(base.skus, displaced);
+                lineage.logEdit(displaced);
+            }
+
+            InventorySnapshot edited = base.withRow(row, newItem);
+            if (displaced != -1) edited = edited.withoutRow(displaced);
+            lineage.insert(edited.skus, edited.rowCount, row);
+            return base.publish(edited);
+        }
+    }
+
+    /**
+     * Method to delete the item with a sku
+     * @param sku The sku to delete
+     * @return The new snapshot, or this one if there was no such sku
+     */
+    public InventorySnapshot remove(String sku) {
+        synchronized (lineage) {
+            InventorySnapshot base = editable();
+            int row = base.lineage.find(base.skus, sku);
+            if (row == -1) return base;
+
+            base.lineage.delete(base.skus, row);
+            base.lineage.logEdit(row);
+            return base.publish(base.withoutRow(row));
+        }
+    }
+
+    /**
+     * @return Row ids in use, deleted or not. Row ids run from 0 up to this in position order
+     */
+    public int getRowCount() { return rowCount; }
+
+    /**
+     * @param row A row id below getRowCount
+     * @return The row's sku, or null if the row was deleted
+     */
+    public String skuOfRow(int row) {
+        if (row < 0 || row >= rowCount) throw new IndexOutOfBoundsException("row " + row + ", rows " + rowCount);
+        return skuOf(skus, row);
+    }
+
+    /**
+     * @param row A row id below getRowCount
+     * @return The row's id in the description dictionary, or -1 if it has none or was deleted
+     */
+    public int descriptionIdOfRow(int row) {
+        if (skuOfRow(row) == null) return noDescription;
+        return descIds[row >>> chunkShift][row & chunkMask];
+    }
+
+    /**
+     * Method to find the row ids changed by the edits between an earlier snapshot and this one, so an index of
+     * the earlier one can catch up by reindexing just those rows
+     * @param earlier A snapshot this one may have been edited from
+     * @return The changed row ids, possibly repeated, or null if this isn't an edit of earlier or the edits
+     *         between them are no longer remembered, a compaction for instance. Then the index has to be rebuilt
+     */
+    public int[] rowsEditedSince(InventorySnapshot earlier) {
+        synchronized (lineage) {
+            if (earlier.lineage != lineage || earlier.edits > edits || lineage.edits - earlier.edits > editLogSize) return null;
+
+            int[] rows = new int[edits - earlier.edits];
+            for (int i = 0; i < rows.length; i++) rows[i] = lineage.editLog[(earlier.edits + i) & (editLogSize - 1)];
+            return rows;
+        }
+    }
+
+    /**
+     * Method to turn row ids into positions in one pass, cheaper than a lookup per row once rows have been deleted
+     * @param rows Row ids in ascending order, overwritten from the front with the positions of those not deleted
+     * @param count How many entries of rows are used
+     * @return How many positions were written
+     */
+    public int toPositions(int[] rows, int count) {
+        int kept = 0;
+        // in a chunk with deleted rows: the next row to count and the live rows before it
+        int countedRow = -1;
+        int countedPosition = 0;
+
+        for (int i = 0; i < count; i++) {
+            int row = rows[i];
+            if (row >= rowCount || skuOf(skus, row) == null) continue;
+
+            int chunk = row >>> chunkShift;
+            int base = chunk << chunkShift;
+            if (liveBefore[chunk + 1] - liveBefore[chunk] == Math.min(chunkSize, rowCount - base)) {
+                rows[kept++] = liveBefore[chunk] + (row - base);
+                continue;
+            }
+
+            // carry on counting from the previous row if it was in the same chunk
+            if (countedRow < base) {
+                countedRow = base;
+                countedPosition = liveBefore[chunk];
+            }
+            for (; countedRow < row; countedRow++) {
+                if (skuOf(skus, countedRow) != null) countedPosition++;
+            }
+            rows[kept++] = countedPosition;
+        }
+        return kept;
+    }
+
+    /**
+     * Method to view every row as an item list, for the list differ
+     * @return A read-only list backed by this snapshot
+     */
+    public Rows asList() {
+        return new Rows(null, size);
+    }
+
+    /**
+     * Method to view some rows as an item list, for search results
+     * @param positions The rows' positions, in the order to list them. The array must not be changed afterwards
+     * @param count How many entries of positions are used
+     * @return A read-only list backed by this snapshot
+     */
+    public Rows rows(int[] positions, int count) {
+        return new Rows(positions, count);
+    }
+
+    /**
+     * Method to turn a position into a row id. Cheap until rows are deleted, then a search of the chunk counts
+     * and, inside a chunk with deleted rows, a skip over them
+     */
+    private int rowAt(int position) {
+        if (position < 0 || position >= size) throw new IndexOutOfBoundsException("position " + position + ", size " + size);
+        // nothing deleted since the last compaction, positions are row ids
+        if (size == rowCount) return position;
+
+        // the last chunk with no more rows before it than the position, which skips over emptied chunks
+        int low = 0;
+        int high = skus.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (liveBefore[mid] <= position) low = mid;
+            else high = mid - 1;
+        }
+
+        int remaining = position - liveBefore[low];
+        int base = low << chunkShift;
+        if (liveBefore[low + 1] - liveBefore[low] == Math.min(chunkSize, rowCount - base)) return base + remaining;
+
+        String[] chunk = skus[low];
+        for (int offset = 0; ; offset++) {
+            if (chunk[offset] != null && remaining-- == 0) return base + offset;
+        }
+    }
+
+    private int positionOfRow(int row) {
+        int chunk = row >>> chunkShift;
+        int position = liveBefore[chunk];
+        if (liveBefore[chunk + 1] - position == Math.min(chunkSize, rowCount - (chunk << chunkShift))) return position + (row & chunkMask);
+
+        for (int offset = 0; offset < (row & chunkMask); offset++) {
+            if (skus[chunk][offset] != null) position++;
+        }
+        return position;
+    }
+
+    /**
+     * Method to find a sku's row id. The index only describes the newest snapshot, older ones scan
+     */
+    private int rowOf(String sku) {
+        synchronized (lineage) {
+            if (lineage.latest == this) return lineage.find(skus, sku);
+        }
+
+        for (int row = 0; row < rowCount; row++) {
+            if (sku.equals(skuOf(skus, row))) return row;
+        }
+        return -1;
+    }
+
+    private InventoryItem itemAt(int row) {
+        int chunk = row >>> chunkShift;
+        int offset = row & chunkMask;
+        int id = descIds[chunk][offset];
+        return new InventoryItem(skus[chunk][offset], id == noDescription ? null : descriptions[id], quantities[chunk][offset], thresholds[chunk][offset]);
+    }
+
+    /**
+     * Method to get a snapshot whose edits may update the shared index: this one if it's the newest,
+     * otherwise a compacted copy with an index of its own. Called holding the lineage lock
+     */
+    private InventorySnapshot editable() {
+        return lineage.latest == this ? this : compacted();
+    }
+
+    /**
+     * Method to make an edit of this snapshot the newest, compacting it if deleted rows have piled up.
+     * Called holding the lineage lock
+     */
+    private InventorySnapshot publish(InventorySnapshot edited) {
+        lineage.latest = edited;
+
+        // compacting copies every row, waiting for a quarter of them to be deleted keeps that to a few copies per delete
+        int deleted = edited.rowCount - edited.size;
+        return deleted > chunkSize && deleted > edited.size / 4 ? edited.compacted() : edited;
+    }
+
+    /**
+     * Method to copy the snapshot with one row overwritten. Only the chunks whose value changes are copied,
+     * the sku index is left to the caller
+     */
+    private InventorySnapshot withRow(int row, InventoryItem item) {
+        int descId = lineage.intern(item.getDesc());
+        String[][] newSkus = item.getSku().equals(skuOf(skus, row)) ? skus : with(skus, row, item.getSku());
+
+        return new InventorySnapshot(lineage, newSkus, with(descIds, row, descId), with(quantities, row, item.getQuantity()),
+                with(thresholds, row, item.getReorderThreshold()), rowCount, size, liveBefore);
+    }
+
+    private InventorySnapshot withoutRow(int row) {
+        int[] newLiveBefore = liveBefore.clone();
+        for (int chunk = (row >>> chunkShift) + 1; chunk < newLiveBefore.length; chunk++) newLiveBefore[chunk]--;
+
+        return new InventorySnapshot(lineage, with(skus, row, null), descIds, quantities, thresholds, rowCount, size - 1, newLiveBefore);
+    }
+
+    private InventorySnapshot append(InventoryItem item) {
+        int row = rowCount;
+        int chunk = row >>> chunkShift;
+
+        String[][] newSkus = skus;
+        int[][] newDescIds = descIds;
+        int[][] newQuantities = quantities;
+        int[][] newThresholds = thresholds;
+        int[] newLiveBefore;
+        if (chunk == skus.length) {
+            newSkus = Arrays.copyOf(skus, chunk + 1);
+            newDescIds = Arrays.copyOf(descIds, chunk + 1);
+            newQuantities = Arrays.copyOf(quantities, chunk + 1);
+            newThresholds = Arrays.copyOf(thresholds, chunk + 1);
+            newSkus[chunk] = new String[chunkSize];
+            newDescIds[chunk] = new int[chunkSize];
+            newQuantities[chunk] = new int[chunkSize];
+            newThresholds[chunk] = new int[chunkSize];
+            newLiveBefore = Arrays.copyOf(liveBefore, chunk + 2);
+            newLiveBefore[chunk + 1] = size;
+        } else {
+            newLiveBefore = liveBefore.clone();
+        }
+        newLiveBefore[chunk + 1]++;
+
+        lineage.logEdit(row);
+
+        // no snapshot of this lineage reads past its own row count, so the new row goes straight into the shared last chunk
+        int offset = row & chunkMask;
+        newSkus[chunk][offset] = item.getSku();
+        newDescIds[chunk][offset] = lineage.intern(item.getDesc());
+        newQuantities[chunk][offset] = item.getQuantity();
+        newThresholds[chunk][offset] = item.getReorderThreshold();
+
+        InventorySnapshot appended = new InventorySnapshot(lineage, newSkus, newDescIds, newQuantities, newThresholds, row + 1, size + 1, newLiveBefore);
+        lineage.insert(appended.skus, appended.rowCount, row);
+        return publish(appended);
+    }
+
+    /**
+     * Method to copy the rows that aren't deleted into a fresh snapshot with its own index and dictionary
+     */
+    private InventorySnapshot compacted() {
+        Builder builder = new Builder(size);
+        for (int row = 0; row < rowCount; row++) {
+            String sku = skuOf(skus, row);
+            if (sku == null) continue;
+
+            int chunk = row >>> chunkShift;
+            int offset = row & chunkMask;
+            int id = descIds[chunk][offset];
+            builder.add(sku, id == noDescription ? null : descriptions[id], quantities[chunk][offset], thresholds[chunk][offset]);
+        }
+        return builder.build();
+    }
+
+    private static String skuOf(String[][] skus, int row) {
+        return skus[row >>> chunkShift][row & chunkMask];
+    }
+
+    // the column with a copy of the row's chunk holding the new value
+    private static String[][] with(String[][] column, int row, String value) {
+        int chunk = row >>> chunkShift;
+        String[][] copy = column.clone();
+        copy[chunk] = column[chunk].clone();
+        copy[chunk][row & chunkMask] = value;
+        return copy;
+    }
+
+    // the column itself if the value is unchanged
+    private static int[][] with(int[][] column, int row, int value) {
+        int chunk = row >>> chunkShift;
+        if (column[chunk][row & chunkMask] == value) return column;
+
+        int[][] copy = column.clone();
+        copy[chunk] = column[chunk].clone();
+        copy[chunk][row & chunkMask] = value;
+        return copy;
+    }
+
+    /**
+     * Rows of the snapshot by position, all of them or a selection. Bind and diff through the column getters,
+     * get makes a new item each call
+     */
+    public final class Rows extends AbstractList<InventoryItem> implements RandomAccess {
+        private final int[] positions; // null for every row
+        private final int count;
+
+        Rows(int[] positions, int count) {
+            this.positions = positions;
+            this.count = count;
+        }
+
+        public InventorySnapshot getSnapshot() { return InventorySnapshot.this; }
+
+        /**
+         * @param index The index in this list
+         * @return The row's position in the snapshot
+         */
+        public int positionAt(int index) {
+            if (index < 0 || index >= count) throw new IndexOutOfBoundsException("index " + index + ", size " + count);
+            return positions == null ? index : positions[index];
+        }
+
+        public String skuAt(int index) { return InventorySnapshot.this.skuAt(positionAt(index)); }
+
+        public String descAt(int index) { return InventorySnapshot.this.descAt(positionAt(index)); }
+
+        public int quantityAt(int index) { return InventorySnapshot.this.quantityAt(positionAt(index)); }
+
+        public int thresholdAt(int index) { return InventorySnapshot.this.thresholdAt(positionAt(index)); }
+
+        @Override
+        public InventoryItem get(int index) {
+            return InventorySnapshot.this.get(positionAt(index));
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+    }
+
+    /**
+     * The state every snapshot of one load shares: an open addressing sku index and the description dictionary.
+     * Both describe the newest snapshot, only it may use the index or add to them. Guarded by its own lock
+     */
+    private static final class Lineage {
+        // linear probing slows down sharply past about 70%
+        private static final float maxLoad = 0.6f;
+
+        InventorySnapshot latest;
+
+        // row id + 1 of each sku that isn't deleted, 0 for an empty slot. The length is a power of two
+        int[] table;
+        int entries;
+
+        // grows in place, no snapshot reads past the count it was made with
+        String[] descriptions = new String[16];
+        int descriptionCount;
+        final Map<String, Integer> descriptionIds = new HashMap<>();
+
+        // row ids changed by each edit, the last editLogSize of them in a ring
+        final int[] editLog = new int[editLogSize];
+        int edits;
+
+        Lineage(int expectedRows) {
+            table = new int[capacityFor(expectedRows)];
+        }
+
+        int find(String[][] skus, String sku) {
+            int mask = table.length - 1;
+            for (int slot = spread(sku) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+                int row = table[slot] - 1;
+                if (sku.equals(skuOf(skus, row))) return row;
+            }
+            return -1;
+        }
+
+        /**
+         * Method to index a row
+         * @param skus Columns holding the row's sku and every other indexed sku
+         * @param rowCount Row ids in use in those columns
+         */
+        void insert(String[][] skus, int rowCount, int row) {
+            if (entries + 1 > table.length * maxLoad) rehash(skus, rowCount, table.length * 2);
+            place(skus, row);
+            entries++;
+        }
+
+        /**
+         * Method to drop a row from the index
+         * @param skus Columns still holding the row's sku and every other indexed sku
+         */
+        void delete(String[][] skus, int row) {
+            int mask = table.length - 1;
+            int hole = spread(skuOf(skus, row)) & mask;
+            while (table[hole] != row + 1) hole = (hole + 1) & mask;
+
+            // backward shift deletion, later entries of the same run move up into the hole so no tombstones build up
+            int next = hole;
+            while (true) {
+                next = (next + 1) & mask;
+                if (table[next] == 0) break;
+
+                int home = spread(skuOf(skus, table[next] - 1)) & mask;
+                boolean homeAfterHole = hole <= next ? hole < home && home <= next : hole < home || home <= next;
+                if (!homeAfterHole) {
+                    table[hole] = table[next];
+                    hole = next;
+                }
+            }
+            table[hole] = 0;
+            entries--;
+        }
+
+        void logEdit(int row) {
+            editLog[edits++ & (editLogSize - 1)] = row;
+        }
+
+        /**
+         * Method to find a description's id, adding it to the dictionary if it's new
+         */
+        int intern(String description) {
+            if (description == null) return noDescription;
+
+            Integer id = descriptionIds.get(description);
+            if (id == null) {
+                if (descriptionCount == descriptions.length) descriptions = Arrays.copyOf(descriptions, descriptions.length * 2);
+                id = descriptionCount;
+                descriptions[descriptionCount++] = description;
+                descriptionIds.put(description, id);
+            }
+            return id;
+        }
+
+        private void place(String[][] skus, int row) {
+            int mask = table.length - 1;
+            int slot = spread(skuOf(skus, row)) & mask;
+            while (table[slot] != 0) slot = (slot + 1) & mask;
+            table[slot] = row + 1;
+        }
+
+        private void rehash(String[][] skus, int rowCount, int capacity) {
+            table = new int[capacity];
+            for (int row = 0; row < rowCount; row++) {
+                if (skuOf(skus, row) != null) place(skus, row);
+            }
+        }
+
+        // the smallest power of two that keeps the rows under the load limit
+        private static int capacityFor(int rows) {
+            int capacity = 16;
+            while (capacity * maxLoad < rows) capacity <<= 1;
+            return capacity;
+        }
+
+        private static int spread(String sku) {
+            // skus differ mostly in their last characters, spread that over the bits the table mask keeps
+            int hash = sku.hashCode() * 0x9e3779b9;
+            return hash ^ hash >>> 16;
+        }
+    }
+
+    /**
+     * Collects rows into a snapshot, sharing one dictionary entry between rows with the same description.
+     * Used to load a snapshot straight from the database without making an item per row. Builds one snapshot
+     */
+    public static final class Builder {
+        private final Lineage lineage;
+        private String[][] skus;
+        private int[][] descIds;
+        private int[][] quantities;
+        private int[][] thresholds;
+        private int rowCount;
+
+        public Builder(int expectedRows) {
+            lineage = new Lineage(expectedRows);
+            int chunks = Math.max(1, (expectedRows + chunkMask) >>> chunkShift);
+            skus = new String[chunks][];
+            descIds = new int[chunks][];
+            quantities = new int[chunks][];
+            thresholds = new int[chunks][];
+        }
+
+        /**
+         * Method to add a row. A sku added again overwrites its earlier row in place
+         * @return This builder
+         */
+        public Builder add(String sku, String description, int quantity, int reorderThreshold) {
+            int row = lineage.find(skus, sku);
+            if (row == -1) {
+                row = rowCount;
+                allocate(row >>> chunkShift);
+                skus[row >>> chunkShift][row & chunkMask] = sku;
+                rowCount++;
+                lineage.insert(skus, rowCount, row);
+            }
+
+            int chunk = row >>> chunkShift;
+            int offset = row & chunkMask;
+            descIds[chunk][offset] = lineage.intern(description);
+            quantities[chunk][offset] = quantity;
+            thresholds[chunk][offset] = reorderThreshold;
+            return this;
+        }
+
+        public InventorySnapshot build() {
+            int chunks = Math.max(1, (rowCount + chunkMask) >>> chunkShift);
+            allocate(chunks - 1);
+
+            int[] liveBefore = new int[chunks + 1];
+            for (int chunk = 0; chunk <= chunks; chunk++) liveBefore[chunk] = Math.min(chunk << chunkShift, rowCount);
+
+            InventorySnapshot snapshot = new InventorySnapshot(lineage, Arrays.copyOf(skus, chunks), Arrays.copyOf(descIds, chunks),
+                    Arrays.copyOf(quantities, chunks), Arrays.copyOf(thresholds, chunks), rowCount, rowCount, liveBefore);
+            lineage.latest = snapshot;
+            return snapshot;
+        }
+
+        private void allocate(int chunk) {
+            if (chunk == skus.length) {
+                skus = Arrays.copyOf(skus, chunk * 2);
+                descIds = Arrays.copyOf(descIds, chunk * 2);
+                quantities = Arrays.copyOf(quantities, chunk * 2);
+                thresholds = Arrays.copyOf(thresholds, chunk * 2);
+            }
+            if (skus[chunk] == null) {
+                skus[chunk] = new String[chunkSize];
+                descIds[chunk] = new int[chunkSize];
+                quantities[chunk] = new int[chunkSize];
+                thresholds[chunk] = new int[chunkSize];
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.warehouseapp.Types;
+
+/**
+ * Whole-inventory figures for the dashboard: units on hand, number of skus and how many of them are out of stock
+ */
+public final class InventoryTotals {
+
+    private final long units;
+    private final int skuCount;
+    private final int outOfStockCount;
+
+    public InventoryTotals(long units, int skuCount, int outOfStockCount) {
+        this.units = units;
+        this.skuCount = skuCount;
+        this.outOfStockCount = outOfStockCount;
+    }
+
+    public long getUnits() { return this.units; }
+
+    public int getSkuCount() { return this.skuCount; }
+
+    public int getOutOfStockCount() { return this.outOfStockCount; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof InventoryTotals)) return false;
+        InventoryTotals other = (InventoryTotals) o;
+        return units == other.units && skuCount == other.skuCount && outOfStockCount == other.outOfStockCount;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * Long.hashCode(units) + skuCount) + outOfStockCount;
+    }
+
+    @Override
+    public String toString() {
+        return "InventoryTotals{units=" + units + ", skus=" + skuCount + ", outOfStock=" + outOfStockCount + "}";
+    }
+}
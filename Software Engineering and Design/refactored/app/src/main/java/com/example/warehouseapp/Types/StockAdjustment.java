@@ -0,0 +1,33 @@
+package com.example.warehouseapp.Types;
+
+/**
+ * A change to one item's quantity, such as a pick (negative) or a delivery (positive).
+ * The reason and user are kept in the stock ledger alongside the change.
+ */
+public final class StockAdjustment {
+
+    private final String sku;
+    private final int delta;
+    private final String reason; // why the stock moved, e.g. "pick", may be null
+    private final String user; // who moved it, may be null
+
+    public StockAdjustment(String sku, int delta) {
+        this(sku, delta, null, null);
+    }
+
+    public StockAdjustment(String sku, int delta, String reason, String user) {
+        this.sku = sku;
+        this.delta = delta;
+        this.reason = reason;
+        this.user = user;
+    }
+
+    public String getSku() { return this.sku; }
+
+    public int getDelta() { return this.delta; }
+
+    public String getReason() { return this.reason; }
+
+    public String getUser() { return this.user; }
+
+}
@@ -0,0 +1,36 @@
+package com.example.warehouseapp.Types;
+
+/**
+ * One entry of the stock ledger: a change to an item's quantity and when, why and by whom it was made
+ */
+public final class StockMovement {
+
+    private final String sku;
+    private final int delta;
+    private final long timestamp; // epoch millis
+    private final String reason;
+    private final String user;
+
+    public StockMovement(String sku, int delta, long timestamp, String reason, String user) {
+        this.sku = sku;
+        this.delta = delta;
+        this.timestamp = timestamp;
+        this.reason = reason;
+        this.user = user;
+    }
+
+    public String getSku() { return this.sku; }
+
+    public int getDelta() { return this.delta; }
+
+    public long getTimestamp() { return this.timestamp; }
+
+    public String getReason() { return this.reason; }
+
+    public String getUser() { return this.user; }
+
+    @Override
+    public String toString() {
+        return "StockMovement{" + sku + " " + (delta >= 0 ? "+" : "") + delta + " at " + timestamp + ", " + reason + ", " + user + "}";
+    }
+}
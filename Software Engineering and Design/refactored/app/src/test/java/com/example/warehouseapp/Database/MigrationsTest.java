@@ -0,0 +1,159 @@
+package com.example.warehouseapp.Database;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+
+import com.example.warehouseapp.Types.InventoryItem;
+import com.example.warehouseapp.Types.InventoryTotals;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Upgrades populated old databases and checks nothing is lost and the search index backfill catches up.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class MigrationsTest {
+
+    private static final String name = "migration_test.db";
+    private static final int rows = 2_500;
+
+    private Context context;
+    private WarehouseDatabase database;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        context.deleteDatabase(name);
+    }
+
+    @After
+    public void tearDown() {
+        if (database != null) database.close();
+        context.deleteDatabase(name);
+    }
+
+    @Test
+    public void upgradeFromVersion1KeepsEveryRow() {
+        createVersion1();
+
+        SQLiteDatabase db = open();
+        assertEquals(Migrations.latestVersion, db.getVersion());
+        assertEquals(rows, DatabaseUtils.queryNumEntries(db, InventoryHelper.table));
+
+        // the old account is still there and the salt column was added beside it
+        assertEquals("hash", DatabaseUtils.stringForQuery(db, "SELECT password FROM users WHERE username = 'admin'", null));
+        assertTrue(Migrations.hasColumn(db, UserHelper.table, "salt"));
+
+        // every row starts with no reorder threshold
+        assertEquals(0, DatabaseUtils.longForQuery(db, "SELECT count(*) FROM inventory WHERE reorder_threshold <> 0", null));
+        InventoryHelper helper = new InventoryHelper(database);
+        try (ItemCursor low = helper.getLowStockItems(); ItemCursor out = helper.getOutOfStockItems()) {
+            assertEquals(emptyRows(), low.getCount());
+            assertEquals(low.getCount(), out.getCount());
+        }
+
+        // the index is filled later, not during the upgrade
+        assertEquals(1, Backfills.pending(db).size());
+        assertEquals(rows, helper.getAllItems().size());
+
+        // the totals are seeded from the rows that were already there
+        long units = 0;
+        for (int i = 0; i < rows; i++) units += i % 40;
+        assertEquals(new InventoryTotals(units, rows, emptyRows()), helper.getTotals());
+
+        // the stock ledger starts empty, from a snapshot of every stored quantity
+        assertEquals(rows, DatabaseUtils.queryNumEntries(db, StockLedgerHelper.snapshotsTable));
+        assertEquals(0, DatabaseUtils.queryNumEntries(db, StockLedgerHelper.movementsTable));
+        assertEquals(39, new StockLedgerHelper(database).getQuantityAt(sku(39), System.currentTimeMillis()));
+    }
+
+    @Test
+    public void backfillCatchesUpWithWritesMadeWhileItRuns() {
+        createVersion1();
+        SQLiteDatabase db = open();
+        InventoryHelper helper = new InventoryHelper(database);
+
+        // first chunk only, then edit rows on both sides of the backfill position
+        assertTrue(Backfills.runChunk(db, Backfills.searchIndex, 1000));
+        helper.insertOrUpdateItem(new InventoryItem(sku(10), "Pallet Wrap", 1)); // already indexed
+        helper.insertOrUpdateItem(new InventoryItem(sku(2000), "Pallet Wrap", 1)); // not yet reached
+        helper.deleteItem(sku(20));
+        helper.deleteItem(sku(2100));
+        helper.insertOrUpdateItem(new InventoryItem("NEW1", "Pallet Wrap", 1));
+
+        while (Backfills.runChunk(db, Backfills.searchIndex, 1000)) { }
+        assertTrue(Backfills.pending(db).isEmpty());
+
+        // every surviving row is searchable exactly once, with its latest values
+        assertEquals(rows - 2 - 2, helper.searchItems("box", rows).size());
+        List<InventoryItem> wraps = helper.searchItems("wrap", 10);
+        assertEquals(3, wraps.size());
+        assertTrue(helper.searchItems(sku(20), 10).isEmpty());
+        assertTrue(helper.searchItems(sku(2100), 10).isEmpty());
+
+        // the triggers no longer wait on the backfill
+        helper.insertOrUpdateItem(new InventoryItem("NEW2", "Label Roll", 1));
+        assertEquals(1, helper.searchItems("label", 10).size());
+    }
+
+    @Test
+    public void freshInstallHasNothingToBackfill() {
+        SQLiteDatabase db = open();
+        assertEquals(Migrations.latestVersion, db.getVersion());
+        assertTrue(Backfills.pending(db).isEmpty());
+
+        InventoryHelper helper = new InventoryHelper(database);
+        helper.insertOrUpdateItem(new InventoryItem("SKU1", "Box Brown", 1));
+        assertEquals(1, helper.searchItems("box", 10).size());
+    }
+
+    private SQLiteDatabase open() {
+        database = new WarehouseDatabase(context, name);
+        return database.getDatabase();
+    }
+
+    // the schema the first release shipped, before salts and the search index
+    private void createVersion1() {
+        SQLiteDatabase db = SQLiteDatabase.openOrCreateDatabase(context.getDatabasePath(name), null);
+        db.execSQL("CREATE TABLE inventory (sku TEXT PRIMARY KEY, description TEXT, quantity INTEGER)");
+        db.execSQL("CREATE TABLE users (username TEXT PRIMARY KEY, password TEXT)");
+        db.execSQL("INSERT INTO users VALUES ('admin', 'hash')");
+
+        db.beginTransaction();
+        try {
+            ContentValues values = new ContentValues();
+            for (int i = 0; i < rows; i++) {
+                values.put("sku", sku(i));
+                values.put("description", "Box " + i);
+                values.put("quantity", i % 40);
+                db.insert("inventory", null, values);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        db.setVersion(1);
+        db.close();
+    }
+
+    // rows createVersion1 stores with a quantity of 0
+    private static int emptyRows() {
+        return (rows + 39) / 40;
+    }
+
+    private static String sku(int i) {
+        return String.format("SKU%05d", i);
+    }
+}
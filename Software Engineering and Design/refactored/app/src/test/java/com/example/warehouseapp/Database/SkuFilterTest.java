@@ -0,0 +1,66 @@
+package com.example.warehouseapp.Database;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * The sku filter never rejects a sku it holds, and turns away unknown skus at about the configured rate.
+ */
+public class SkuFilterTest {
+
+    private static final int stocked = 100_000;
+    private static final int scanned = 200_000;
+
+    @Test
+    public void neverRejectsAStockedSku() {
+        SkuFilter filter = new SkuFilter(stocked, 0.01);
+        for (int i = 0; i < stocked; i++) filter.add(String.format("SKU%07d", i));
+
+        for (int i = 0; i < stocked; i++) assertTrue(filter.mightContain(String.format("SKU%07d", i)));
+    }
+
+    @Test
+    public void falsePositiveRateMatchesConfiguration() {
+        for (double rate : new double[]{0.05, 0.01, 0.001}) {
+            SkuFilter filter = new SkuFilter(stocked, rate);
+            for (int i = 0; i < stocked; i++) filter.add(String.format("SKU%07d", i));
+
+            // labels from another site, close to ours but never stocked
+            int passed = 0;
+            for (int i = 0; i < scanned; i++) {
+                if (filter.mightContain(String.format("EXT%07d", i))) passed++;
+            }
+
+            double measured = (double) passed / scanned;
+            System.out.printf("sku filter at %.3f: %d bits, %d hashes, measured %.4f%n", rate, filter.getBitCount(), filter.getHashCount(), measured);
+            assertTrue("configured " + rate + " measured " + measured, measured < rate * 1.5);
+        }
+    }
+
+    @Test
+    public void resavingAKnownSkuDoesNotCountAsGrowth() {
+        SkuFilter filter = new SkuFilter(10, 0.01);
+        for (int i = 0; i < 10; i++) assertTrue(filter.add("SKU" + i));
+
+        // a busy sku is saved over and over, the filter doesn't fill up from it
+        for (int i = 0; i < 1_000; i++) assertFalse(filter.add("SKU3"));
+        assertFalse(filter.isStale());
+
+        // past its expected size the filter asks to be rebuilt
+        filter.add("SKU10");
+        assertTrue(filter.isStale());
+    }
+
+    @Test
+    public void deletesMakeItStale() {
+        SkuFilter filter = new SkuFilter(100, 0.01);
+        for (int i = 0; i < 50; i++) filter.add("SKU" + i);
+
+        for (int i = 0; i < 10; i++) filter.removed();
+        assertFalse(filter.isStale());
+
+        filter.removed();
+        assertTrue(filter.isStale());
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.warehouseapp.Database;
+
+import com.example.warehouseapp.Types.InventoryItem;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * StockLevels against a HashMap under random saves and deletes, plus its memory footprint at a million skus
+ * next to a HashMap&lt;String, Integer&gt; and a List&lt;InventoryItem&gt; holding the same stock.
+ */
+public class StockLevelsTest {
+
+    private static final int skus = 1_000_000;
+
+    @Test
+    public void matchesAHashMap() {
+        StockLevels levels = new StockLevels();
+        Map<String, Integer> expected = new HashMap<>();
+        Random random = new Random(7);
+
+        // a small key space, so skus are saved, deleted and saved again many times over. Some
+        // skus have a character past latin-1 and are stored two bytes to a character
+        for (int i = 0; i < 200_000; i++) {
+            String sku = (random.nextInt(10) == 0 ? "\u0141" : "SKU") + random.nextInt(5_000);
+            if (random.nextInt(4) == 0) {
+                levels.remove(sku);
+                expected.remove(sku);
+            } else {
+                int quantity = random.nextInt(1_000) - 100;
+                levels.put(sku, quantity);
+                expected.put(sku, quantity);
+            }
+        }
+
+        assertEquals(expected.size(), levels.size());
+        for (int i = 0; i < 5_000; i++) {
+            for (String sku : new String[]{"SKU" + i, "\u0141" + i, "\u0001A" + i}) {
+                assertEquals(sku, expected.getOrDefault(sku, Integer.MIN_VALUE).intValue(), levels.getQuantity(sku, Integer.MIN_VALUE));
+                assertEquals(sku, expected.containsKey(sku), levels.contains(sku));
+            }
+        }
+    }
+
+    @Test
+    public void readersNeverSeeAnotherSkusQuantity() throws InterruptedException {
+        StockLevels levels = new StockLevels();
+        // every sku's quantity is its own number, so a lookup can tell if it landed on the wrong entry
+        for (int i = 0; i < 1_000; i++) levels.put("SKU" + i, i);
+
+        Thread writer = new Thread(() -> {
+            // keeps growing, rebuilding and shifting entries while the readers look things up
+            for (int i = 1_000; i < 200_000; i++) {
+                levels.put("SKU" + i, i);
+                levels.remove("SKU" + (i - 500));
+            }
+        });
+        writer.start();
+
+        List<String> failures = new ArrayList<>();
+        Random random = new Random(3);
+        while (writer.isAlive()) {
+            int i = random.nextInt(200_000);
+            int quantity = levels.getQuantity("SKU" + i, -1);
+            if (quantity != -1 && quantity != i) failures.add("SKU" + i + " read " + quantity);
+        }
+        writer.join();
+
+        assertTrue(failures.toString(), failures.isEmpty());
+        // the first 500 were never removed, nor the last 500
+        assertEquals(1_000, levels.size());
+    }
+
+    @Test
+    public void footprintAtAMillionSkus() {
+        Random random = new Random(11);
+        int[] quantities = new int[skus];
+        for (int i = 0; i < skus; i++) quantities[i] = random.nextInt(100_000);
+
+        // sized up front, the way InventoryHelper loads it from the row count
+        long before = usedHeap();
+        StockLevels levels = new StockLevels(skus);
+        for (int i = 0; i < skus; i++) levels.put(String.format("SKU%07d", i), quantities[i]);
+        long levelsBytes = usedHeap() - before;
+
+        before = usedHeap();
+        Map<String, Integer> map = new HashMap<>();
+        for (int i = 0; i < skus; i++) map.put(String.format("SKU%07d", i), quantities[i]);
+        long mapBytes = usedHeap() - before;
+
+        before = usedHeap();
+        List<InventoryItem> list = new ArrayList<>();
+        for (int i = 0; i < skus; i++) list.add(new InventoryItem(String.format("SKU%07d", i), null, quantities[i]));
+        long listBytes = usedHeap() - before;
+
+        System.out.printf("bytes per sku at %d skus: StockLevels %d, HashMap<String,Integer> %d, List<InventoryItem> %d%n",
+                skus, levelsBytes / skus, mapBytes / skus, listBytes / skus);
+
+        // keep all three reachable until they've been measured
+        assertEquals(levels.size(), map.size());
+        assertEquals(levels.size(), list.size());
+        assertEquals(map.get("SKU0123456").intValue(), levels.getQuantity("SKU0123456", -1));
+
+        assertTrue("StockLevels should take under half what the HashMap does", levelsBytes * 2 < mapBytes);
+        assertTrue("StockLevels should take under half what the item list does", levelsBytes * 2 < listBytes);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
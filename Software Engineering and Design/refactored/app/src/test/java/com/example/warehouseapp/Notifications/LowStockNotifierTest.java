@@ -0,0 +1,124 @@
+package com.example.warehouseapp.Notifications;
+
+import android.content.Context;
+
+import com.example.warehouseapp.Database.NotificationOutboxHelper;
+import com.example.warehouseapp.Database.WarehouseDatabase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.junit.Assert.*;
+
+/**
+ * Dedupe, digests, rate limiting and the outbox surviving a restart, against a fake sender and a fake clock.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class LowStockNotifierTest {
+
+    // records messages instead of texting them, and can be told to fail
+    private static class FakeSender implements NotificationSender {
+        final List<String> sent = new ArrayList<>();
+        boolean failing;
+
+        @Override
+        public void send(String message) {
+            if (failing) throw new IllegalStateException("no signal");
+            sent.add(message);
+        }
+    }
+
+    private Context context;
+    private ScheduledExecutorService scheduler;
+    private FakeSender sender;
+    private long now = 1_000_000;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        sender = new FakeSender();
+        clear();
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+        clear();
+    }
+
+    @Test
+    public void bulkZeroOutIsDigestedAndRateLimited() {
+        LowStockNotifier notifier = newNotifier();
+
+        for (int i = 0; i < 300; i++) assertTrue(notifier.enqueue(String.format("Z%03d", i), "Shelf item"));
+
+        // the burst goes out as full digests, the rest waits for the bucket
+        assertEquals(LowStockNotifier.refillMillis, notifier.flush());
+        assertEquals(LowStockNotifier.burstDigests, sender.sent.size());
+        assertTrue(sender.sent.get(0).startsWith("Alert!!! " + LowStockNotifier.maxDigestSkus + " items have reached zero: SKU Z000"));
+        assertEquals(300 - LowStockNotifier.burstDigests * LowStockNotifier.maxDigestSkus, new NotificationOutboxHelper(context).getPendingCount());
+
+        // one more digest per refill
+        now += LowStockNotifier.refillMillis;
+        notifier.flush();
+        assertEquals(LowStockNotifier.burstDigests + 1, sender.sent.size());
+    }
+
+    @Test
+    public void skuIsAlertedOncePerWindow() {
+        LowStockNotifier notifier = newNotifier();
+
+        assertTrue(notifier.enqueue("A1", "Box Brown"));
+        assertTrue(notifier.enqueue("A1", "Box Brown"));
+        assertEquals(-1, notifier.flush());
+        assertEquals(1, sender.sent.size());
+        assertEquals("Alert!!! SKU A1 - Box Brown has reached zero items.", sender.sent.get(0));
+
+        // hitting zero again straight away stays quiet
+        now += 60_000;
+        assertFalse(notifier.enqueue("A1", "Box Brown"));
+        assertEquals(-1, notifier.flush());
+        assertEquals(1, sender.sent.size());
+
+        // but not once the window is over
+        now += LowStockNotifier.dedupeWindowMillis;
+        assertTrue(notifier.enqueue("A1", "Box Brown"));
+        notifier.flush();
+        assertEquals(2, sender.sent.size());
+    }
+
+    @Test
+    public void failedAlertsSurviveUntilARestartSendsThem() {
+        LowStockNotifier notifier = newNotifier();
+        sender.failing = true;
+
+        notifier.enqueue("B1", "Tape");
+        notifier.enqueue("B2", "Labels");
+        assertEquals(LowStockNotifier.retryDelayMillis, notifier.flush());
+        assertEquals(2, new NotificationOutboxHelper(context).getPendingCount());
+
+        // a new notifier over the same database, as after the process is killed, picks them up
+        sender = new FakeSender();
+        assertEquals(-1, newNotifier().flush());
+        assertEquals(1, sender.sent.size());
+        assertTrue(sender.sent.get(0).contains("SKU B1 - Tape; SKU B2 - Labels"));
+    }
+
+    private LowStockNotifier newNotifier() {
+        return new LowStockNotifier(new NotificationOutboxHelper(context), sender, () -> now, scheduler);
+    }
+
+    private void clear() {
+        WarehouseDatabase.getInstance(context).getDatabase().delete("low_stock_outbox", null, null);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.warehouseapp.Notifications;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TokenBucketTest {
+
+    private long now = 1_000;
+
+    @Test
+    public void burstThenRefillRate() {
+        TokenBucket bucket = new TokenBucket(3, 100, () -> now);
+
+        // a full bucket lets a burst through
+        assertTrue(bucket.tryTake());
+        assertTrue(bucket.tryTake());
+        assertTrue(bucket.tryTake());
+        assertFalse(bucket.tryTake());
+        assertEquals(100, bucket.millisUntilToken());
+
+        // one token per interval after that
+        now += 60;
+        assertFalse(bucket.tryTake());
+        assertEquals(40, bucket.millisUntilToken());
+        now += 40;
+        assertTrue(bucket.tryTake());
+        assertFalse(bucket.tryTake());
+    }
+
+    @Test
+    public void idleTimeNeverOverfillsTheBucket() {
+        TokenBucket bucket = new TokenBucket(2, 100, () -> now);
+        assertTrue(bucket.tryTake());
+
+        // a long quiet spell refills to capacity, no further
+        now += 10_000;
+        assertEquals(0, bucket.millisUntilToken());
+        assertTrue(bucket.tryTake());
+        assertTrue(bucket.tryTake());
+        assertFalse(bucket.tryTake());
+    }
+
+    @Test
+    public void partialIntervalsCarryOver() {
+        TokenBucket bucket = new TokenBucket(3, 100, () -> now);
+        assertTrue(bucket.tryTake());
+        assertTrue(bucket.tryTake());
+        assertTrue(bucket.tryTake());
+
+        // 250ms earns two tokens, the leftover 50ms counts towards the third
+        now += 250;
+        assertTrue(bucket.tryTake());
+        assertEquals(0, bucket.millisUntilToken());
+        assertTrue(bucket.tryTake());
+        assertEquals(50, bucket.millisUntilToken());
+    }
+}
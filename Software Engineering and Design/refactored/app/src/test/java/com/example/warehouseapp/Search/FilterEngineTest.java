@@ -0,0 +1,122 @@
+package com.example.warehouseapp.Search;
+
+import com.example.warehouseapp.Types.InventoryItem;
+import com.example.warehouseapp.Types.InventorySnapshot;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Narrowing, debouncing and staleness rules of the search-as-you-type engine.
+ */
+public class FilterEngineTest {
+
+    @Test
+    public void narrowingMatchesFullSearch() throws InterruptedException {
+        List<InventoryItem> items = catalog(20_000);
+        FilterEngine engine = new FilterEngine(InventorySnapshot.of(items), 0, Runnable::run);
+
+        // each query extends the last, so after the first one only the previous matches are re-checked
+        for (String query : new String[]{"s", "sk", "sku", "sku00", "sku0001", "sku00012"}) {
+            assertEquals(query, linearScan(items, query), awaitResults(engine, query));
+        }
+
+        // not an extension of the previous query, so the whole snapshot is scanned again
+        for (String query : new String[]{"tape", "BOX b", "x b", "zzz"}) {
+            assertEquals(query, linearScan(items, query), awaitResults(engine, query));
+        }
+        engine.shutdown();
+    }
+
+    @Test
+    public void rapidTypingReportsOnlyFinalQuery() throws InterruptedException {
+        FilterEngine engine = new FilterEngine(InventorySnapshot.of(catalog(50_000)), 100, Runnable::run);
+        List<String> reported = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        // eight keystrokes well inside the debounce window
+        String typed = "SKU00123";
+        for (int end = 1; end <= typed.length(); end++) {
+            String query = typed.substring(0, end);
+            engine.filter(query, (matched, results) -> {
+                reported.add(matched);
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        Thread.sleep(300);
+        assertEquals(1, reported.size());
+        assertEquals(typed, reported.get(0));
+        engine.shutdown();
+    }
+
+    @Test
+    public void cancelDropsPendingQuery() throws InterruptedException {
+        FilterEngine engine = new FilterEngine(InventorySnapshot.of(catalog(1_000)), 50, Runnable::run);
+        List<String> reported = new CopyOnWriteArrayList<>();
+
+        engine.filter("box", (matched, results) -> reported.add(matched));
+        engine.cancel();
+
+        Thread.sleep(300);
+        assertTrue(reported.isEmpty());
+        engine.shutdown();
+    }
+
+    @Test
+    public void editsAreSeenByNextSearch() throws InterruptedException {
+        InventoryItem item = new InventoryItem("SKU1", "Box Brown", 1);
+        List<InventoryItem> items = new ArrayList<>();
+        items.add(item);
+        InventorySnapshot snapshot = InventorySnapshot.of(items);
+        FilterEngine engine = new FilterEngine(snapshot, 0, Runnable::run);
+
+        assertEquals(1, awaitResults(engine, "box").size());
+
+        // the cached "box" matches must not hide the edit from a longer query
+        engine.update(snapshot.replace(item.getSku(), new InventoryItem("SKU1", "Tape Clear", 1)));
+        assertEquals(0, awaitResults(engine, "box b").size());
+        assertEquals(1, awaitResults(engine, "tape").size());
+        engine.shutdown();
+    }
+
+    private static List<InventoryItem> awaitResults(FilterEngine engine, String query) throws InterruptedException {
+        List<List<InventoryItem>> holder = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        engine.filter(query, (matched, results) -> {
+            holder.add(results);
+            done.countDown();
+        });
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        return holder.get(0);
+    }
+
+    // the filter InventoryAdapter started out with
+    private static List<InventoryItem> linearScan(List<InventoryItem> items, String query) {
+        List<InventoryItem> results = new ArrayList<>();
+        String lcQuery = query.toLowerCase();
+        for (InventoryItem item : items) {
+            if (item.getSku().toLowerCase().contains(lcQuery) || item.getDesc().toLowerCase().contains(lcQuery)) {
+                results.add(item);
+            }
+        }
+        return results;
+    }
+
+    private static List<InventoryItem> catalog(int size) {
+        String[] words = {"Box", "Brown", "Tape", "Clear", "Pallet", "Wrap"};
+        List<InventoryItem> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            items.add(new InventoryItem(String.format("SKU%07d", i), words[i % words.length] + " " + words[(i / 5) % words.length], i % 30));
+        }
+        return items;
+    }
+}
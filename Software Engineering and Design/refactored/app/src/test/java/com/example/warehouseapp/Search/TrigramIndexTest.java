@@ -0,0 +1,149 @@
+package com.example.warehouseapp.Search;
+
+import com.example.warehouseapp.Types.InventoryItem;
+import com.example.warehouseapp.Types.InventorySnapshot;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Correctness of the trigram index against the old linear filter, as the snapshot under it is edited,
+ * plus a per-keystroke latency benchmark.
+ */
+public class TrigramIndexTest {
+
+    private static final String[] words = {"Box", "Brown", "12x12", "Tape", "Clear", "Pallet", "Wrap", "Label", "Roll", "Large"};
+
+    @Test
+    public void searchMatchesLinearScan() {
+        List<InventoryItem> items = catalog(5_000);
+        TrigramIndex index = new TrigramIndex(InventorySnapshot.of(items));
+
+        for (String query : new String[]{"box", "BOX 12", "sku0001", "wrap la", "zzz", "2x1", "0012"}) {
+            assertEquals(query, linearScan(items, query), index.search(query));
+        }
+    }
+
+    @Test
+    public void editsKeepIndexInStep() {
+        InventoryItem a = new InventoryItem("SKU1", "Box Brown", 1);
+        InventoryItem b = new InventoryItem("SKU2", "Tape Clear", 2);
+        InventoryItem c = new InventoryItem("SKU3", "Box Large", 3);
+        InventorySnapshot snapshot = InventorySnapshot.of(Arrays.asList(a, b, c));
+        TrigramIndex index = new TrigramIndex(snapshot);
+
+        // an edit keeps the item's place in the order
+        InventoryItem edited = new InventoryItem("SKU1", "Pallet Wrap", 1);
+        snapshot = snapshot.replace("SKU1", edited);
+        assertTrue(index.update(snapshot));
+        assertEquals(Arrays.asList(c), index.search("box"));
+        assertEquals(Arrays.asList(edited), index.search("wrap"));
+        assertEquals(Arrays.asList(edited, b, c), index.search("sku"));
+
+        snapshot = snapshot.remove("SKU2");
+        assertTrue(index.update(snapshot));
+        assertTrue(index.search("tape").isEmpty());
+
+        // a rename moves the row's sku trigrams, and a brand new description is indexed as it arrives
+        InventoryItem renamed = new InventoryItem("PAL9", "Pallet Wrap", 1);
+        InventoryItem added = new InventoryItem("NEW", "Box Small", 0);
+        snapshot = snapshot.replace("SKU1", renamed).put(added);
+        assertTrue(index.update(snapshot));
+        assertEquals(Arrays.asList(c, added), index.search("box"));
+        assertEquals(Arrays.asList(renamed), index.search("pal9"));
+        assertEquals(Arrays.asList(c), index.search("sku"));
+    }
+
+    @Test
+    public void randomEditsMatchLinearScan() {
+        InventorySnapshot snapshot = InventorySnapshot.of(catalog(5_000));
+        TrigramIndex index = new TrigramIndex(snapshot);
+        Random random = new Random(11);
+        int rebuilds = 0;
+
+        // enough deletes to compact the snapshot, which the index can't follow
+        for (int i = 0; i < 20_000; i++) {
+            String sku = String.format("SKU%07d", random.nextInt(8_000));
+            InventoryItem item = new InventoryItem(sku, words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)] + " " + random.nextInt(30), 1);
+            int op = random.nextInt(10);
+            if (op < 4) snapshot = snapshot.remove(sku);
+            else if (op < 8) snapshot = snapshot.put(item);
+            else snapshot = snapshot.replace(String.format("SKU%07d", random.nextInt(8_000)), item);
+
+            // the index falls behind by a few edits at a time, as it does between searches
+            if (i % 7 == 0) {
+                if (!index.update(snapshot)) {
+                    index = new TrigramIndex(snapshot);
+                    rebuilds++;
+                }
+            }
+        }
+        if (!index.update(snapshot)) index = new TrigramIndex(snapshot);
+
+        assertTrue("the snapshot should have compacted at least once", rebuilds > 0);
+        List<InventoryItem> items = snapshot.asList();
+        for (String query : new String[]{"box", "pallet w", "sku00012", "x12 2", "tape clear 1", "zzz"}) {
+            assertEquals(query, linearScan(items, query), index.search(query));
+        }
+    }
+
+    @Test
+    public void perKeystrokeLatency() {
+        // typing a sku and a description one character at a time, from the third character on where the index takes over
+        String[] typed = {"SKU0012345", "Pallet Wrap"};
+
+        for (int size : new int[]{10_000, 100_000, 1_000_000}) {
+            List<InventoryItem> items = catalog(size);
+            TrigramIndex index = new TrigramIndex(InventorySnapshot.of(items));
+
+            long scanNanos = 0, indexNanos = 0;
+            int keystrokes = 0;
+            for (String query : typed) {
+                for (int end = TrigramIndex.minQueryLength; end <= query.length(); end++) {
+                    String prefix = query.substring(0, end);
+
+                    long start = System.nanoTime();
+                    List<InventoryItem> expected = linearScan(items, prefix);
+                    scanNanos += System.nanoTime() - start;
+
+                    start = System.nanoTime();
+                    List<InventoryItem> actual = index.search(prefix);
+                    indexNanos += System.nanoTime() - start;
+
+                    assertEquals(expected.size(), actual.size());
+                    keystrokes++;
+                }
+            }
+
+            System.out.printf("%,d items: linear scan %.2f ms/keystroke, trigram index %.2f ms/keystroke%n",
+                    size, scanNanos / 1e6 / keystrokes, indexNanos / 1e6 / keystrokes);
+        }
+    }
+
+    // the filter InventoryAdapter used before the index
+    private static List<InventoryItem> linearScan(List<InventoryItem> items, String query) {
+        List<InventoryItem> results = new ArrayList<>();
+        String lcQuery = query.toLowerCase();
+        for (InventoryItem item : items) {
+            if (item.getSku().toLowerCase().contains(lcQuery) || item.getDesc().toLowerCase().contains(lcQuery)) {
+                results.add(item);
+            }
+        }
+        return results;
+    }
+
+    private static List<InventoryItem> catalog(int size) {
+        List<InventoryItem> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String desc = words[i % words.length] + " " + words[(i / 7) % words.length] + " " + words[(i / 31) % words.length];
+            items.add(new InventoryItem(String.format("SKU%07d", i), desc, i % 40));
+        }
+        return items;
+    }
+}
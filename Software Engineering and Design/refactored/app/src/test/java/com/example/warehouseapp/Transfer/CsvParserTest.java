@@ -0,0 +1,85 @@
+package com.example.warehouseapp.Transfer;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Parsing rules of the CSV reader, resuming from its offsets, and raw parse throughput.
+ */
+public class CsvParserTest {
+
+    @Test
+    public void parsesQuotingAndLineEndings() throws IOException {
+        String csv = "\uFEFFsku,description,quantity\r\n" +
+                "A1,\"Box, brown\",4\n" +
+                "\n" +
+                "A2,\"Says \"\"hi\"\"\",5\r\n" +
+                "A3,\"two\nlines\",\n" +
+                "A4,Cr\u00e8me br\u00fbl\u00e9e,7";
+
+        List<List<String>> records = parseAll(csv.getBytes(StandardCharsets.UTF_8), 0);
+
+        assertEquals(Arrays.asList(
+                Arrays.asList("sku", "description", "quantity"),
+                Arrays.asList("A1", "Box, brown", "4"),
+                Arrays.asList("A2", "Says \"hi\"", "5"),
+                Arrays.asList("A3", "two\nlines", ""),
+                Arrays.asList("A4", "Cr\u00e8me br\u00fbl\u00e9e", "7")), records);
+    }
+
+    @Test
+    public void offsetResumesAtTheNextRecord() throws IOException {
+        byte[] bytes = "a,1\n\"b\nb\",2\r\nc,3\n".getBytes(StandardCharsets.UTF_8);
+
+        // every offset reported must be a valid place to start reading again
+        CsvParser csv = new CsvParser(new ByteArrayInputStream(bytes), 0);
+        List<Long> offsets = new ArrayList<>();
+        while (csv.next()) offsets.add(csv.offset());
+
+        assertEquals(Long.valueOf(bytes.length), offsets.get(offsets.size() - 1));
+
+        List<List<String>> rest = parseAll(Arrays.copyOfRange(bytes, offsets.get(0).intValue(), bytes.length), offsets.get(0));
+        assertEquals(Arrays.asList(Arrays.asList("b\nb", "2"), Arrays.asList("c", "3")), rest);
+    }
+
+    @Test
+    public void parseThroughput() throws IOException {
+        int rows = 500_000;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write("sku,description,quantity,reorder_threshold\n".getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; i < rows; i++) {
+            out.write(String.format("SKU%07d,\"Box %d, brown\",%d,%d\n", i, i, i % 40, 5).getBytes(StandardCharsets.UTF_8));
+        }
+        byte[] bytes = out.toByteArray();
+
+        long start = System.nanoTime();
+        CsvParser csv = new CsvParser(new ByteArrayInputStream(bytes), 0);
+        int records = 0;
+        while (csv.next()) records++;
+        long nanos = System.nanoTime() - start;
+
+        assertEquals(rows + 1, records);
+        System.out.printf("parsed %,d rows (%.1f MB) at %,.0f rows/s%n", rows, bytes.length / 1e6, rows / (nanos / 1e9));
+    }
+
+    private static List<List<String>> parseAll(byte[] bytes, long startOffset) throws IOException {
+        List<List<String>> records = new ArrayList<>();
+        try (CsvParser csv = new CsvParser(new ByteArrayInputStream(bytes), startOffset)) {
+            while (csv.next()) {
+                List<String> record = new ArrayList<>();
+                for (int i = 0; i < csv.fieldCount(); i++) record.add(csv.field(i));
+                records.add(record);
+            }
+        }
+        return records;
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.warehouseapp.Transfer;
+
+import android.content.Context;
+
+import com.example.warehouseapp.Database.InventoryHelper;
+import com.example.warehouseapp.Database.WarehouseDatabase;
+import com.example.warehouseapp.Types.InventoryItem;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * Output format of the exporter, and a check that exporting a million rows keeps the heap flat.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class InventoryExporterTest {
+
+    private Context context;
+    private InventoryHelper inventory;
+    private InventoryExporter exporter;
+
+    @Before
+    public void setUp() {
+        context = RuntimeEnvironment.getApplication();
+        inventory = new InventoryHelper(context);
+        exporter = new InventoryExporter(inventory, Runnable::run);
+        clear();
+    }
+
+    @After
+    public void tearDown() {
+        clear();
+    }
+
+    @Test
+    public void writesCsvAndNdjson() throws IOException {
+        inventory.insertOrUpdateItems(Arrays.asList(
+                new InventoryItem("A1", "Box, \"brown\"", 4, 2),
+                new InventoryItem("A2", "two\nlines", 0),
+                new InventoryItem("A3", null, 7)));
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        assertEquals(3, exporter.export(csv, InventoryExporter.Format.CSV, false));
+        assertEquals("sku,description,quantity,reorder_threshold\n" +
+                "A1,\"Box, \"\"brown\"\"\",4,2\n" +
+                "A2,\"two\nlines\",0,0\n" +
+                "A3,,7,0\n", csv.toString("UTF-8"));
+
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        exporter.export(json, InventoryExporter.Format.NDJSON, false);
+        assertEquals("{\"sku\":\"A1\",\"description\":\"Box, \\\"brown\\\"\",\"quantity\":4,\"reorder_threshold\":2}\n" +
+                "{\"sku\":\"A2\",\"description\":\"two\\nlines\",\"quantity\":0,\"reorder_threshold\":0}\n" +
+                "{\"sku\":\"A3\",\"description\":null,\"quantity\":7,\"reorder_threshold\":0}\n", json.toString("UTF-8"));
+    }
+
+    @Test
+    public void gzippedCsvReadsBackThroughTheImportParser() throws IOException {
+        List<InventoryItem> items = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) items.add(new InventoryItem(String.format("SKU%05d", i), "Box " + i + ", brown", i % 40, i % 3));
+        inventory.insertOrUpdateItems(items);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.export(out, InventoryExporter.Format.CSV, true);
+
+        List<InventoryItem> read = new ArrayList<>();
+        try (CsvParser csv = new CsvParser(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())), 0)) {
+            assertTrue(csv.next()); // header
+            while (csv.next()) {
+                read.add(new InventoryItem(csv.field(0), csv.field(1), Integer.parseInt(csv.field(2)), Integer.parseInt(csv.field(3))));
+            }
+        }
+        assertEquals(items, read);
+    }
+
+    @Test
+    public void heapStaysFlatExportingAMillionRows() throws IOException {
+        int rows = 1_000_000;
+        List<InventoryItem> batch = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            batch.add(new InventoryItem(String.format("SKU%07d", i), "Item " + i + " in aisle " + (i % 50), i % 1000, 5));
+            if (batch.size() == 10_000) {
+                inventory.insertOrUpdateItems(batch);
+                batch.clear();
+            }
+        }
+
+        HeapSamplingStream out = new HeapSamplingStream();
+        long baseline = usedHeap();
+        long exported = exporter.export(out, InventoryExporter.Format.NDJSON, false);
+
+        assertEquals(rows, exported);
+        assertEquals(rows, out.lines);
+
+        long growth = out.peakUsed - baseline;
+        System.out.printf("exported %,d rows (%.1f MB), heap grew by at most %.1f MB%n", rows, out.bytes / 1e6, growth / 1e6);
+
+        // a million InventoryItems alone would take well over 100 MB
+        assertTrue("heap grew by " + growth + " bytes", growth < 16 * 1024 * 1024);
+    }
+
+    private void clear() {
+        WarehouseDatabase.getInstance(context).getDatabase().delete(InventoryHelper.table, null, null);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Discards what is written, counting lines and sampling the live heap every few megabytes
+     */
+    private static final class HeapSamplingStream extends OutputStream {
+        private static final long sampleEvery = 8 * 1024 * 1024;
+
+        long bytes = 0, lines = 0, peakUsed = 0;
+        private long nextSample = sampleEvery;
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') lines++;
+            }
+
+            bytes += len;
+            if (bytes >= nextSample) {
+                nextSample += sampleEvery;
+                peakUsed = Math.max(peakUsed, usedHeap());
+            }
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.example.warehouseapp.Types;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Copy-on-write edits of the columnar snapshot against a plain list, a save/delete benchmark against the list scans
+ * sku-keyed edits replaced, and its memory and full-scan speed next to the two item lists (the full catalog and the
+ * visible copy) the list screen held before.
+ */
+public class InventorySnapshotTest {
+
+    private static final int items = 500_000;
+    // a catalog reuses a few thousand descriptions across all its skus
+    private static final int distinctDescriptions = 2_000;
+
+    @Test
+    public void itemsAreValues() {
+        InventoryItem a = new InventoryItem("SKU1", "Box", 3);
+
+        assertEquals(a, new InventoryItem("SKU1", "Box", 3));
+        assertEquals(a.hashCode(), new InventoryItem("SKU1", "Box", 3).hashCode());
+        assertNotEquals(a, new InventoryItem("SKU1", "Box", 4));
+    }
+
+    @Test
+    public void editsLeaveOlderSnapshotsAlone() {
+        InventoryItem a = new InventoryItem("SKU1", "Box", 1);
+        InventoryItem b = new InventoryItem("SKU2", "Tape", 2, 5);
+        InventoryItem c = new InventoryItem("SKU3", "Box", 3);
+        InventorySnapshot original = InventorySnapshot.of(Arrays.asList(a, b, c));
+
+        // both boxes share one dictionary entry
+        assertEquals(2, original.getDescriptionCount());
+        assertEquals(original.descriptionIdAt(0), original.descriptionIdAt(2));
+
+        // an edit stays in place
+        InventoryItem editedB = new InventoryItem("SKU2", "Tape Clear", 5);
+        InventorySnapshot edited = original.replace("SKU2", editedB);
+        assertEquals(Arrays.asList(a, editedB, c), edited.asList());
+
+        // renaming onto an existing sku drops the other item rather than listing the sku twice
+        InventoryItem renamedA = new InventoryItem("SKU3", "Box", 1);
+        InventorySnapshot renamed = edited.replace("SKU1", renamedA);
+        assertEquals(Arrays.asList(renamedA, editedB), renamed.asList());
+        assertFalse(renamed.contains("SKU1"));
+        assertEquals(0, renamed.positionOf("SKU3"));
+
+        // putting an existing sku overwrites it, a new one goes on the end
+        InventorySnapshot put = renamed.put(new InventoryItem("SKU2", null, 0)).put(new InventoryItem("SKU9", "Wrap", 4));
+        assertEquals(3, put.size());
+        assertNull(put.descAt(1));
+        assertEquals(new InventoryItem("SKU9", "Wrap", 4), put.getItem("SKU9"));
+
+        InventorySnapshot removed = put.remove("SKU3");
+        assertEquals(2, removed.size());
+        assertSame(removed, removed.remove("SKU3"));
+
+        // none of the edits reached a snapshot taken before them
+        assertEquals(Arrays.asList(a, b, c), original.asList());
+        assertEquals(Arrays.asList(a, editedB, c), edited.asList());
+        assertEquals(3, put.size());
+
+        // an older snapshot can still be edited, it branches off with an index of its own
+        InventorySnapshot branch = edited.remove("SKU1");
+        assertEquals(Arrays.asList(editedB, c), branch.asList());
+        assertEquals(1, branch.positionOf("SKU3"));
+        assertEquals(Arrays.asList(renamedA, editedB), renamed.asList());
+    }
+
+    @Test
+    public void randomEditsMatchAList() {
+        List<InventoryItem> expected = new ArrayList<>(catalog(5_000));
+        InventorySnapshot snapshot = InventorySnapshot.of(expected);
+        Random random = new Random(5);
+
+        // a snapshot from early on, and what it held then
+        InventorySnapshot early = null;
+        List<InventoryItem> earlyItems = null;
+
+        // enough deletes to blank rows across many chunks and compact more than once
+        for (int i = 0; i < 20_000; i++) {
+            String sku = String.format("SKU%07d", random.nextInt(8_000));
+            InventoryItem item = new InventoryItem(sku, "Item " + random.nextInt(50), random.nextInt(40), random.nextInt(10));
+            int op = random.nextInt(10);
+
+            if (op < 4) {
+                snapshot = snapshot.remove(sku);
+                expected.removeIf(other -> other.getSku().equals(sku));
+            } else if (op < 8) {
+                snapshot = snapshot.put(item);
+                int index = indexOfSku(expected, sku);
+                if (index == -1) expected.add(item);
+                else expected.set(index, item);
+            } else {
+                // rename some sku, possibly onto another existing one
+                String oldSku = String.format("SKU%07d", random.nextInt(8_000));
+                snapshot = snapshot.replace(oldSku, item);
+                int index = indexOfSku(expected, oldSku);
+                if (index == -1) {
+                    int existing = indexOfSku(expected, sku);
+                    if (existing == -1) expected.add(item);
+                    else expected.set(existing, item);
+                } else {
+                    int displaced = oldSku.equals(sku) ? -1 : indexOfSku(expected, sku);
+                    expected.set(index, item);
+                    if (displaced != -1) expected.remove(displaced);
+                }
+            }
+
+            if (i == 2_000) {
+                early = snapshot;
+                earlyItems = new ArrayList<>(expected);
+            }
+        }
+
+        assertEquals(expected, snapshot.asList());
+        for (int position = 0; position < expected.size(); position += 7) {
+            InventoryItem item = expected.get(position);
+            assertEquals(position, snapshot.positionOf(item.getSku()));
+            assertEquals(item.getSku(), snapshot.skuAt(position));
+            assertEquals(item.getDesc(), snapshot.descAt(position));
+            assertEquals(item.getQuantity(), snapshot.quantityAt(position));
+            assertEquals(item.getReorderThreshold(), snapshot.thresholdAt(position));
+        }
+        assertEquals(earlyItems, early.asList());
+    }
+
+    @Test
+    public void rowViewsAreReadOnly() {
+        InventorySnapshot snapshot = InventorySnapshot.of(catalog(10));
+        List<InventoryItem> rows = snapshot.rows(new int[]{7, 2, 0, 0}, 2);
+
+        assertEquals(Arrays.asList(snapshot.get(7), snapshot.get(2)), rows);
+        try {
+            rows.get(2);
+            fail("only the first two rows are in the view");
+        } catch (IndexOutOfBoundsException expected) {
+            // the unused end of the rows array stays hidden
+        }
+        try {
+            rows.add(snapshot.get(0));
+            fail("views can't be changed");
+        } catch (UnsupportedOperationException expected) {
+            // the snapshot under it is shared
+        }
+    }
+
+    @Test
+    public void saveAndDeleteLatency() {
+        int size = 100_000;
+        int edits = 2_000;
+        List<InventoryItem> items = catalog(size);
+
+        // the same random rows are saved and then deleted on both sides
+        Random random = new Random(42);
+        List<InventoryItem> targets = new ArrayList<>();
+        for (int i = 0; i < edits; i++) targets.add(items.get(random.nextInt(size)));
+
+        // old behaviour: indexOf to find the row, then list.remove to drop it
+        List<InventoryItem> list = new ArrayList<>(items);
+        long start = System.nanoTime();
+        for (InventoryItem item : targets) {
+            int index = list.indexOf(item);
+            if (index != -1) list.set(index, new InventoryItem(item.getSku(), item.getDesc(), item.getQuantity() + 1));
+        }
+        for (InventoryItem item : targets) {
+            list.removeIf(other -> other.getSku().equals(item.getSku()));
+        }
+        long listNanos = System.nanoTime() - start;
+
+        InventorySnapshot snapshot = InventorySnapshot.of(items);
+        start = System.nanoTime();
+        for (InventoryItem item : targets) {
+            snapshot = snapshot.replace(item.getSku(), new InventoryItem(item.getSku(), item.getDesc(), item.getQuantity() + 1));
+        }
+        for (InventoryItem item : targets) {
+            snapshot = snapshot.remove(item.getSku());
+        }
+        long snapshotNanos = System.nanoTime() - start;
+
+        assertEquals(list.size(), snapshot.size());
+        System.out.printf("%,d items: list scan %.2f us/edit, snapshot %.2f us/edit%n",
+                size, listNanos / 1e3 / (edits * 2), snapshotNanos / 1e3 / (edits * 2));
+
+        assertTrue("indexed snapshot edits should beat scanning the list", snapshotNanos < listNanos);
+    }
+
+    @Test
+    public void footprintAndFullScan() {
+        // before: the catalog as loaded, every row with its own strings as sqlite hands them back, plus the visible copy
+        long before = usedHeap();
+        List<InventoryItem> full = catalog(items);
+        List<InventoryItem> visible = new ArrayList<>(full);
+        long listBytes = usedHeap() - before;
+
+        // after: the same rows streamed into the columns, the per-row description strings are dropped as they're interned
+        before = usedHeap();
+        InventorySnapshot.Builder builder = new InventorySnapshot.Builder(items);
+        for (int i = 0; i < items; i++) builder.add(sku(i), description(i), i % 40, 10);
+        InventorySnapshot snapshot = builder.build();
+        builder = null;
+        long snapshotBytes = usedHeap() - before;
+
+        System.out.printf("%,d items, %,d descriptions: two item lists %d bytes/item, snapshot %d bytes/item%n",
+                items, distinctDescriptions, listBytes / items, snapshotBytes / items);
+
+        // a low stock count and a description search, each over the whole catalog
+        int listLow = 0;
+        int snapshotLow = 0;
+        int listMatches = 0;
+        int snapshotMatches = 0;
+        long listNanos = 0;
+        long snapshotNanos = 0;
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            listLow = 0;
+            listMatches = 0;
+            for (InventoryItem item : full) {
+                if (item.getQuantity() <= item.getReorderThreshold()) listLow++;
+                if (containsIgnoreCase(item.getDesc(), "brown")) listMatches++;
+            }
+            listNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            snapshotLow = 0;
+            snapshotMatches = 0;
+            boolean[] matches = new boolean[snapshot.getDescriptionCount()];
+            for (int id = 0; id < matches.length; id++) matches[id] = containsIgnoreCase(snapshot.getDescription(id), "brown");
+            for (int position = 0; position < snapshot.size(); position++) {
+                if (snapshot.quantityAt(position) <= snapshot.thresholdAt(position)) snapshotLow++;
+                int id = snapshot.descriptionIdAt(position);
+                if (id >= 0 && matches[id]) snapshotMatches++;
+            }
+            snapshotNanos = System.nanoTime() - start;
+        }
+
+        System.out.printf("full scan: two item lists %.2f ms, snapshot %.2f ms%n", listNanos / 1e6, snapshotNanos / 1e6);
+
+        // keep everything reachable until it's been measured
+        assertEquals(visible.size(), snapshot.size());
+        assertEquals(listLow, snapshotLow);
+        assertEquals(listMatches, snapshotMatches);
+        assertEquals(full.get(12_345), snapshot.get(12_345));
+
+        // the sku strings are most of what's left, the index that makes edits cheap adds about 8 bytes a sku on top of the columns
+        assertTrue("the snapshot, index included, should take under two thirds what the two lists do", snapshotBytes * 3 < listBytes * 2);
+    }
+
+    private static List<InventoryItem> catalog(int size) {
+        List<InventoryItem> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) list.add(new InventoryItem(sku(i), description(i), i % 40, 10));
+        return list;
+    }
+
+    private static int indexOfSku(List<InventoryItem> items, String sku) {
+        for (int i = 0; i < items.size(); i++) {
+            if (items.get(i).getSku().equals(sku)) return i;
+        }
+        return -1;
+    }
+
+    private static String sku(int i) {
+        return String.format("SKU%07d", i);
+    }
+
+    // a new string every call, the way each cursor row brings its own copy
+    private static String description(int i) {
+        String[] colours = {"Brown", "Clear", "Black", "White"};
+        int d = i % distinctDescriptions;
+        return new String("Box " + d + "x" + (d / 7) + " " + colours[d % colours.length]);
+    }
+
+    private static boolean containsIgnoreCase(String text, String query) {
+        if (text == null) return false;
+
+        for (int i = 0; i <= text.length() - query.length(); i++) {
+            if (text.regionMatches(true, i, query, 0, query.length())) return true;
+        }
+        return false;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}